@@ -10,11 +10,14 @@ package de.ii.xtraplatform.cql.app;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.InjectableValues;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.databind.ser.std.StdDelegatingSerializer;
 import com.fasterxml.jackson.databind.util.StdConverter;
 import com.github.azahnen.dagger.annotations.AutoBind;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import de.ii.xtraplatform.cql.domain.Cql;
 import de.ii.xtraplatform.cql.domain.Cql2Expression;
@@ -48,8 +51,12 @@ public class CqlImpl implements Cql {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(CqlImpl.class);
 
+  private static final long MAX_JSON_READERS = 64;
+
   private final CqlTextParser cqlTextParser;
   private final ObjectMapper cqlJsonMapper;
+  private final ObjectReader cqlJsonReader;
+  private final Cache<Optional<EpsgCrs>, ObjectReader> cqlJsonReaders;
 
   @Inject
   public CqlImpl() {
@@ -66,6 +73,8 @@ public class CqlImpl implements Cql {
             .enable(SerializationFeature.INDENT_OUTPUT)
             .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
             .registerModule(module);
+    this.cqlJsonReader = cqlJsonMapper.readerFor(Operation.class);
+    this.cqlJsonReaders = CacheBuilder.newBuilder().maximumSize(MAX_JSON_READERS).build();
   }
 
   @Override
@@ -79,10 +88,8 @@ public class CqlImpl implements Cql {
       case TEXT:
         return cqlTextParser.parse(cql, crs);
       case JSON:
-        cqlJsonMapper.setInjectableValues(
-            new InjectableValues.Std().addValue("filterCrs", Optional.ofNullable(crs)));
         try {
-          return cqlJsonMapper.readValue(cql, Operation.class);
+          return getJsonReader(crs).readValue(cql);
         } catch (IOException e) {
           throw new CqlParseException(e.getMessage());
         }
@@ -91,6 +98,16 @@ public class CqlImpl implements Cql {
     throw new IllegalStateException();
   }
 
+  // readers are immutable, so concurrent reads with different CRSs do not interfere
+  private ObjectReader getJsonReader(EpsgCrs crs) {
+    return cqlJsonReaders
+        .asMap()
+        .computeIfAbsent(
+            Optional.ofNullable(crs),
+            filterCrs ->
+                cqlJsonReader.with(new InjectableValues.Std().addValue("filterCrs", filterCrs)));
+  }
+
   @Override
   public String write(Cql2Expression cql, Format format) {
     switch (format) {
@@ -15,10 +15,8 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.core.JacksonException;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.core.ObjectCodec;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
@@ -196,9 +194,9 @@ public interface Geometry<T> extends CqlNode {
       @Override
       public Point deserialize(JsonParser jsonParser, DeserializationContext deserializationContext)
           throws IOException, JacksonException {
-        ObjectCodec oc = jsonParser.getCodec();
-        JsonNode node = oc.readTree(jsonParser);
-        return Point.of(oc.treeToValue(node.get("coordinates"), Coordinate.class));
+        JsonNode node = deserializationContext.readTree(jsonParser);
+        return Point.of(
+            deserializationContext.readTreeAsValue(node.get("coordinates"), Coordinate.class));
       }
     }
 
@@ -340,12 +338,12 @@ public interface Geometry<T> extends CqlNode {
           JsonParser jsonParser, DeserializationContext deserializationContext)
           throws IOException, JacksonException {
         ImmutableGeometryCollection.Builder builder = new ImmutableGeometryCollection.Builder();
-        ObjectMapper mapper = (ObjectMapper) jsonParser.getCodec();
-        JsonNode node = jsonParser.getCodec().readTree(jsonParser);
+        JsonNode node = deserializationContext.readTree(jsonParser);
         JsonNode geometries = node.get("geometries");
         if (geometries.isArray()) {
           for (JsonNode geomNode : geometries) {
-            builder.addCoordinates(mapper.treeToValue(geomNode, Geometry.class));
+            builder.addCoordinates(
+                deserializationContext.readTreeAsValue(geomNode, Geometry.class));
           }
         }
         return builder.build();
@@ -11,12 +11,9 @@ import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.JsonStreamContext;
-import com.fasterxml.jackson.core.ObjectCodec;
 import com.fasterxml.jackson.databind.DeserializationContext;
-import com.fasterxml.jackson.databind.InjectableValues;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
 import com.fasterxml.jackson.databind.node.ArrayNode;
@@ -79,77 +76,79 @@ public interface Operand extends CqlNode {
       return ScalarLiteral.of(node.asText());
     }
 
-    private Operand getOperand(JsonParser parser, JsonNode node, String parent)
-        throws JsonProcessingException {
-      ObjectCodec oc = parser.getCodec();
+    // nested values are read with the context to keep the injectable values of the reader
+    private Operand getOperand(
+        JsonParser parser, DeserializationContext ctxt, JsonNode node, String parent)
+        throws IOException {
       if (node.isObject()) {
         if (Objects.nonNull(node.get("property"))) {
-          return oc.treeToValue(node, Property.class);
+          return ctxt.readTreeAsValue(node, Property.class);
         } else if (Objects.nonNull(node.get("date"))) {
-          return oc.treeToValue(node.get("date"), TemporalLiteral.class);
+          return ctxt.readTreeAsValue(node.get("date"), TemporalLiteral.class);
         } else if (Objects.nonNull(node.get("timestamp"))) {
-          return oc.treeToValue(node.get("timestamp"), TemporalLiteral.class);
+          return ctxt.readTreeAsValue(node.get("timestamp"), TemporalLiteral.class);
         } else if (Objects.nonNull(node.get("interval"))) {
           if (node.get("interval").isArray()) {
-            Temporal op1 = (Temporal) getOperand(parser, node.get("interval").get(0), parent);
-            Temporal op2 = (Temporal) getOperand(parser, node.get("interval").get(1), parent);
+            Temporal op1 = (Temporal) getOperand(parser, ctxt, node.get("interval").get(0), parent);
+            Temporal op2 = (Temporal) getOperand(parser, ctxt, node.get("interval").get(1), parent);
 
             return TemporalLiteral.interval(op1, op2);
           }
           throw new JsonParseException(parser, "Interval has to be an array.");
         } else if (Objects.nonNull(node.get("bbox"))) {
-          return SpatialLiteral.of(oc.treeToValue(node, Geometry.Bbox.class));
+          return SpatialLiteral.of(ctxt.readTreeAsValue(node, Geometry.Bbox.class));
         } else if (Objects.nonNull(node.get("type"))) {
-          final Optional<EpsgCrs> filterCrs = getFilterCrs(oc);
+          final Optional<EpsgCrs> filterCrs = getFilterCrs(ctxt);
           switch (node.get("type").asText()) {
             case "Point":
-              final Coordinate coord1 = oc.treeToValue(node.get("coordinates"), Coordinate.class);
+              final Coordinate coord1 =
+                  ctxt.readTreeAsValue(node.get("coordinates"), Coordinate.class);
               return SpatialLiteral.of(
                   filterCrs.map(crs -> Point.of(crs, coord1)).orElse(Point.of(coord1)));
             case "MultiPoint":
               return SpatialLiteral.of(
                   new ImmutableMultiPoint.Builder()
                       .coordinates(
-                          getMultiPointCoordinates(oc, (ArrayNode) node.get("coordinates")))
+                          getMultiPointCoordinates(ctxt, (ArrayNode) node.get("coordinates")))
                       .crs(filterCrs)
                       .build());
             case "MultiLineString":
               return SpatialLiteral.of(
                   new ImmutableMultiLineString.Builder()
                       .coordinates(
-                          getMultiLineStringCoordinates(oc, (ArrayNode) node.get("coordinates")))
+                          getMultiLineStringCoordinates(ctxt, (ArrayNode) node.get("coordinates")))
                       .crs(filterCrs)
                       .build());
             case "MultiPolygon":
               return SpatialLiteral.of(
                   new ImmutableMultiPolygon.Builder()
                       .coordinates(
-                          getMultiPolygonCoordinates(oc, (ArrayNode) node.get("coordinates")))
+                          getMultiPolygonCoordinates(ctxt, (ArrayNode) node.get("coordinates")))
                       .crs(filterCrs)
                       .build());
             default:
-              return SpatialLiteral.of(oc.treeToValue(node, Geometry.class));
+              return SpatialLiteral.of(ctxt.readTreeAsValue(node, Geometry.class));
           }
         } else if (Objects.nonNull(node.get("casei"))) {
-          return Casei.of(getOperand(parser, node.get("casei"), parent));
+          return Casei.of(getOperand(parser, ctxt, node.get("casei"), parent));
         } else if (Objects.nonNull(node.get("accenti"))) {
-          return Accenti.of(getOperand(parser, node.get("accenti"), parent));
+          return Accenti.of(getOperand(parser, ctxt, node.get("accenti"), parent));
         } else if (Objects.nonNull(node.get("op"))) {
-          return oc.treeToValue(node, Operation.class);
+          return ctxt.readTreeAsValue(node, Operation.class);
         } else if (Objects.nonNull(node.get("function"))) {
           List<Operand> list = new ArrayList<>();
           Iterator<JsonNode> iterator = node.get("function").get("args").elements();
           while (iterator.hasNext()) {
             JsonNode listNode = iterator.next();
-            list.add(getOperand(parser, listNode, "args"));
+            list.add(getOperand(parser, ctxt, listNode, "args"));
           }
           return Function.of(node.get("function").get("name").textValue(), list);
         } else if (SPATIAL.contains(parent)) {
-          return SpatialLiteral.of(oc.treeToValue(node, Geometry.class));
+          return SpatialLiteral.of(ctxt.readTreeAsValue(node, Geometry.class));
         }
       } else if (node.isArray()) {
         if (TEMPORAL.contains(parent)) {
-          return oc.treeToValue(node, TemporalLiteral.class);
+          return ctxt.readTreeAsValue(node, TemporalLiteral.class);
         }
 
         List<Scalar> scalars =
@@ -159,14 +158,14 @@ public interface Operand extends CqlNode {
                     false)
                 .map(
                     LambdaWithException.mayThrow(
-                        jsonNode -> (Scalar) getOperand(parser, jsonNode, parent)))
+                        jsonNode -> (Scalar) getOperand(parser, ctxt, jsonNode, parent)))
                 .collect(Collectors.toList());
 
         return ArrayLiteral.of(scalars);
       } else if (node.isValueNode()) {
         // we have to guess, try temporal first
         try {
-          return oc.treeToValue(node, TemporalLiteral.class);
+          return ctxt.readTreeAsValue(node, TemporalLiteral.class);
         } catch (JsonProcessingException e) {
           return getScalar(node);
         }
@@ -182,54 +181,58 @@ public interface Operand extends CqlNode {
         throws IOException, JsonMappingException {
 
       // Parse "object" node into Jackson's tree model
-      JsonNode node = parser.getCodec().readTree(parser);
+      JsonNode node = ctxt.readTree(parser);
 
       JsonStreamContext parent = parser.getParsingContext().getParent();
 
       // Get name of the parent key
       String parentName = parent.getCurrentName().toLowerCase();
 
-      return getOperand(parser, node, parentName);
+      return getOperand(parser, ctxt, node, parentName);
     }
 
-    private Optional<EpsgCrs> getFilterCrs(ObjectCodec oc) throws JsonMappingException {
-      InjectableValues iv = ((ObjectMapper) oc).getInjectableValues();
-      if (Objects.nonNull(iv)) {
-        Object value = iv.findInjectableValue("filterCrs", null, null, null);
+    private Optional<EpsgCrs> getFilterCrs(DeserializationContext ctxt) {
+      try {
+        Object value = ctxt.findInjectableValue("filterCrs", null, null);
+        if (value instanceof Optional && ((Optional<?>) value).isPresent()) {
+          value = ((Optional<?>) value).get();
+        }
         if (value instanceof EpsgCrs) {
           return Optional.of((EpsgCrs) value);
         }
+      } catch (JsonMappingException e) {
+        // no injectable values configured
       }
       return Optional.of(OgcCrs.CRS84);
     }
 
-    private Iterable<Point> getMultiPointCoordinates(ObjectCodec oc, ArrayNode coordinates)
-        throws JsonProcessingException {
+    private Iterable<Point> getMultiPointCoordinates(
+        DeserializationContext ctxt, ArrayNode coordinates) throws IOException {
       Iterator<JsonNode> iter = coordinates.elements();
       ImmutableList.Builder<Point> builder = ImmutableList.builder();
       while (iter.hasNext()) {
-        builder.add(Point.of(oc.treeToValue(iter.next(), Coordinate.class)));
+        builder.add(Point.of(ctxt.readTreeAsValue(iter.next(), Coordinate.class)));
       }
       return builder.build();
     }
 
     private Iterable<LineString> getMultiLineStringCoordinates(
-        ObjectCodec oc, ArrayNode coordinates) throws JsonProcessingException {
+        DeserializationContext ctxt, ArrayNode coordinates) throws IOException {
       Iterator<JsonNode> iter = coordinates.elements();
       ImmutableList.Builder<LineString> builder = ImmutableList.builder();
       while (iter.hasNext()) {
         ImmutableLineString.Builder geomBuilder = new ImmutableLineString.Builder();
         Iterator<JsonNode> iter2 = iter.next().elements();
         while (iter2.hasNext()) {
-          geomBuilder.addCoordinates(oc.treeToValue(iter2.next(), Coordinate.class));
+          geomBuilder.addCoordinates(ctxt.readTreeAsValue(iter2.next(), Coordinate.class));
         }
         builder.add(geomBuilder.build());
       }
       return builder.build();
     }
 
-    private Iterable<Polygon> getMultiPolygonCoordinates(ObjectCodec oc, ArrayNode coordinates)
-        throws JsonProcessingException {
+    private Iterable<Polygon> getMultiPolygonCoordinates(
+        DeserializationContext ctxt, ArrayNode coordinates) throws IOException {
       Iterator<JsonNode> iter = coordinates.elements();
       ImmutableList.Builder<Polygon> builder = ImmutableList.builder();
       while (iter.hasNext()) {
@@ -239,7 +242,7 @@ public interface Operand extends CqlNode {
           ImmutableList.Builder<Coordinate> coordBuilder = ImmutableList.builder();
           Iterator<JsonNode> iter3 = iter2.next().elements();
           while (iter3.hasNext()) {
-            coordBuilder.add(oc.treeToValue(iter3.next(), Coordinate.class));
+            coordBuilder.add(ctxt.readTreeAsValue(iter3.next(), Coordinate.class));
           }
           geomBuilder.addCoordinates(coordBuilder.build());
         }
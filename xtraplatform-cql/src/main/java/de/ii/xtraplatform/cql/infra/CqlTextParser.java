@@ -7,37 +7,89 @@
  */
 package de.ii.xtraplatform.cql.infra;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import de.ii.xtraplatform.cql.domain.Cql2Expression;
 import de.ii.xtraplatform.cql.domain.CqlParseException;
 import de.ii.xtraplatform.crs.domain.EpsgCrs;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import org.antlr.v4.runtime.BailErrorStrategy;
 import org.antlr.v4.runtime.BaseErrorListener;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
 import org.antlr.v4.runtime.Parser;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.RecognitionException;
 import org.antlr.v4.runtime.Recognizer;
 import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.atn.PredictionMode;
 import org.antlr.v4.runtime.misc.ParseCancellationException;
 
 public class CqlTextParser {
 
+  private static final long MAX_CACHED_EXPRESSIONS = 1000;
+  // NOW() is resolved while parsing, such filters must not be cached
+  private static final Pattern NOW = Pattern.compile("now", Pattern.CASE_INSENSITIVE);
+
+  // parsed expressions are immutable, so they can be shared between requests
+  private final Cache<List<Object>, Cql2Expression> cache;
+
+  public CqlTextParser() {
+    this.cache = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_EXPRESSIONS).build();
+  }
+
+  /**
+   * Parses with the faster SLL prediction mode first, which is sufficient for almost all filters.
+   * Only if that fails, the filter is parsed again with full LL prediction, which also reports the
+   * actual syntax error.
+   */
   private CqlParser.CqlFilterContext parseToTree(String cql) {
     CqlLexer lexer = new CqlLexer(CharStreams.fromString(cql));
     lexer.removeErrorListeners();
     lexer.addErrorListener(ThrowingErrorListener.INSTANCE);
 
     CommonTokenStream tokens = new CommonTokenStream(lexer);
+    // lexer errors are thrown here, so that they are not swallowed by the SLL stage
+    tokens.fill();
 
     CqlParser parser = new CqlParser(tokens);
     parser.removeErrorListeners();
-    parser.addErrorListener(ThrowingErrorListener.INSTANCE);
+    parser.setErrorHandler(new BailErrorStrategy());
+    parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+
+    try {
+      return parser.cqlFilter();
+    } catch (ParseCancellationException e) {
+      tokens.seek(0);
+      parser.reset();
+      parser.addErrorListener(ThrowingErrorListener.INSTANCE);
+      parser.setErrorHandler(new DefaultErrorStrategy());
+      parser.getInterpreter().setPredictionMode(PredictionMode.LL);
 
-    return parser.cqlFilter();
+      return parser.cqlFilter();
+    }
   }
 
   public Cql2Expression parse(String cql, EpsgCrs defaultCrs) throws CqlParseException {
-    return parse(cql, new CqlTextVisitor(defaultCrs));
+    if (NOW.matcher(cql).find()) {
+      return parse(cql, new CqlTextVisitor(defaultCrs));
+    }
+
+    List<Object> key = Arrays.asList(cql, defaultCrs);
+    Cql2Expression cached = cache.getIfPresent(key);
+
+    if (Objects.nonNull(cached)) {
+      return cached;
+    }
+
+    Cql2Expression expression = parse(cql, new CqlTextVisitor(defaultCrs));
+    cache.put(key, expression);
+
+    return expression;
   }
 
   public Cql2Expression parse(String cql, CqlTextVisitor visitor) throws CqlParseException {
@@ -9,10 +9,19 @@ package de.ii.xtraplatform.cql.app
 
 import de.ii.xtraplatform.cql.domain.Cql
 import de.ii.xtraplatform.cql.domain.Cql2Expression
+import de.ii.xtraplatform.cql.domain.SIntersects
+import de.ii.xtraplatform.crs.domain.EpsgCrs
+import de.ii.xtraplatform.crs.domain.OgcCrs
 import org.skyscreamer.jsonassert.JSONAssert
 import spock.lang.Shared
 import spock.lang.Specification
 
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+
 class CqlJsonSpec extends Specification {
 
     @Shared
@@ -1370,4 +1379,67 @@ class CqlJsonSpec extends Specification {
         then:
         JSONAssert.assertEquals(cqlJson, actual2, true)
     }
+
+    def 'Geometries get the filter CRS'() {
+
+        given:
+        String cqlJson = """
+            {
+                "op": "s_intersects",
+                "args": [
+                    {"property": "location"},
+                    {
+                        "type": "${type}",
+                        "coordinates": ${coordinates}
+                    }
+                ]
+            }
+        """
+
+        when: 'reading json'
+        Cql2Expression actual = cql.read(cqlJson, Cql.Format.JSON, EpsgCrs.of(25832))
+
+        then:
+        ((SIntersects) actual).getArgs().get(1).getValue().getCrs() == Optional.of(EpsgCrs.of(25832))
+
+        where:
+        type         | coordinates
+        "Point"      | "[10.0, -10.0]"
+        "MultiPoint" | "[[10.0, -10.0],[10.0, 10.0]]"
+        "LineString" | "[[-10.0, -10.0],[10.0, -10.0]]"
+        "Polygon"    | "[[[-10.0, -10.0],[10.0, -10.0],[10.0, 10.0],[-10.0, -10.0]]]"
+    }
+
+    def 'Concurrent reads with different filter CRSs'() {
+
+        given:
+        String cqlJson = """
+            {
+                "op": "s_intersects",
+                "args": [
+                    {"property": "location"},
+                    {
+                        "type": "Polygon",
+                        "coordinates": [[[-10.0, -10.0],[10.0, -10.0],[10.0, 10.0],[-10.0, -10.0]]]
+                    }
+                ]
+            }
+        """
+        List<EpsgCrs> crss = [OgcCrs.CRS84, EpsgCrs.of(4258), EpsgCrs.of(25832), EpsgCrs.of(3857)]
+        Map<EpsgCrs, Cql2Expression> expected = crss.collectEntries { [(it): cql.read(cqlJson, Cql.Format.JSON, it)] }
+        ExecutorService executor = Executors.newFixedThreadPool(8)
+
+        when: 'reading json in parallel'
+        List<Future<Boolean>> results = (0..<2000).collect { int i ->
+            EpsgCrs crs = crss[i % crss.size()]
+            executor.submit({ cql.read(cqlJson, Cql.Format.JSON, crs) == expected[crs] } as Callable<Boolean>)
+        }
+
+        then:
+        expected.values().toSet().size() == crss.size()
+        results.every { it.get(10, TimeUnit.SECONDS) }
+
+        cleanup:
+        executor.shutdownNow()
+    }
 }
@@ -1986,4 +1986,36 @@ class CqlTextSpec extends Specification {
         noExceptionThrown()
     }
 
+    def 'Parsed text is reused'() {
+
+        given:
+
+        String cqlText = "floors > 5 AND city = 'Bonn'"
+
+        when: 'reading the same text twice'
+
+        Cql2Expression first = cql.read(cqlText, Cql.Format.TEXT)
+        Cql2Expression second = cql.read(cqlText, Cql.Format.TEXT)
+
+        then:
+
+        first.is(second)
+    }
+
+    def 'Text with NOW is parsed again'() {
+
+        given:
+
+        String cqlText = "T_AFTER(built, NOW())"
+
+        when: 'reading the same text twice'
+
+        Cql2Expression first = cql.read(cqlText, Cql.Format.TEXT)
+        Cql2Expression second = cql.read(cqlText, Cql.Format.TEXT)
+
+        then:
+
+        !first.is(second)
+    }
+
 }
@@ -7,6 +7,9 @@
  */
 package de.ii.xtraplatform.crs.domain;
 
+import java.util.Arrays;
+import java.util.Objects;
+
 /**
  * @author zahnen
  */
@@ -22,6 +25,35 @@ public interface CrsTransformer {
 
   double[] transform(double[] coordinates, int numberOfPoints, int dimension);
 
+  /**
+   * Transforms consecutive points from the source array into the target array. Source and target
+   * may be the same array, the points may belong to multiple geometries.
+   *
+   * @return false if the transformation failed
+   */
+  default boolean transform(
+      double[] source,
+      int sourceOffset,
+      double[] target,
+      int targetOffset,
+      int numberOfPoints,
+      int dimension) {
+    int length = numberOfPoints * dimension;
+    double[] transformed =
+        transform(
+            Arrays.copyOfRange(source, sourceOffset, sourceOffset + length),
+            numberOfPoints,
+            dimension);
+
+    if (Objects.isNull(transformed)) {
+      return false;
+    }
+
+    System.arraycopy(transformed, 0, target, targetOffset, length);
+
+    return true;
+  }
+
   BoundingBox transformBoundingBox(BoundingBox boundingBox) throws CrsTransformationException;
 
   double getSourceUnitEquivalentInMeters();
@@ -0,0 +1,466 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.xtraplatform.crs.infra;
+
+import de.ii.xtraplatform.crs.domain.EpsgCrs;
+import de.ii.xtraplatform.crs.domain.EpsgCrs.Force;
+import java.util.Optional;
+
+/**
+ * Pure Java implementation of the coordinate operations between WGS 84 or ETRS89 geographic
+ * coordinates, Web Mercator and UTM, so the most common transformations do not need a native call.
+ * WGS 84 and ETRS89 are treated as identical, EPSG defines a null transformation between them that
+ * PROJ also does not apply. Transverse Mercator uses the same 6th order Krueger series as PROJ,
+ * results match PROJ within 1e-6 metres and 1e-11 degrees.
+ */
+final class CoordinateOperationJava {
+
+  private static final double A = 6378137.0;
+  private static final double F_WGS84 = 1 / 298.257223563;
+  private static final double F_GRS80 = 1 / 298.257222101;
+  private static final double HALF_PI = Math.PI / 2;
+  private static final double EPS_LAT = 1e-12;
+
+  private final Projection source;
+  private final Projection target;
+
+  private CoordinateOperationJava(Projection source, Projection target) {
+    this.source = source;
+    this.target = target;
+  }
+
+  static Optional<CoordinateOperationJava> of(EpsgCrs sourceCrs, EpsgCrs targetCrs) {
+    Optional<Projection> source = getProjection(sourceCrs);
+    Optional<Projection> target = getProjection(targetCrs);
+
+    if (source.isEmpty() || target.isEmpty()) {
+      return Optional.empty();
+    }
+
+    return Optional.of(new CoordinateOperationJava(source.get(), target.get()));
+  }
+
+  private static Optional<Projection> getProjection(EpsgCrs crs) {
+    if (crs.getVerticalCode().isPresent()) {
+      return Optional.empty();
+    }
+
+    int code = crs.getCode();
+
+    // WGS 84, ETRS89
+    if (code == 4326 || code == 4258) {
+      return Optional.of(new Geographic(crs.getForceAxisOrder() == Force.LON_LAT));
+    }
+    // WGS 84 / Pseudo-Mercator, 102100 is the legacy code used by ArcGIS
+    if (code == 3857 || code == 102100) {
+      return Optional.of(new WebMercator());
+    }
+    // ETRS89 / UTM zone 28N - 38N
+    if (code >= 25828 && code <= 25838) {
+      return Optional.of(new TransverseMercator(F_GRS80, code - 25800, false));
+    }
+    // WGS 84 / UTM zone 1N - 60N
+    if (code >= 32601 && code <= 32660) {
+      return Optional.of(new TransverseMercator(F_WGS84, code - 32600, false));
+    }
+    // WGS 84 / UTM zone 1S - 60S
+    if (code >= 32701 && code <= 32760) {
+      return Optional.of(new TransverseMercator(F_WGS84, code - 32700, true));
+    }
+
+    return Optional.empty();
+  }
+
+  /**
+   * Transforms consecutive two-dimensional points. Source and target ranges may be identical, but
+   * must not overlap otherwise.
+   *
+   * @return false if a point is outside of the domain of the projection
+   */
+  boolean transform(
+      double[] source,
+      int sourceOffset,
+      double[] target,
+      int targetOffset,
+      int numberOfPoints,
+      int dimension) {
+    boolean success = true;
+
+    for (int i = 0; i < numberOfPoints; i++) {
+      int s = sourceOffset + i * dimension;
+      int t = targetOffset + i * dimension;
+
+      if (this.source instanceof Geographic && this.target instanceof Geographic) {
+        ((Geographic) this.target).fromGeographic((Geographic) this.source, source, s, target, t);
+      } else {
+        success &=
+            this.source.toGeographic(source[s], source[s + 1], target, t)
+                && this.target.fromGeographic(target, t);
+      }
+
+      for (int j = 2; j < dimension; j++) {
+        target[t + j] = source[s + j];
+      }
+    }
+
+    return success;
+  }
+
+  private interface Projection {
+
+    /** Writes longitude and latitude in radians to the target. */
+    boolean toGeographic(double x, double y, double[] target, int index);
+
+    /** Replaces longitude and latitude in radians with the projected coordinates. */
+    boolean fromGeographic(double[] coordinates, int index);
+  }
+
+  private static final class Geographic implements Projection {
+
+    private final boolean lonFirst;
+
+    Geographic(boolean lonFirst) {
+      this.lonFirst = lonFirst;
+    }
+
+    @Override
+    public boolean toGeographic(double x, double y, double[] target, int index) {
+      target[index] = Math.toRadians(lonFirst ? x : y);
+      target[index + 1] = Math.toRadians(lonFirst ? y : x);
+      return true;
+    }
+
+    @Override
+    public boolean fromGeographic(double[] coordinates, int index) {
+      double lon = Math.toDegrees(coordinates[index]);
+      double lat = Math.toDegrees(coordinates[index + 1]);
+      coordinates[index] = lonFirst ? lon : lat;
+      coordinates[index + 1] = lonFirst ? lat : lon;
+      return true;
+    }
+
+    // only the axis order might change, values are copied unchanged
+    void fromGeographic(
+        Geographic sourceProjection, double[] source, int sourceIndex, double[] target, int index) {
+      double first = source[sourceIndex];
+      double second = source[sourceIndex + 1];
+      boolean swap = sourceProjection.lonFirst != lonFirst;
+      target[index] = swap ? second : first;
+      target[index + 1] = swap ? first : second;
+    }
+  }
+
+  private static final class WebMercator implements Projection {
+
+    @Override
+    public boolean toGeographic(double x, double y, double[] target, int index) {
+      target[index] = adjustLongitude(x / A);
+      target[index + 1] = Math.atan(Math.sinh(y / A));
+      return true;
+    }
+
+    @Override
+    public boolean fromGeographic(double[] coordinates, int index) {
+      double lam = adjustLongitude(coordinates[index]);
+      double phi = coordinates[index + 1];
+
+      if (Math.abs(phi) > HALF_PI + EPS_LAT || Math.abs(Math.abs(phi) - HALF_PI) <= 1e-10) {
+        return fail(coordinates, index);
+      }
+
+      coordinates[index] = A * lam;
+      coordinates[index + 1] = A * asinh(Math.tan(phi));
+      return true;
+    }
+  }
+
+  /**
+   * Poder/Engsager implementation of the Krueger series, see Engsager and Poder (2007), "A highly
+   * accurate world wide algorithm for the transverse Mercator mapping (almost)".
+   */
+  private static final class TransverseMercator implements Projection {
+
+    private static final double K0 = 0.9996;
+    private static final double FALSE_EASTING = 500000;
+    private static final double FALSE_NORTHING_SOUTH = 10000000;
+    // 150 degrees
+    private static final double MAX_CE = 2.623395162778;
+
+    private final double lam0;
+    private final double falseNorthing;
+    private final double qn;
+    private final double zb;
+    private final double[] cgb = new double[6];
+    private final double[] cbg = new double[6];
+    private final double[] utg = new double[6];
+    private final double[] gtu = new double[6];
+
+    TransverseMercator(double flattening, int zone, boolean south) {
+      this.lam0 = Math.toRadians(zone * 6.0 - 183.0);
+      this.falseNorthing = south ? FALSE_NORTHING_SOUTH : 0;
+
+      double n = flattening / (2 - flattening);
+      double np = n;
+
+      cgb[0] =
+          n
+              * (2
+                  + n
+                      * (-2 / 3.0
+                          + n * (-2 + n * (116 / 45.0 + n * (26 / 45.0 + n * (-2854 / 675.0))))));
+      cbg[0] =
+          n
+              * (-2
+                  + n
+                      * (2 / 3.0
+                          + n
+                              * (4 / 3.0
+                                  + n * (-82 / 45.0 + n * (32 / 45.0 + n * (4642 / 4725.0))))));
+      np *= n;
+      cgb[1] =
+          np
+              * (7 / 3.0
+                  + n * (-8 / 5.0 + n * (-227 / 45.0 + n * (2704 / 315.0 + n * (2323 / 945.0)))));
+      cbg[1] =
+          np
+              * (5 / 3.0
+                  + n * (-16 / 15.0 + n * (-13 / 9.0 + n * (904 / 315.0 + n * (-1522 / 945.0)))));
+      np *= n;
+      cgb[2] = np * (56 / 15.0 + n * (-136 / 35.0 + n * (-1262 / 105.0 + n * (73814 / 2835.0))));
+      cbg[2] = np * (-26 / 15.0 + n * (34 / 21.0 + n * (8 / 5.0 + n * (-12686 / 2835.0))));
+      np *= n;
+      cgb[3] = np * (4279 / 630.0 + n * (-332 / 35.0 + n * (-399572 / 14175.0)));
+      cbg[3] = np * (1237 / 630.0 + n * (-12 / 5.0 + n * (-24832 / 14175.0)));
+      np *= n;
+      cgb[4] = np * (4174 / 315.0 + n * (-144838 / 6237.0));
+      cbg[4] = np * (-734 / 315.0 + n * (109598 / 31185.0));
+      np *= n;
+      cgb[5] = np * (601676 / 22275.0);
+      cbg[5] = np * (444337 / 155925.0);
+
+      np = n * n;
+      this.qn = K0 / (1 + n) * (1 + np * (1 / 4.0 + np * (1 / 64.0 + np / 256.0)));
+
+      utg[0] =
+          n
+              * (-0.5
+                  + n
+                      * (2 / 3.0
+                          + n
+                              * (-37 / 96.0
+                                  + n * (1 / 360.0 + n * (81 / 512.0 + n * (-96199 / 604800.0))))));
+      gtu[0] =
+          n
+              * (0.5
+                  + n
+                      * (-2 / 3.0
+                          + n
+                              * (5 / 16.0
+                                  + n * (41 / 180.0 + n * (-127 / 288.0 + n * (7891 / 37800.0))))));
+      utg[1] =
+          np
+              * (-1 / 48.0
+                  + n
+                      * (-1 / 15.0
+                          + n * (437 / 1440.0 + n * (-46 / 105.0 + n * (1118711 / 3870720.0)))));
+      gtu[1] =
+          np
+              * (13 / 48.0
+                  + n
+                      * (-3 / 5.0
+                          + n * (557 / 1440.0 + n * (281 / 630.0 + n * (-1983433 / 1935360.0)))));
+      np *= n;
+      utg[2] = np * (-17 / 480.0 + n * (37 / 840.0 + n * (209 / 4480.0 + n * (-5569 / 90720.0))));
+      gtu[2] =
+          np
+              * (61 / 240.0
+                  + n * (-103 / 140.0 + n * (15061 / 26880.0 + n * (167603 / 181440.0))));
+      np *= n;
+      utg[3] = np * (-4397 / 161280.0 + n * (11 / 504.0 + n * (830251 / 7257600.0)));
+      gtu[3] = np * (49561 / 161280.0 + n * (-179 / 168.0 + n * (6601661 / 7257600.0)));
+      np *= n;
+      utg[4] = np * (-4583 / 161280.0 + n * (108847 / 3991680.0));
+      gtu[4] = np * (34729 / 80640.0 + n * (-3418889 / 1995840.0));
+      np *= n;
+      utg[5] = np * (-20648693 / 638668800.0);
+      gtu[5] = np * (212378941 / 319334400.0);
+
+      // the latitude of origin is 0 for UTM
+      double z = gatg(cbg, 0, 1, 0);
+      this.zb = -qn * (z + clens(gtu, 2 * z));
+    }
+
+    @Override
+    public boolean toGeographic(double x, double y, double[] target, int index) {
+      double cn = ((y - falseNorthing) / A - zb) / qn;
+      double ce = ((x - FALSE_EASTING) / A) / qn;
+
+      if (Math.abs(ce) > MAX_CE) {
+        return fail(target, index);
+      }
+
+      double sinArgR = Math.sin(2 * cn);
+      double cosArgR = Math.cos(2 * cn);
+      double exp2Ce = Math.exp(2 * ce);
+      double halfInvExp2Ce = 0.5 / exp2Ce;
+      double sinhArgI = 0.5 * exp2Ce - halfInvExp2Ce;
+      double coshArgI = 0.5 * exp2Ce + halfInvExp2Ce;
+
+      clenS(utg, sinArgR, cosArgR, sinhArgI, coshArgI, target, index);
+      cn += target[index];
+      ce += target[index + 1];
+
+      double sinCn = Math.sin(cn);
+      double cosCn = Math.cos(cn);
+      double expCe = Math.exp(ce);
+      double sinhCe = 0.5 * expCe - 0.5 / expCe;
+      ce = Math.atan2(sinhCe, cosCn);
+      double modulusCe = Math.sqrt(sinhCe * sinhCe + cosCn * cosCn);
+      cn = Math.atan2(sinCn, modulusCe);
+
+      double tmp = 2 * modulusCe / (sinhCe * sinhCe + 1);
+      double sin2Cn = sinCn * tmp;
+      double cos2Cn = tmp * modulusCe - 1.0;
+
+      target[index] = adjustLongitude(ce + lam0);
+      target[index + 1] = gatg(cgb, cn, cos2Cn, sin2Cn);
+      return true;
+    }
+
+    @Override
+    public boolean fromGeographic(double[] coordinates, int index) {
+      double lam = adjustLongitude(coordinates[index] - lam0);
+      double phi = coordinates[index + 1];
+
+      if (Math.abs(phi) > HALF_PI + EPS_LAT) {
+        return fail(coordinates, index);
+      }
+
+      double cn = gatg(cbg, phi, Math.cos(2 * phi), Math.sin(2 * phi));
+      double sinCn = Math.sin(cn);
+      double cosCn = Math.cos(cn);
+      double sinCe = Math.sin(lam);
+      double cosCe = Math.cos(lam);
+
+      double cosCnCosCe = cosCn * cosCe;
+      cn = Math.atan2(sinCn, cosCnCosCe);
+
+      double invDenomTanCe = 1.0 / Math.sqrt(sinCn * sinCn + cosCnCosCe * cosCnCosCe);
+      double tanCe = sinCe * cosCn * invDenomTanCe;
+      double ce = asinh(tanCe);
+
+      double twoInvDenomTanCe = 2 * invDenomTanCe;
+      double twoInvDenomTanCeSquare = twoInvDenomTanCe * invDenomTanCe;
+      double tmpR = cosCnCosCe * twoInvDenomTanCeSquare;
+      double sinArgR = sinCn * tmpR;
+      double cosArgR = cosCnCosCe * tmpR - 1;
+      double sinhArgI = tanCe * twoInvDenomTanCe;
+      double coshArgI = twoInvDenomTanCeSquare - 1;
+
+      clenS(gtu, sinArgR, cosArgR, sinhArgI, coshArgI, coordinates, index);
+      cn += coordinates[index];
+      ce += coordinates[index + 1];
+
+      if (Math.abs(ce) > MAX_CE) {
+        return fail(coordinates, index);
+      }
+
+      coordinates[index] = A * qn * ce + FALSE_EASTING;
+      coordinates[index + 1] = A * (qn * cn + zb) + falseNorthing;
+      return true;
+    }
+
+    // Gaussian <-> geodetic latitude
+    private static double gatg(double[] p, double b, double cos2B, double sin2B) {
+      double twoCos2B = 2 * cos2B;
+      double h = 0;
+      double h1 = p[p.length - 1];
+      double h2 = 0;
+
+      for (int i = p.length - 2; i >= 0; i--) {
+        h = -h2 + twoCos2B * h1 + p[i];
+        h2 = h1;
+        h1 = h;
+      }
+
+      return b + h * sin2B;
+    }
+
+    // complex Clenshaw summation, writes real and imaginary part to the result
+    private static void clenS(
+        double[] a,
+        double sinArgR,
+        double cosArgR,
+        double sinhArgI,
+        double coshArgI,
+        double[] result,
+        int index) {
+      double r = 2 * cosArgR * coshArgI;
+      double i = -2 * sinArgR * sinhArgI;
+      double hr = a[a.length - 1];
+      double hi = 0;
+      double hr1 = 0;
+      double hi1 = 0;
+      double hr2;
+      double hi2;
+
+      for (int j = a.length - 2; j >= 0; j--) {
+        hr2 = hr1;
+        hi2 = hi1;
+        hr1 = hr;
+        hi1 = hi;
+        hr = -hr2 + r * hr1 - i * hi1 + a[j];
+        hi = -hi2 + i * hr1 + r * hi1;
+      }
+
+      r = sinArgR * coshArgI;
+      i = cosArgR * sinhArgI;
+
+      result[index] = r * hr - i * hi;
+      result[index + 1] = r * hi + i * hr;
+    }
+
+    // real Clenshaw summation
+    private static double clens(double[] a, double argR) {
+      double r = 2 * Math.cos(argR);
+      double hr = a[a.length - 1];
+      double hr1 = 0;
+      double hr2;
+
+      for (int j = a.length - 2; j >= 0; j--) {
+        hr2 = hr1;
+        hr1 = hr;
+        hr = -hr2 + r * hr1 + a[j];
+      }
+
+      return Math.sin(argR) * hr;
+    }
+  }
+
+  // same as adjlon in PROJ
+  private static double adjustLongitude(double lam) {
+    if (Math.abs(lam) < Math.PI + 1e-12) {
+      return lam;
+    }
+    double adjusted = lam + Math.PI;
+    adjusted -= 2 * Math.PI * Math.floor(adjusted / (2 * Math.PI));
+    return adjusted - Math.PI;
+  }
+
+  private static double asinh(double x) {
+    double abs = Math.abs(x);
+    double result = Math.log1p(abs + abs * abs / (1 + Math.sqrt(1 + abs * abs)));
+    return x < 0 ? -result : result;
+  }
+
+  private static boolean fail(double[] coordinates, int index) {
+    coordinates[index] = Double.POSITIVE_INFINITY;
+    coordinates[index + 1] = Double.POSITIVE_INFINITY;
+    return false;
+  }
+}
@@ -552,6 +552,15 @@ public class CrsTransformerFactoryProj extends AbstractVolatile
             getGridFile(horizontalCoordinateOperation).orElse(""));
       }
 
+      Optional<CoordinateOperationJava> javaCoordinateOperation =
+          CoordinateOperationJava.of(sourceCrs, targetCrs);
+      if (javaCoordinateOperation.isPresent()) {
+        LOGGER.debug(
+            "Using built-in operation for {} -> {}",
+            sourceCrs.toHumanReadableString(),
+            targetCrs.toHumanReadableString());
+      }
+
       return new CrsTransformerProj(
           sourceProjCrs,
           targetProjCrs,
@@ -560,7 +569,8 @@ public class CrsTransformerFactoryProj extends AbstractVolatile
           sourceDimension,
           targetDimension,
           coordinateOperation,
-          Optional.ofNullable(horizontalCoordinateOperation));
+          Optional.ofNullable(horizontalCoordinateOperation),
+          javaCoordinateOperation);
     } catch (IllegalStateException ex) {
       // LogContext.error(LOGGER, ex, "PROJ");
       throw ex;
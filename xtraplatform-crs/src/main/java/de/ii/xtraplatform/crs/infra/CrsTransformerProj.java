@@ -42,6 +42,7 @@ public class CrsTransformerProj extends BoundingBoxTransformer implements CrsTra
   private final int targetDimension;
   private final CoordinateOperation operation;
   private final Optional<CoordinateOperation> horizontalOperation;
+  private final Optional<CoordinateOperationJava> javaOperation;
 
   CrsTransformerProj(
       CoordinateReferenceSystem sourceCrs,
@@ -51,7 +52,8 @@ public class CrsTransformerProj extends BoundingBoxTransformer implements CrsTra
       int sourceDimension,
       int targetDimension,
       CoordinateOperation coordinateOperation,
-      Optional<CoordinateOperation> horizontalCoordinateOperation) {
+      Optional<CoordinateOperation> horizontalCoordinateOperation,
+      Optional<CoordinateOperationJava> javaCoordinateOperation) {
     this.sourceCrs = origSourceCrs;
     this.targetCrs = origTargetCrs;
 
@@ -72,6 +74,7 @@ public class CrsTransformerProj extends BoundingBoxTransformer implements CrsTra
 
     this.operation = coordinateOperation;
     this.horizontalOperation = horizontalCoordinateOperation;
+    this.javaOperation = javaCoordinateOperation;
   }
 
   @Override
@@ -97,6 +100,23 @@ public class CrsTransformerProj extends BoundingBoxTransformer implements CrsTra
 
   @Override
   public double[] transform(double[] coordinates, int numberOfPoints, int dimension) {
+    double[] target = new double[dimension * numberOfPoints];
+
+    if (transform(coordinates, 0, target, 0, numberOfPoints, dimension)) {
+      return target;
+    }
+
+    return null;
+  }
+
+  @Override
+  public boolean transform(
+      double[] source,
+      int sourceOffset,
+      double[] target,
+      int targetOffset,
+      int numberOfPoints,
+      int dimension) {
     if (dimension > sourceDimension) {
       throw new IllegalStateException(
           String.format(
@@ -104,17 +124,22 @@ public class CrsTransformerProj extends BoundingBoxTransformer implements CrsTra
               sourceDimension, dimension));
     }
 
-    double[] target = new double[dimension * numberOfPoints];
+    if (javaOperation.isPresent()) {
+      return javaOperation
+          .get()
+          .transform(source, sourceOffset, target, targetOffset, numberOfPoints, dimension);
+    }
 
     try {
-      getMathTransform(dimension).transform(coordinates, 0, target, 0, numberOfPoints);
+      getMathTransform(dimension)
+          .transform(source, sourceOffset, target, targetOffset, numberOfPoints);
 
-      return target;
+      return true;
     } catch (Throwable ex) {
       LogContext.errorAsDebug(LOGGER, ex, "PROJ");
     }
 
-    return null;
+    return false;
   }
 
   @Override
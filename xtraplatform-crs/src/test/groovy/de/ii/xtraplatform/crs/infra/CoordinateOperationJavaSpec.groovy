@@ -0,0 +1,137 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.xtraplatform.crs.infra
+
+import de.ii.xtraplatform.base.domain.resiliency.VolatileRegistry
+import de.ii.xtraplatform.blobs.domain.ResourceStore
+import de.ii.xtraplatform.crs.domain.EpsgCrs
+import de.ii.xtraplatform.crs.domain.OgcCrs
+import de.ii.xtraplatform.proj.domain.ProjLoaderImpl
+import org.opengis.referencing.operation.CoordinateOperation
+import spock.lang.Shared
+import spock.lang.Specification
+
+import java.nio.file.Path
+import java.util.concurrent.CompletableFuture
+
+class CoordinateOperationJavaSpec extends Specification {
+
+    // documented tolerance of CoordinateOperationJava
+    static final double TOLERANCE_METRE = 1e-6
+    static final double TOLERANCE_DEGREE = 1e-11
+
+    @Shared
+    CrsTransformerFactoryProj transformerFactory
+
+    def setupSpec() {
+        ResourceStore resourceStore = Stub()
+        VolatileRegistry volatileRegistry = Stub()
+        volatileRegistry.onAvailable(*_) >> CompletableFuture.completedFuture(null)
+        transformerFactory = new CrsTransformerFactoryProj(new ProjLoaderImpl(Path.of(System.getProperty("java.io.tmpdir"), "proj", "data")), resourceStore, volatileRegistry)
+        transformerFactory.onStart(false).toCompletableFuture().join()
+    }
+
+    def 'same results as PROJ: #sourceCrs.toHumanReadableString() -> #targetCrs.toHumanReadableString()'() {
+
+        given:
+
+        CoordinateOperationJava javaOperation = CoordinateOperationJava.of(sourceCrs, targetCrs).get()
+        CrsTransformerProj transformer = (CrsTransformerProj) transformerFactory.getTransformer(sourceCrs, targetCrs).get()
+        CoordinateOperation projOperation = transformer.@operation
+        double[] source = grid(sourceCrs)
+        int numberOfPoints = source.length.intdiv(2)
+
+        when:
+
+        double[] expected = new double[source.length]
+        projOperation.getMathTransform().transform(source, 0, expected, 0, numberOfPoints)
+        double[] actual = new double[source.length]
+        boolean success = javaOperation.transform(source, 0, actual, 0, numberOfPoints, 2)
+
+        then:
+
+        success
+        double tolerance = isGeographic(targetCrs) ? TOLERANCE_DEGREE : TOLERANCE_METRE
+        (0..<source.length).every { Math.abs(actual[it] - expected[it]) < tolerance }
+
+        where:
+
+        sourceCrs         | targetCrs
+        OgcCrs.CRS84      | EpsgCrs.of(3857)
+        EpsgCrs.of(4326)  | EpsgCrs.of(3857)
+        EpsgCrs.of(3857)  | OgcCrs.CRS84
+        OgcCrs.CRS84      | EpsgCrs.of(25832)
+        EpsgCrs.of(4326)  | EpsgCrs.of(25833)
+        EpsgCrs.of(4258)  | EpsgCrs.of(25832)
+        EpsgCrs.of(25832) | EpsgCrs.of(4326)
+        EpsgCrs.of(25833) | EpsgCrs.of(4258)
+        EpsgCrs.of(25832) | EpsgCrs.of(3857)
+        EpsgCrs.of(3857)  | EpsgCrs.of(25832)
+        EpsgCrs.of(25832) | EpsgCrs.of(25833)
+        EpsgCrs.of(4326)  | OgcCrs.CRS84
+        EpsgCrs.of(4326)  | EpsgCrs.of(32632)
+        OgcCrs.CRS84      | EpsgCrs.of(32733)
+    }
+
+    def 'not supported: #sourceCrs.toHumanReadableString() -> #targetCrs.toHumanReadableString()'() {
+
+        expect:
+
+        CoordinateOperationJava.of(sourceCrs, targetCrs).isEmpty()
+
+        where:
+
+        sourceCrs               | targetCrs
+        EpsgCrs.of(5555)        | OgcCrs.CRS84
+        OgcCrs.CRS84h           | EpsgCrs.of(25832)
+        EpsgCrs.of(25832, 7837) | EpsgCrs.of(4326)
+        EpsgCrs.of(31467)       | EpsgCrs.of(25832)
+    }
+
+    def 'outside of the projection domain'() {
+
+        given:
+
+        CoordinateOperationJava javaOperation = CoordinateOperationJava.of(EpsgCrs.of(4326), EpsgCrs.of(25832)).get()
+        double[] source = [0, 100, -1, 101]
+
+        expect:
+
+        !javaOperation.transform(source, 0, new double[4], 0, 2, 2)
+    }
+
+    // points around the area of use of the source CRS, in source axis order
+    static double[] grid(EpsgCrs crs) {
+        List<Double> values = []
+        if (isGeographic(crs)) {
+            boolean lonFirst = crs.getForceAxisOrder() == EpsgCrs.Force.LON_LAT
+            for (double lat = -60; lat <= 80; lat += 7.3) {
+                for (double lon = -3; lon <= 21; lon += 1.7) {
+                    values.addAll(lonFirst ? [lon, lat] : [lat, lon])
+                }
+            }
+        } else if (crs.getCode() == 3857) {
+            for (double y = -8e6; y <= 1.5e7; y += 1.1e6) {
+                for (double x = -4e5; x <= 2.4e6; x += 1.9e5) {
+                    values.addAll([x, y])
+                }
+            }
+        } else {
+            for (double y = 4.5e6; y <= 7.5e6; y += 1.3e5) {
+                for (double x = 1.5e5; x <= 8.5e5; x += 3.7e4) {
+                    values.addAll([x, y])
+                }
+            }
+        }
+        return values as double[]
+    }
+
+    static boolean isGeographic(EpsgCrs crs) {
+        return crs.getCode() == 4326 || crs.getCode() == 4258
+    }
+}
@@ -338,6 +338,37 @@ class CrsTransformerProjSpec extends Specification {
 
     }
 
+    def 'CRS transformer in place - #sourceCrs -> #targetCrs, #dimension'() {
+        given:
+        CrsTransformerProj gct = (CrsTransformerProj) transformerFactory.getTransformer(sourceCrs, targetCrs).get()
+        // two geometries with 3 points each, back to back in one buffer
+        double[] points = (0..<6).collect { i -> point.collect { it + i * 0.25 } }.flatten() as double[]
+
+        when:
+        // copying path, one call and a new array per point
+        double[] expected = (0..<6).collect { i -> gct.transform(Arrays.copyOfRange(points, i * dimension, (i + 1) * dimension), 1, dimension) as List }.flatten() as double[]
+        // in place path, one call per geometry with offsets into the shared buffer
+        double[] inPlace = points.clone()
+        boolean first = gct.transform(inPlace, 0, inPlace, 0, 3, dimension)
+        boolean second = gct.transform(inPlace, 3 * dimension, inPlace, 3 * dimension, 3, dimension)
+        // in place path, one call for both geometries
+        double[] batched = points.clone()
+        boolean both = gct.transform(batched, 0, batched, 0, 6, dimension)
+
+        then:
+        first && second && both
+        // Arrays.equals compares the bits of the doubles
+        Arrays.equals(inPlace, expected)
+        Arrays.equals(batched, expected)
+
+        where:
+        sourceCrs        | targetCrs         | dimension | point
+        EpsgCrs.of(4326) | EpsgCrs.of(3857)  | 2         | [50.7164, 7.086]
+        EpsgCrs.of(5555) | EpsgCrs.of(4979)  | 3         | [420735.071, 5392914.343, 131.96]
+        EpsgCrs.of(5555) | EpsgCrs.of(25832) | 3         | [420735.071, 5392914.343, 131.96]
+        EpsgCrs.of(5555) | OgcCrs.CRS84      | 2         | [420735.071, 5392914.343]
+    }
+
     static void compareValueInMeter(double val1, double val2) {
         // compare mm
         assert Math.abs(val1-val2) < 1e-3;
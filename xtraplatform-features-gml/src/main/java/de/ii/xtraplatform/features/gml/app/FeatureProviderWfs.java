@@ -369,6 +369,12 @@ public class FeatureProviderWfs
   @Override
   public FeatureStream getFeatureStreamPassThrough(FeatureQuery query) {
     return new FeatureStreamImpl(
-        query, getData(), crsTransformerFactory, getCodelists(), this::runQuery, false);
+        query,
+        getData(),
+        crsTransformerFactory,
+        getCodelists(),
+        this::runQuery,
+        false,
+        getDerivedSchemaCache());
   }
 }
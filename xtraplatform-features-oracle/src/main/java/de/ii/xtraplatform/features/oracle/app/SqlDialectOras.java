@@ -42,6 +42,14 @@ public class SqlDialectOras implements SqlDialect {
     return String.format("SDO_UTIL.TO_WKTGEOMETRY(SDO_UTIL.RECTIFY_GEOMETRY(%s, 0.001))", column);
   }
 
+  @Override
+  public String applyToWkb(String column, boolean forcePolygonCCW, boolean linearizeCurves) {
+    if (!forcePolygonCCW) {
+      return String.format("SDO_UTIL.TO_WKBGEOMETRY(%s)", column);
+    }
+    return String.format("SDO_UTIL.TO_WKBGEOMETRY(SDO_UTIL.RECTIFY_GEOMETRY(%s, 0.001))", column);
+  }
+
   @Override
   public String applyToWkt(String wkt, int srid) {
     return String.format("SDO_GEOMETRY('%s',%s)", wkt, srid);
@@ -170,6 +178,26 @@ public class SqlDialectOras implements SqlDialect {
     return String.format(" OFFSET %d ROWS", offset);
   }
 
+  @Override
+  public String applyToLimitAndOffsetParameter(String limit, String offset) {
+    return String.format(" OFFSET %s ROWS FETCH NEXT %s ROWS ONLY", offset, limit);
+  }
+
+  @Override
+  public String applyToLimitParameter(String limit) {
+    return String.format(" FETCH NEXT %s ROWS ONLY", limit);
+  }
+
+  @Override
+  public String applyToOffsetParameter(String offset) {
+    return String.format(" OFFSET %s ROWS", offset);
+  }
+
+  @Override
+  public String applyToWktParameter(String wkt, int srid) {
+    return String.format("SDO_GEOMETRY(%s,%s)", wkt, srid);
+  }
+
   @Override
   public String applyToNoTable(String select) {
     return String.format("%s FROM dual", select);
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.xtraplatform.features.oracle.app
+
+import com.google.common.collect.ImmutableMap
+import de.ii.xtraplatform.cql.app.CqlImpl
+import de.ii.xtraplatform.crs.domain.OgcCrs
+import de.ii.xtraplatform.features.domain.SchemaBase
+import de.ii.xtraplatform.features.domain.SortKey
+import de.ii.xtraplatform.features.domain.Tuple
+import de.ii.xtraplatform.features.sql.app.FilterEncoderSql
+import de.ii.xtraplatform.features.sql.app.SqlQueryTemplates
+import de.ii.xtraplatform.features.sql.app.SqlQueryTemplatesDeriver
+import de.ii.xtraplatform.features.sql.domain.ImmutableSchemaSql
+import de.ii.xtraplatform.features.sql.domain.SchemaSql
+import de.ii.xtraplatform.features.sql.domain.SqlParameters
+import spock.lang.Shared
+import spock.lang.Specification
+
+class SqlDialectOrasSpec extends Specification {
+
+    static SchemaSql SIMPLE = new ImmutableSchemaSql.Builder()
+            .name("externalprovider")
+            .sourcePath("externalprovider")
+            .type(SchemaBase.Type.OBJECT)
+            .sortKey("id")
+            .primaryKey("id")
+            .addProperties(new ImmutableSchemaSql.Builder()
+                    .name("id")
+                    .type(SchemaBase.Type.STRING)
+                    .sourcePath("id")
+                    .parentPath(["externalprovider"])
+                    .role(SchemaBase.Role.ID)
+                    .build())
+            .build()
+
+    @Shared
+    FilterEncoderSql filterEncoder = new FilterEncoderSql(OgcCrs.CRS84, new SqlDialectOras(), null, null, new CqlImpl(), null, true)
+
+    @Shared
+    SqlQueryTemplatesDeriver tdBind = new SqlQueryTemplatesDeriver(null, filterEncoder, new SqlDialectOras(), true, false, true)
+
+    def 'bind parameters: offset comes before fetch and is bound first'() {
+
+        when:
+
+        SqlQueryTemplates templates = SIMPLE.accept(tdBind)
+        Tuple<String, List<Object>> meta = SqlParameters.extract(templates.getMetaQueryTemplate().generateMetaQuery(10, 20, 0, [], Optional.empty(), ImmutableMap.of(), false, true))
+        List<String> values = templates.getValueQueryTemplates().collect { SqlParameters.extract(it.generateValueQuery(10, 20, [SortKey.of("created")], Optional.empty(), Optional.of(Tuple.of(20, 29)), ImmutableMap.of())).first() }
+
+        then:
+
+        meta.first().contains("ORDER BY SKEY OFFSET ? ROWS FETCH NEXT ? ROWS ONLY)")
+        !meta.first().contains("LIMIT")
+        meta.second() == [20L, 10L]
+
+        and:
+
+        values.any { it.contains(" OFFSET ? ROWS FETCH NEXT ? ROWS ONLY") }
+        values.every { !it.contains("LIMIT") }
+    }
+
+    def 'bind parameters: geometry literals are passed to the SDO_GEOMETRY constructor'() {
+
+        expect:
+
+        new SqlDialectOras().applyToWktParameter("?", 25832) == "SDO_GEOMETRY(?,25832)"
+    }
+}
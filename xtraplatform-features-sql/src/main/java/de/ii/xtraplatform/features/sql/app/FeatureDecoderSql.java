@@ -56,6 +56,7 @@ public class FeatureDecoderSql
 
   private ModifiableContext<FeatureSchema, SchemaMapping> context;
   private GeometryDecoderWkt geometryDecoder;
+  private GeometryDecoderWkb geometryDecoderWkb;
   private NestingTracker nestingTracker;
 
   public FeatureDecoderSql(
@@ -85,6 +86,7 @@ public class FeatureDecoderSql
   protected void init() {
     this.context = createContext().setMappings(mappings).setQuery(query);
     this.geometryDecoder = new GeometryDecoderWkt(getDownstream(), context);
+    this.geometryDecoderWkb = new GeometryDecoderWkb(getDownstream(), context);
     this.nestingTracker =
         new NestingTracker(getDownstream(), context, mainTablePaths, false, false, false);
 
@@ -137,6 +139,9 @@ public class FeatureDecoderSql
               context.metadata().getNumberMatched().orElse(0)
                   + sqlRow.getNumberMatched().getAsLong());
     }
+    sqlRow
+        .getNumberMatchedStrategy()
+        .ifPresent(strategy -> context.metadata().numberMatchedStrategy(strategy));
     context.metadata().isSingleFeature(isSingleFeature);
 
     if (!started) {
@@ -242,11 +247,19 @@ public class FeatureDecoderSql
 
       if (sqlRow.isSpatialColumn(i)) {
         if (Objects.nonNull(sqlRow.getValues().get(i))) {
+          Object geometry = sqlRow.getValues().get(i);
           try {
             context.setSchemaIndex(-1);
-            geometryDecoder.decode((String) sqlRow.getValues().get(i));
+            if (geometry instanceof byte[]) {
+              geometryDecoderWkb.decode((byte[]) geometry);
+            } else {
+              geometryDecoder.decode((String) geometry);
+            }
           } catch (IOException e) {
-            throw new IllegalStateException("Error parsing WKT geometry", e);
+            throw new IllegalStateException(
+                String.format(
+                    "Error parsing %s geometry", geometry instanceof byte[] ? "WKB" : "WKT"),
+                e);
           }
         }
       } else {
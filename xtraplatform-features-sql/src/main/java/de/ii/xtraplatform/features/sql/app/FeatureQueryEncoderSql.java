@@ -17,6 +17,7 @@ import de.ii.xtraplatform.features.domain.FeatureQueryEncoder;
 import de.ii.xtraplatform.features.domain.ImmutableFeatureProviderCapabilities;
 import de.ii.xtraplatform.features.domain.ImmutableSortKey;
 import de.ii.xtraplatform.features.domain.MultiFeatureQuery;
+import de.ii.xtraplatform.features.domain.NumberMatchedStrategy;
 import de.ii.xtraplatform.features.domain.Query;
 import de.ii.xtraplatform.features.domain.SchemaBase;
 import de.ii.xtraplatform.features.domain.SchemaBase.Type;
@@ -27,6 +28,7 @@ import de.ii.xtraplatform.features.sql.domain.FeatureProviderSqlData.QueryGenera
 import de.ii.xtraplatform.features.sql.domain.ImmutableSqlQueryBatch;
 import de.ii.xtraplatform.features.sql.domain.ImmutableSqlQueryOptions;
 import de.ii.xtraplatform.features.sql.domain.ImmutableSqlQuerySet;
+import de.ii.xtraplatform.features.sql.domain.ImmutableSqlRowMeta;
 import de.ii.xtraplatform.features.sql.domain.SchemaSql;
 import de.ii.xtraplatform.features.sql.domain.SchemaSql.PropertyTypeInfo;
 import de.ii.xtraplatform.features.sql.domain.SqlDialect;
@@ -38,6 +40,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.function.BiFunction;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -53,9 +56,13 @@ public class FeatureQueryEncoderSql implements FeatureQueryEncoder<SqlQueryBatch
 
   private final Map<String, List<SqlQueryTemplates>> allQueryTemplates;
   private final Map<String, List<SqlQueryTemplates>> allQueryTemplatesMutations;
+  private final QueryGeneratorSettings queryGeneratorSettings;
   private final int chunkSize;
-  private final boolean skipRedundantMetaQueries;
+  private final boolean geometryAsWkb;
+  private final boolean bindParameters;
   private final SqlDialect sqlDialect;
+  private final Optional<PagingCheckpoints> pagingCheckpoints;
+  private final NumberMatchedCache numberMatchedCache;
 
   public FeatureQueryEncoderSql(
       Map<String, List<SqlQueryTemplates>> allQueryTemplates,
@@ -64,9 +71,25 @@ public class FeatureQueryEncoderSql implements FeatureQueryEncoder<SqlQueryBatch
       SqlDialect sqlDialect) {
     this.allQueryTemplates = allQueryTemplates;
     this.allQueryTemplatesMutations = allQueryTemplatesMutations;
+    this.queryGeneratorSettings = queryGeneratorSettings;
     this.chunkSize = queryGeneratorSettings.getChunkSize();
-    this.skipRedundantMetaQueries = !queryGeneratorSettings.getComputeNumberMatched();
+    this.geometryAsWkb = queryGeneratorSettings.getGeometryAsWkb();
+    this.bindParameters = queryGeneratorSettings.getBindParameters();
     this.sqlDialect = sqlDialect;
+    this.pagingCheckpoints =
+        queryGeneratorSettings.getKeysetPaging()
+            ? Optional.of(new PagingCheckpoints())
+            : Optional.empty();
+    this.numberMatchedCache = new NumberMatchedCache();
+  }
+
+  /**
+   * Discards the paging checkpoints and cached counts of the given type, has to be called when its
+   * data changes.
+   */
+  public void invalidate(String type) {
+    pagingCheckpoints.ifPresent(checkpoints -> checkpoints.invalidate(type));
+    numberMatchedCache.invalidate(type);
   }
 
   // TODO: add cql2 classes
@@ -114,7 +137,8 @@ public class FeatureQueryEncoderSql implements FeatureQueryEncoder<SqlQueryBatch
                                     query,
                                     query,
                                     additionalQueryParameters,
-                                    query.returnsSingleFeature())))
+                                    query.returnsSingleFeature(),
+                                    queryTemplates.size() == 1)))
             .flatMap(s -> s)
             .collect(Collectors.toList());
 
@@ -125,7 +149,9 @@ public class FeatureQueryEncoderSql implements FeatureQueryEncoder<SqlQueryBatch
         .offset(query.getOffset())
         .chunkSize(chunkSize)
         .isSingleFeature(query.returnsSingleFeature())
-        .isAllowSkipMetaQueries(skipRedundantMetaQueries)
+        .isAllowSkipMetaQueries(
+            queryGeneratorSettings.getNumberMatchedStrategy(query.getType())
+                == NumberMatchedStrategy.NONE)
         .build()
         .withQuerySets(querySets);
   }
@@ -155,6 +181,7 @@ public class FeatureQueryEncoderSql implements FeatureQueryEncoder<SqlQueryBatch
                                               typeQuery,
                                               query,
                                               additionalQueryParameters,
+                                              false,
                                               false)))
                       .flatMap(s -> s);
                 })
@@ -178,27 +205,89 @@ public class FeatureQueryEncoderSql implements FeatureQueryEncoder<SqlQueryBatch
       TypeQuery typeQuery,
       Query query,
       Map<String, String> additionalQueryParameters,
-      boolean skipMetaQuery) {
+      boolean skipMetaQuery,
+      boolean singleMainTable) {
     SchemaSql mainTable =
         queryTemplates.getSortablesSchema().orElse(queryTemplates.getQuerySchemas().get(0));
     List<SortKey> sortKeys = transformSortKeys(typeQuery.getSortKeys(), mainTable);
 
+    // with custom sort keys the last row of a page is not known, with a non-unique sort key a
+    // page boundary might split rows with the same key
+    Optional<PagingCheckpoints> checkpoints =
+        pagingCheckpoints.filter(
+            ignore ->
+                !skipMetaQuery
+                    && singleMainTable
+                    && sortKeys.isEmpty()
+                    && queryTemplates.getQuerySchemas().get(0).getSortKeyUnique());
+    NumberMatchedStrategy numberMatchedStrategy =
+        getNumberMatchedStrategy(
+            typeQuery, queryTemplates.getQuerySchemas().get(0), additionalQueryParameters);
+    List<Object> queryKey =
+        List.of(
+            typeQuery.getType(),
+            queryTemplates.getQuerySchemas().get(0).getName(),
+            typeQuery.getFilter(),
+            additionalQueryParameters);
+
     BiFunction<Long, Long, Optional<String>> metaQuery =
-        (maxLimit, skipped) ->
-            skipMetaQuery
-                ? Optional.empty()
-                : Optional.of(
-                    queryTemplates
-                        .getMetaQueryTemplate()
-                        .generateMetaQuery(
-                            Math.min(limit, maxLimit),
-                            Math.max(0L, offset - skipped),
-                            chunk * limit,
-                            sortKeys,
-                            typeQuery.getFilter(),
-                            additionalQueryParameters,
-                            query.getOffset() > 0,
-                            maxLimit > 0 && !query.hitsOnly()));
+        (maxLimit, skipped) -> {
+          if (skipMetaQuery) {
+            return Optional.empty();
+          }
+
+          long actualOffset = Math.max(0L, offset - skipped);
+          Optional<Map.Entry<Long, Object>> checkpoint =
+              checkpoints.flatMap(c -> c.get(queryKey, actualOffset));
+          boolean isCached =
+              numberMatchedStrategy == NumberMatchedStrategy.CACHED
+                  && numberMatchedCache.get(queryKey).isPresent();
+
+          return Optional.of(
+              queryTemplates
+                  .getMetaQueryTemplate()
+                  .generateMetaQuery(
+                      Math.min(limit, maxLimit),
+                      checkpoint.map(c -> actualOffset - c.getKey()).orElse(actualOffset),
+                      chunk * limit,
+                      sortKeys,
+                      typeQuery.getFilter(),
+                      additionalQueryParameters,
+                      query.getOffset() > 0,
+                      maxLimit > 0 && !query.hitsOnly(),
+                      checkpoint.map(Map.Entry::getValue),
+                      Optional.of(isCached ? NumberMatchedStrategy.NONE : numberMatchedStrategy)));
+        };
+
+    BiFunction<SqlRowMeta, Long, SqlRowMeta> metaResultHandler =
+        (metaResult, skipped) -> {
+          if (checkpoints.isPresent() && metaResult.getNumberReturned() > 0) {
+            checkpoints
+                .get()
+                .put(
+                    queryKey,
+                    Math.max(0L, offset - skipped) + metaResult.getNumberReturned(),
+                    metaResult.getMaxKey());
+          }
+
+          if (numberMatchedStrategy == NumberMatchedStrategy.EXACT) {
+            return metaResult;
+          }
+
+          OptionalLong numberMatched = metaResult.getNumberMatched();
+
+          if (numberMatchedStrategy == NumberMatchedStrategy.CACHED) {
+            if (numberMatched.isPresent()) {
+              numberMatchedCache.put(queryKey, numberMatched.getAsLong());
+            } else {
+              numberMatched = numberMatchedCache.get(queryKey);
+            }
+          }
+
+          return ImmutableSqlRowMeta.copyOf(metaResult)
+              .withNumberMatched(numberMatched)
+              .withNumberMatchedStrategy(numberMatchedStrategy);
+        };
 
     TriFunction<SqlRowMeta, Long, Long, Stream<String>> valueQueries =
         (metaResult, maxLimit, skipped) ->
@@ -223,11 +312,29 @@ public class FeatureQueryEncoderSql implements FeatureQueryEncoder<SqlQueryBatch
     return new ImmutableSqlQuerySet.Builder()
         .metaQuery(metaQuery)
         .valueQueries(valueQueries)
+        .metaResultHandler(metaResultHandler)
         .options(getOptions(typeQuery, query))
         .build()
         .withTableSchemas(queryTemplates.getQuerySchemas());
   }
 
+  // table statistics do not apply to filtered rows or virtual tables, the count is cached instead
+  NumberMatchedStrategy getNumberMatchedStrategy(
+      TypeQuery typeQuery, SchemaSql table, Map<String, String> virtualTables) {
+    NumberMatchedStrategy strategy =
+        queryGeneratorSettings.getNumberMatchedStrategy(typeQuery.getType());
+
+    if (strategy == NumberMatchedStrategy.ESTIMATE
+        && (typeQuery.getFilter().isPresent()
+            || table.getFilter().isPresent()
+            || virtualTables.containsKey(table.getName())
+            || sqlDialect.applyToEstimatedCount(table.getName()).isEmpty())) {
+      return NumberMatchedStrategy.CACHED;
+    }
+
+    return strategy;
+  }
+
   @Override
   public SqlQueryOptions getOptions(TypeQuery typeQuery, Query query) {
     // TODO: either pass as parameter, or check for null here
@@ -243,6 +350,8 @@ public class FeatureQueryEncoderSql implements FeatureQueryEncoder<SqlQueryBatch
         .type(typeQuery.getType())
         .customSortKeys(sortKeys)
         .isHitsOnly(query.hitsOnly())
+        .isGeometryAsWkb(geometryAsWkb)
+        .isBindParameters(bindParameters)
         .build();
   }
 
@@ -55,6 +55,7 @@ import de.ii.xtraplatform.features.domain.Tuple;
 import de.ii.xtraplatform.features.sql.domain.SchemaSql;
 import de.ii.xtraplatform.features.sql.domain.SchemaSql.PropertyTypeInfo;
 import de.ii.xtraplatform.features.sql.domain.SqlDialect;
+import de.ii.xtraplatform.features.sql.domain.SqlParameters;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -83,6 +84,7 @@ public class FilterEncoderSql {
   private final CrsInfo crsInfo;
   private final Cql cql;
   private final String accentiCollation;
+  private final boolean bindParameters;
   BiFunction<List<Double>, Optional<EpsgCrs>, List<Double>> coordinatesTransformer;
 
   public FilterEncoderSql(
@@ -92,12 +94,28 @@ public class FilterEncoderSql {
       CrsInfo crsInfo,
       Cql cql,
       String accentiCollation) {
+    this(nativeCrs, sqlDialect, crsTransformerFactory, crsInfo, cql, accentiCollation, false);
+  }
+
+  /**
+   * @param bindParameters if true, geometry literals are marked as bind parameters instead of being
+   *     inlined, see {@link SqlParameters}
+   */
+  public FilterEncoderSql(
+      EpsgCrs nativeCrs,
+      SqlDialect sqlDialect,
+      CrsTransformerFactory crsTransformerFactory,
+      CrsInfo crsInfo,
+      Cql cql,
+      String accentiCollation,
+      boolean bindParameters) {
     this.nativeCrs = nativeCrs;
     this.sqlDialect = sqlDialect;
     this.crsTransformerFactory = crsTransformerFactory;
     this.crsInfo = crsInfo;
     this.cql = cql;
     this.accentiCollation = accentiCollation;
+    this.bindParameters = bindParameters;
     this.coordinatesTransformer = this::transformCoordinatesIfNecessary;
   }
 
@@ -184,6 +202,21 @@ public class FilterEncoderSql {
                 && Objects.equals(propertyName, property.getSourcePath().get()));
   }
 
+  // literals are inlined, markers would be taken for bind parameters
+  private static String checkLiteral(String literal) {
+    if (SqlParameters.containsMarkers(literal)) {
+      throw new IllegalArgumentException(
+          "Filter is invalid. String literals must not contain control characters.");
+    }
+    return literal;
+  }
+
+  private String toWktLiteral(String wkt, int srid) {
+    return bindParameters
+        ? sqlDialect.applyToWktParameter(SqlParameters.bind(wkt), srid)
+        : sqlDialect.applyToWkt(wkt, srid);
+  }
+
   private class CqlToSql extends CqlToText {
 
     private final SchemaSql rootSchema;
@@ -864,37 +897,37 @@ public class FilterEncoderSql {
 
     @Override
     public String visit(Geometry.Point point, List<String> children) {
-      return sqlDialect.applyToWkt(super.visit(point, children), nativeCrs.getCode());
+      return toWktLiteral(super.visit(point, children), nativeCrs.getCode());
     }
 
     @Override
     public String visit(Geometry.LineString lineString, List<String> children) {
-      return sqlDialect.applyToWkt(super.visit(lineString, children), nativeCrs.getCode());
+      return toWktLiteral(super.visit(lineString, children), nativeCrs.getCode());
     }
 
     @Override
     public String visit(Geometry.Polygon polygon, List<String> children) {
-      return sqlDialect.applyToWkt(super.visit(polygon, children), nativeCrs.getCode());
+      return toWktLiteral(super.visit(polygon, children), nativeCrs.getCode());
     }
 
     @Override
     public String visit(Geometry.MultiPoint multiPoint, List<String> children) {
-      return sqlDialect.applyToWkt(super.visit(multiPoint, children), nativeCrs.getCode());
+      return toWktLiteral(super.visit(multiPoint, children), nativeCrs.getCode());
     }
 
     @Override
     public String visit(Geometry.MultiLineString multiLineString, List<String> children) {
-      return sqlDialect.applyToWkt(super.visit(multiLineString, children), nativeCrs.getCode());
+      return toWktLiteral(super.visit(multiLineString, children), nativeCrs.getCode());
     }
 
     @Override
     public String visit(Geometry.MultiPolygon multiPolygon, List<String> children) {
-      return sqlDialect.applyToWkt(super.visit(multiPolygon, children), nativeCrs.getCode());
+      return toWktLiteral(super.visit(multiPolygon, children), nativeCrs.getCode());
     }
 
     @Override
     public String visit(Geometry.GeometryCollection geometryCollection, List<String> children) {
-      return sqlDialect.applyToWkt(
+      return toWktLiteral(
           String.format(
               "GEOMETRYCOLLECTION%s",
               geometryCollection.getCoordinates().stream()
@@ -1086,10 +1119,18 @@ public class FilterEncoderSql {
       throw new IllegalStateException("unexpected array operator: " + arrayOperation);
     }
 
+    @Override
+    public String visit(ScalarLiteral scalarLiteral, List<String> children) {
+      if (scalarLiteral.getValue() instanceof String) {
+        checkLiteral((String) scalarLiteral.getValue());
+      }
+      return super.visit(scalarLiteral, children);
+    }
+
     @Override
     public String visit(ArrayLiteral arrayLiteral, List<String> children) {
       if (arrayLiteral.getValue() instanceof String) {
-        return (String) arrayLiteral.getValue();
+        return checkLiteral((String) arrayLiteral.getValue());
       } else {
         List<String> elements =
             ((List<Scalar>) arrayLiteral.getValue())
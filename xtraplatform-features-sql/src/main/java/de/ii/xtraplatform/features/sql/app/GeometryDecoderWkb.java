@@ -0,0 +1,287 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.xtraplatform.features.sql.app;
+
+import de.ii.xtraplatform.features.domain.FeatureEventHandler;
+import de.ii.xtraplatform.features.domain.FeatureEventHandler.ModifiableContext;
+import de.ii.xtraplatform.features.domain.FeatureSchema;
+import de.ii.xtraplatform.features.domain.SchemaBase.Type;
+import de.ii.xtraplatform.features.domain.SchemaMapping;
+import de.ii.xtraplatform.geometries.domain.SimpleFeatureGeometry;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+/**
+ * Decodes Well-known Binary geometries (ISO WKB as well as EWKB) and emits the same events as
+ * {@link GeometryDecoderWkt}, so downstream transformers cannot tell the difference.
+ */
+public class GeometryDecoderWkb {
+
+  private static final int POINT = 1;
+  private static final int LINE_STRING = 2;
+  private static final int POLYGON = 3;
+  private static final int MULTI_POINT = 4;
+  private static final int MULTI_LINE_STRING = 5;
+  private static final int MULTI_POLYGON = 6;
+  private static final int GEOMETRY_COLLECTION = 7;
+
+  private static final int EWKB_Z = 0x80000000;
+  private static final int EWKB_M = 0x40000000;
+  private static final int EWKB_SRID = 0x20000000;
+  private static final int EWKB_FLAGS = EWKB_Z | EWKB_M | EWKB_SRID;
+
+  private final FeatureEventHandler<
+          FeatureSchema, SchemaMapping, ModifiableContext<FeatureSchema, SchemaMapping>>
+      handler;
+  private final ModifiableContext<FeatureSchema, SchemaMapping> context;
+  private final StringBuilder coordinates;
+  private ByteBuffer buffer;
+  private boolean hasZ;
+  private boolean hasM;
+
+  public GeometryDecoderWkb(
+      FeatureEventHandler<
+              FeatureSchema, SchemaMapping, ModifiableContext<FeatureSchema, SchemaMapping>>
+          handler,
+      ModifiableContext<FeatureSchema, SchemaMapping> context) {
+    this.handler = handler;
+    this.context = context;
+    this.coordinates = new StringBuilder(1024);
+  }
+
+  public void decode(byte[] wkb) throws IOException {
+    this.buffer = ByteBuffer.wrap(wkb);
+
+    try {
+      int type = readHeader();
+      SimpleFeatureGeometry geometryType = toSimpleFeatureGeometry(type);
+
+      if (!geometryType.isValid()) {
+        return;
+      }
+
+      context.setGeometryType(geometryType);
+      context.setGeometryDimension(hasZ ? 3 : 2);
+      handler.onObjectStart(context);
+      context.setInGeometry(true);
+
+      switch (type) {
+        case POINT:
+          readPoint();
+          break;
+        case LINE_STRING:
+          readLineString();
+          break;
+        case POLYGON:
+          readPolygon();
+          break;
+        case MULTI_POINT:
+          readMulti(POINT, this::readPoint);
+          break;
+        case MULTI_LINE_STRING:
+          readMulti(LINE_STRING, this::readLineString);
+          break;
+        case MULTI_POLYGON:
+          readMulti(POLYGON, this::readPolygon);
+          break;
+        case GEOMETRY_COLLECTION:
+          break;
+      }
+
+      context.setInGeometry(false);
+      handler.onObjectEnd(context);
+      context.setGeometryType(Optional.empty());
+      context.setGeometryDimension(OptionalInt.empty());
+    } catch (BufferUnderflowException e) {
+      throw new IOException("Unexpected end of WKB geometry", e);
+    } finally {
+      this.buffer = null;
+    }
+  }
+
+  private int readHeader() {
+    int type = readType();
+    this.hasZ = hasZ(type);
+    this.hasM = hasM(type);
+
+    return baseType(type);
+  }
+
+  // the members of a multi geometry have their own header, the dimensions have to match the parent
+  private void readMemberHeader(int memberType) throws IOException {
+    int type = readType();
+
+    if (baseType(type) != memberType || hasZ(type) != hasZ || hasM(type) != hasM) {
+      throw new IOException(
+          "Invalid WKB multi geometry, the type or dimension of a member does not match.");
+    }
+  }
+
+  private int readType() {
+    buffer.order(buffer.get() == 0 ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+    int type = buffer.getInt();
+
+    if ((type & EWKB_SRID) != 0) {
+      buffer.getInt();
+    }
+
+    return type;
+  }
+
+  private static int baseType(int type) {
+    if ((type & EWKB_FLAGS) != 0) {
+      return type & ~EWKB_FLAGS;
+    }
+
+    return type % 1000;
+  }
+
+  // ISO WKB, 1000 = Z, 2000 = M, 3000 = ZM
+  private static boolean hasZ(int type) {
+    if ((type & EWKB_FLAGS) != 0) {
+      return (type & EWKB_Z) != 0;
+    }
+
+    return type / 1000 == 1 || type / 1000 == 3;
+  }
+
+  private static boolean hasM(int type) {
+    if ((type & EWKB_FLAGS) != 0) {
+      return (type & EWKB_M) != 0;
+    }
+
+    return type / 1000 == 2 || type / 1000 == 3;
+  }
+
+  private void readMulti(int memberType, WkbReader reader) throws IOException {
+    int numGeometries = buffer.getInt();
+    if (numGeometries == 0) {
+      return;
+    }
+    handler.onArrayStart(context);
+    for (int i = 0; i < numGeometries; i++) {
+      readMemberHeader(memberType);
+      reader.read();
+    }
+    handler.onArrayEnd(context);
+  }
+
+  private void readPoint() throws IOException {
+    coordinates.setLength(0);
+    double x = buffer.getDouble();
+    double y = buffer.getDouble();
+    double z = hasZ ? buffer.getDouble() : 0;
+    if (hasM) {
+      buffer.getDouble();
+    }
+    // empty points are encoded with NaN coordinates
+    if (Double.isNaN(x) && Double.isNaN(y)) {
+      return;
+    }
+    appendCoordinate(x, y, z);
+    emitCoordinates();
+  }
+
+  private void readLineString() throws IOException {
+    int numPoints = buffer.getInt();
+    if (numPoints == 0) {
+      return;
+    }
+    readCoordinates(numPoints);
+  }
+
+  private void readPolygon() throws IOException {
+    int numRings = buffer.getInt();
+    if (numRings == 0) {
+      return;
+    }
+    handler.onArrayStart(context);
+    for (int i = 0; i < numRings; i++) {
+      readCoordinates(buffer.getInt());
+    }
+    handler.onArrayEnd(context);
+  }
+
+  private void readCoordinates(int numPoints) throws IOException {
+    coordinates.setLength(0);
+    for (int i = 0; i < numPoints; i++) {
+      if (i > 0) {
+        coordinates.append(',');
+      }
+      double x = buffer.getDouble();
+      double y = buffer.getDouble();
+      double z = hasZ ? buffer.getDouble() : 0;
+      if (hasM) {
+        buffer.getDouble();
+      }
+      appendCoordinate(x, y, z);
+    }
+    emitCoordinates();
+  }
+
+  private void appendCoordinate(double x, double y, double z) {
+    appendOrdinate(x);
+    coordinates.append(' ');
+    appendOrdinate(y);
+    if (hasZ) {
+      coordinates.append(' ');
+      appendOrdinate(z);
+    }
+  }
+
+  // integral values are written without fraction and all values without exponent, like in WKT
+  private void appendOrdinate(double value) {
+    double abs = Math.abs(value);
+
+    if (value == Math.rint(value) && abs < 1e15) {
+      coordinates.append((long) value);
+    } else if ((abs >= 1e-3 && abs < 1e7) || !Double.isFinite(value)) {
+      coordinates.append(value);
+    } else {
+      coordinates.append(
+          new BigDecimal(Double.toString(value)).stripTrailingZeros().toPlainString());
+    }
+  }
+
+  private void emitCoordinates() throws IOException {
+    context.setValueType(Type.STRING);
+    context.setValue(coordinates.toString());
+    handler.onValue(context);
+  }
+
+  private static SimpleFeatureGeometry toSimpleFeatureGeometry(int type) {
+    switch (type) {
+      case POINT:
+        return SimpleFeatureGeometry.POINT;
+      case LINE_STRING:
+        return SimpleFeatureGeometry.LINE_STRING;
+      case POLYGON:
+        return SimpleFeatureGeometry.POLYGON;
+      case MULTI_POINT:
+        return SimpleFeatureGeometry.MULTI_POINT;
+      case MULTI_LINE_STRING:
+        return SimpleFeatureGeometry.MULTI_LINE_STRING;
+      case MULTI_POLYGON:
+        return SimpleFeatureGeometry.MULTI_POLYGON;
+      case GEOMETRY_COLLECTION:
+        return SimpleFeatureGeometry.GEOMETRY_COLLECTION;
+      default:
+        return SimpleFeatureGeometry.NONE;
+    }
+  }
+
+  @FunctionalInterface
+  private interface WkbReader {
+    void read() throws IOException;
+  }
+}
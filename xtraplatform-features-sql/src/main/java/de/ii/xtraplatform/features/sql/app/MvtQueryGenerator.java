@@ -0,0 +1,126 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.xtraplatform.features.sql.app;
+
+import de.ii.xtraplatform.cql.domain.And;
+import de.ii.xtraplatform.cql.domain.Cql2Expression;
+import de.ii.xtraplatform.crs.domain.BoundingBox;
+import de.ii.xtraplatform.features.domain.FeatureQuery;
+import de.ii.xtraplatform.features.sql.domain.SchemaSql;
+import de.ii.xtraplatform.features.sql.domain.SqlDialect;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Generates queries that encode the features of a single table as a Mapbox Vector Tile layer with
+ * ST_AsMVTGeom and ST_AsMVT. Only applicable for PostGIS and for feature types where every
+ * property is a column of the main table.
+ */
+public class MvtQueryGenerator {
+
+  private static final String GEOMETRY = "mvt_geom";
+  private static final String FEATURE_ID = "mvt_id";
+
+  private final SchemaSql mainSchema;
+  private final SchemaSql queryablesSchema;
+  private final String geometryColumn;
+  private final Optional<String> idColumn;
+  private final Map<String, String> columns;
+  private final SqlDialect sqlDialect;
+  private final FilterEncoderSql filterEncoder;
+
+  /**
+   * @param idColumn the integer column that is used as feature id, the feature id is not set if
+   *     empty
+   * @param columns the property names by column name, in the order of the feature schema
+   */
+  public MvtQueryGenerator(
+      SchemaSql mainSchema,
+      SchemaSql queryablesSchema,
+      String geometryColumn,
+      Optional<String> idColumn,
+      Map<String, String> columns,
+      SqlDialect sqlDialect,
+      FilterEncoderSql filterEncoder) {
+    this.mainSchema = mainSchema;
+    this.queryablesSchema = queryablesSchema;
+    this.geometryColumn = geometryColumn;
+    this.idColumn = idColumn;
+    this.columns = columns;
+    this.sqlDialect = sqlDialect;
+    this.filterEncoder = filterEncoder;
+  }
+
+  public String getMvtQuery(
+      FeatureQuery query, String layerName, BoundingBox tileBounds, int extent, int buffer) {
+    List<String> fields = query.getFields();
+    boolean allFields = fields.contains("*");
+
+    // ST_AsMVT does not write the feature id column as property, the id property is kept
+    String id =
+        idColumn.map(column -> String.format(", A.%s AS %s", column, FEATURE_ID)).orElse("");
+    String properties =
+        columns.entrySet().stream()
+            .filter(column -> allFields || fields.contains(column.getValue()))
+            .map(column -> String.format("A.%s AS %s", column.getKey(), quote(column.getValue())))
+            .map(column -> ", " + column)
+            .collect(Collectors.joining());
+
+    String envelope =
+        String.format(
+            "ST_MakeEnvelope(%s, %s, %s, %s, %d)",
+            tileBounds.getXmin(),
+            tileBounds.getYmin(),
+            tileBounds.getXmax(),
+            tileBounds.getYmax(),
+            tileBounds.getEpsgCrs().getCode());
+    String geometry =
+        String.format(
+            "ST_AsMVTGeom(ST_Transform(A.%s, %d), %s, %d, %d, true) AS %s",
+            geometryColumn, tileBounds.getEpsgCrs().getCode(), envelope, extent, buffer, GEOMETRY);
+
+    Optional<String> filter = getFilter(query.getFilter());
+    String where = filter.map(f -> String.format(" WHERE %s", f)).orElse("");
+    String limit = query.getLimit() > 0 ? sqlDialect.applyToLimit(query.getLimit()) : "";
+
+    return String.format(
+        "SELECT ST_AsMVT(R.*, '%s', %d, '%s'%s) FROM (SELECT %s%s%s FROM %s A%s ORDER BY A.%s%s) AS R WHERE R.%s IS NOT NULL",
+        sqlDialect.escapeString(layerName),
+        extent,
+        GEOMETRY,
+        idColumn.isPresent() ? String.format(", '%s'", FEATURE_ID) : "",
+        geometry,
+        id,
+        properties,
+        mainSchema.getName(),
+        where,
+        mainSchema.getSortKey().get(),
+        limit,
+        GEOMETRY);
+  }
+
+  private Optional<String> getFilter(Optional<Cql2Expression> userFilter) {
+    if (mainSchema.getFilter().isEmpty() && userFilter.isEmpty()) {
+      return Optional.empty();
+    }
+    if (mainSchema.getFilter().isPresent() && userFilter.isPresent()) {
+      return Optional.of(
+          filterEncoder.encode(
+              And.of(mainSchema.getFilter().get(), userFilter.get()), queryablesSchema));
+    }
+
+    return Optional.of(
+        filterEncoder.encode(mainSchema.getFilter().or(() -> userFilter).get(), queryablesSchema));
+  }
+
+  private static String quote(String identifier) {
+    return String.format("\"%s\"", identifier.replace("\"", "\"\""));
+  }
+}
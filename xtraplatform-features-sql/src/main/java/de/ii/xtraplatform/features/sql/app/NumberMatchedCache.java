@@ -0,0 +1,51 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.xtraplatform.features.sql.app;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.List;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers the number of matched rows per query, so that it only has to be counted once. The
+ * query key has to start with the feature type, so that all counts for a type can be invalidated
+ * when its data changes. Changes that bypass the provider, e.g. made directly in the database, are
+ * not noticed, so counts also expire after {@link #MAX_AGE_MINUTES}.
+ */
+class NumberMatchedCache {
+
+  private static final long MAX_QUERIES = 1000;
+  static final long MAX_AGE_MINUTES = 10;
+
+  private final Cache<List<Object>, Long> counts;
+
+  NumberMatchedCache() {
+    this.counts =
+        CacheBuilder.newBuilder()
+            .maximumSize(MAX_QUERIES)
+            .expireAfterWrite(MAX_AGE_MINUTES, TimeUnit.MINUTES)
+            .build();
+  }
+
+  OptionalLong get(List<Object> query) {
+    Long count = counts.getIfPresent(query);
+
+    return Objects.isNull(count) ? OptionalLong.empty() : OptionalLong.of(count);
+  }
+
+  void put(List<Object> query, long count) {
+    counts.put(query, count);
+  }
+
+  void invalidate(String type) {
+    counts.asMap().keySet().removeIf(query -> Objects.equals(query.get(0), type));
+  }
+}
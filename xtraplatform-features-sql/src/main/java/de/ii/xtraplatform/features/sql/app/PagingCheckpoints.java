@@ -0,0 +1,87 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.xtraplatform.features.sql.app;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers the last sort key of pages that were already returned for a query. A query for a page
+ * at a larger offset can then seek to the nearest preceding checkpoint with a key condition and
+ * only has to skip the rows between the checkpoint and the offset, instead of all rows before the
+ * offset. The query key has to start with the feature type, so that all checkpoints for a type
+ * can be invalidated when its data changes. Changes that bypass the provider, e.g. made directly in
+ * the database, are not noticed and shift the rows behind a checkpoint, so the checkpoints of a
+ * query also expire {@link #MAX_AGE_MINUTES} after the first one was registered.
+ */
+class PagingCheckpoints {
+
+  private static final long MAX_QUERIES = 1000;
+  private static final int MAX_CHECKPOINTS_PER_QUERY = 64;
+  static final long MAX_AGE_MINUTES = 10;
+
+  private final Cache<List<Object>, NavigableMap<Long, Object>> checkpoints;
+
+  PagingCheckpoints() {
+    this(Ticker.systemTicker());
+  }
+
+  PagingCheckpoints(Ticker ticker) {
+    this.checkpoints =
+        CacheBuilder.newBuilder()
+            .maximumSize(MAX_QUERIES)
+            .expireAfterWrite(MAX_AGE_MINUTES, TimeUnit.MINUTES)
+            .ticker(ticker)
+            .build();
+  }
+
+  /**
+   * @return the checkpoint with the largest position that is less than or equal to the given
+   *     offset, the key is the position, the value is the sort key of the row before that position
+   */
+  Optional<Map.Entry<Long, Object>> get(List<Object> query, long offset) {
+    NavigableMap<Long, Object> positions = checkpoints.getIfPresent(query);
+
+    if (Objects.isNull(positions) || offset <= 0) {
+      return Optional.empty();
+    }
+
+    return Optional.ofNullable(positions.floorEntry(offset));
+  }
+
+  /**
+   * @param position the number of rows before the checkpoint
+   * @param key the sort key of the last row before the checkpoint
+   */
+  void put(List<Object> query, long position, Object key) {
+    if (position <= 0 || Objects.isNull(key)) {
+      return;
+    }
+
+    NavigableMap<Long, Object> positions =
+        checkpoints.asMap().computeIfAbsent(query, ignore -> new ConcurrentSkipListMap<>());
+
+    positions.put(position, key);
+
+    while (positions.size() > MAX_CHECKPOINTS_PER_QUERY) {
+      positions.pollFirstEntry();
+    }
+  }
+
+  void invalidate(String type) {
+    checkpoints.asMap().keySet().removeIf(query -> Objects.equals(query.get(0), type));
+  }
+}
@@ -8,6 +8,7 @@
 package de.ii.xtraplatform.features.sql.app;
 
 import de.ii.xtraplatform.cql.domain.Cql2Expression;
+import de.ii.xtraplatform.features.domain.NumberMatchedStrategy;
 import de.ii.xtraplatform.features.domain.SortKey;
 import de.ii.xtraplatform.features.domain.Tuple;
 import de.ii.xtraplatform.features.sql.domain.SchemaSql;
@@ -29,6 +30,14 @@ public interface SqlQueryTemplates {
 
   @FunctionalInterface
   interface MetaQueryTemplate {
+    /**
+     * @param afterKey if present, only rows with a sort key greater than the given key are
+     *     returned, the offset is then relative to that key; ignored when additional sort keys are
+     *     given
+     * @param numberMatched how numberMatched is determined, {@link NumberMatchedStrategy#CACHED} is
+     *     counted like {@link NumberMatchedStrategy#EXACT}; if empty, the default of the template
+     *     is used
+     */
     String generateMetaQuery(
         long limit,
         long offset,
@@ -37,7 +46,31 @@ public interface SqlQueryTemplates {
         Optional<Cql2Expression> filter,
         Map<String, String> virtualTables,
         boolean withNumberSkipped,
-        boolean withNumberReturned);
+        boolean withNumberReturned,
+        Optional<Object> afterKey,
+        Optional<NumberMatchedStrategy> numberMatched);
+
+    default String generateMetaQuery(
+        long limit,
+        long offset,
+        long skipOffset,
+        List<SortKey> additionalSortKeys,
+        Optional<Cql2Expression> filter,
+        Map<String, String> virtualTables,
+        boolean withNumberSkipped,
+        boolean withNumberReturned) {
+      return generateMetaQuery(
+          limit,
+          offset,
+          skipOffset,
+          additionalSortKeys,
+          filter,
+          virtualTables,
+          withNumberSkipped,
+          withNumberReturned,
+          Optional.empty(),
+          Optional.empty());
+    }
   }
 
   @FunctionalInterface
@@ -10,6 +10,7 @@ package de.ii.xtraplatform.features.sql.app;
 import de.ii.xtraplatform.cql.domain.And;
 import de.ii.xtraplatform.cql.domain.Cql2Expression;
 import de.ii.xtraplatform.cql.domain.In;
+import de.ii.xtraplatform.features.domain.NumberMatchedStrategy;
 import de.ii.xtraplatform.features.domain.SchemaBase;
 import de.ii.xtraplatform.features.domain.SchemaVisitorWithFinalizer;
 import de.ii.xtraplatform.features.domain.SortKey;
@@ -19,6 +20,7 @@ import de.ii.xtraplatform.features.sql.app.SqlQueryTemplates.MetaQueryTemplate;
 import de.ii.xtraplatform.features.sql.app.SqlQueryTemplates.ValueQueryTemplate;
 import de.ii.xtraplatform.features.sql.domain.SchemaSql;
 import de.ii.xtraplatform.features.sql.domain.SqlDialect;
+import de.ii.xtraplatform.features.sql.domain.SqlParameters;
 import java.sql.Timestamp;
 import java.util.Collection;
 import java.util.List;
@@ -42,6 +44,8 @@ public class SqlQueryTemplatesDeriver
   private final FilterEncoderSql filterEncoder;
   private final boolean computeNumberMatched;
   private final boolean computeNumberSkipped;
+  private final boolean bindParameters;
+  private final boolean geometryAsWkb;
 
   public SqlQueryTemplatesDeriver(
       SchemaSql queryablesSchema,
@@ -49,11 +53,54 @@ public class SqlQueryTemplatesDeriver
       SqlDialect sqlDialect,
       boolean computeNumberMatched,
       boolean computeNumberSkipped) {
+    this(
+        queryablesSchema,
+        filterEncoder,
+        sqlDialect,
+        computeNumberMatched,
+        computeNumberSkipped,
+        false);
+  }
+
+  /**
+   * @param bindParameters if true, limits, offsets and key ranges are marked as bind parameters
+   *     instead of being inlined, see {@link SqlParameters}
+   */
+  public SqlQueryTemplatesDeriver(
+      SchemaSql queryablesSchema,
+      FilterEncoderSql filterEncoder,
+      SqlDialect sqlDialect,
+      boolean computeNumberMatched,
+      boolean computeNumberSkipped,
+      boolean bindParameters) {
+    this(
+        queryablesSchema,
+        filterEncoder,
+        sqlDialect,
+        computeNumberMatched,
+        computeNumberSkipped,
+        bindParameters,
+        false);
+  }
+
+  /**
+   * @param geometryAsWkb if true, geometry columns are selected as WKB instead of WKT
+   */
+  public SqlQueryTemplatesDeriver(
+      SchemaSql queryablesSchema,
+      FilterEncoderSql filterEncoder,
+      SqlDialect sqlDialect,
+      boolean computeNumberMatched,
+      boolean computeNumberSkipped,
+      boolean bindParameters,
+      boolean geometryAsWkb) {
     this.queryablesSchema = queryablesSchema;
     this.sqlDialect = sqlDialect;
     this.filterEncoder = filterEncoder;
     this.computeNumberMatched = computeNumberMatched;
     this.computeNumberSkipped = computeNumberSkipped;
+    this.bindParameters = bindParameters;
+    this.geometryAsWkb = geometryAsWkb;
   }
 
   @Override
@@ -88,12 +135,25 @@ public class SqlQueryTemplatesDeriver
         cqlFilter,
         virtualTables,
         withNumberSkipped,
-        withNumberReturned) -> {
-      String limitAndOffsetSql = sqlDialect.applyToLimitAndOffset(limit, offset);
-      String skipOffsetSql = skipOffset > 0 ? sqlDialect.applyToOffset(skipOffset) : "";
+        withNumberReturned,
+        afterKey,
+        numberMatchedStrategy) -> {
+      String limitAndOffsetSql = getLimitAndOffset(limit, offset);
+      String skipOffsetSql = skipOffset > 0 ? getOffset(skipOffset) : "";
       String asIds = sqlDialect.applyToAsIds();
       Optional<String> filter = getFilter(schema, cqlFilter);
       String where = filter.isPresent() ? String.format(" WHERE %s", filter.get()) : "";
+      Optional<String> seek =
+          afterKey
+              .filter(key -> additionalSortKeys.isEmpty())
+              .map(
+                  key -> String.format("A.%s > %s", schema.getSortKey().get(), formatLiteral(key)));
+      String whereReturned =
+          seek.isEmpty()
+              ? where
+              : filter.isPresent()
+                  ? String.format(" WHERE (%s) AND %s", filter.get(), seek.get())
+                  : String.format(" WHERE %s", seek.get());
 
       String tableName =
           virtualTables.containsKey(schema.getName())
@@ -114,19 +174,32 @@ public class SqlQueryTemplatesDeriver
           withNumberReturned
               ? String.format(
                   "SELECT %6$s, count(*) AS numberReturned FROM (SELECT %2$s FROM %1$s%5$s ORDER BY %3$s%4$s)%7$s",
-                  table, columns, orderBy, limitAndOffsetSql, where, minMaxColumns, asIds)
+                  table, columns, orderBy, limitAndOffsetSql, whereReturned, minMaxColumns, asIds)
               : sqlDialect.applyToNoTable(
                   String.format(
                       "SELECT NULL AS minKey, NULL AS maxKey, %s AS numberReturned",
                       sqlDialect.castToBigInt(0)));
 
+      NumberMatchedStrategy strategy =
+          numberMatchedStrategy.orElse(
+              computeNumberMatched ? NumberMatchedStrategy.EXACT : NumberMatchedStrategy.NONE);
+      // table statistics do not apply to filtered rows or virtual tables
+      Optional<String> estimatedCount =
+          strategy == NumberMatchedStrategy.ESTIMATE
+                  && filter.isEmpty()
+                  && !virtualTables.containsKey(schema.getName())
+              ? sqlDialect.applyToEstimatedCount(tableName)
+              : Optional.empty();
+
       String numberMatched =
-          computeNumberMatched
-              ? String.format(
-                  "SELECT count(*) AS numberMatched FROM (SELECT A.%2$s AS %4$s FROM %1$s A%3$s ORDER BY 1)%5$s",
-                  tableName, schema.getSortKey().get(), where, SKEY, asIds)
-              : sqlDialect.applyToNoTable(
-                  String.format("SELECT %s AS numberMatched", sqlDialect.castToBigInt(-1)));
+          estimatedCount.isPresent()
+              ? estimatedCount.get()
+              : strategy != NumberMatchedStrategy.NONE
+                  ? String.format(
+                      "SELECT count(*) AS numberMatched FROM (SELECT A.%2$s AS %4$s FROM %1$s A%3$s ORDER BY 1)%5$s",
+                      tableName, schema.getSortKey().get(), where, SKEY, asIds)
+                  : sqlDialect.applyToNoTable(
+                      String.format("SELECT %s AS numberMatched", sqlDialect.castToBigInt(-1)));
 
       String numberSkipped =
           computeNumberSkipped && withNumberSkipped
@@ -167,11 +240,7 @@ public class SqlQueryTemplatesDeriver
       Optional<String> pagingClause =
           additionalSortKeys.isEmpty() || (limit == 0 && offset == 0)
               ? Optional.empty()
-              : Optional.of(
-                  String.format(
-                      "%s%s",
-                      limit > 0 ? sqlDialect.applyToLimit(limit) : "",
-                      offset > 0 ? sqlDialect.applyToOffset(offset) : ""));
+              : Optional.of(getLimitAndOffset(limit, offset));
 
       return getTableQuery(
           schema, whereClause, pagingClause, additionalSortKeys, parents, virtualTables);
@@ -219,6 +288,10 @@ public class SqlQueryTemplatesDeriver
                                 column.getSubDecoderPaths(),
                                 column.isSpatial());
                           }
+                          if (column.isSpatial() && geometryAsWkb) {
+                            return sqlDialect.applyToWkb(
+                                name, column.isForcePolygonCCW(), column.shouldLinearizeCurves());
+                          }
                           if (column.isSpatial()) {
                             return sqlDialect.applyToWkt(
                                 name, column.isForcePolygonCCW(), column.shouldLinearizeCurves());
@@ -337,6 +410,9 @@ public class SqlQueryTemplatesDeriver
     if (Objects.isNull(literal)) {
       return "NULL";
     }
+    if (bindParameters && SqlParameters.isBindable(literal)) {
+      return SqlParameters.bind(literal);
+    }
     if (literal instanceof Number) {
       return String.valueOf(literal);
     }
@@ -349,6 +425,31 @@ public class SqlQueryTemplatesDeriver
     return String.format("'%s'", sqlDialect.escapeString(literalString));
   }
 
+  private String getLimitAndOffset(long limit, long offset) {
+    if (!bindParameters) {
+      return sqlDialect.applyToLimitAndOffset(limit, offset);
+    }
+
+    if (limit > 0 && offset > 0) {
+      return sqlDialect.applyToLimitAndOffsetParameter(
+          SqlParameters.bind(limit), SqlParameters.bind(offset));
+    }
+
+    return limit > 0 ? getLimit(limit) : offset > 0 ? getOffset(offset) : "";
+  }
+
+  private String getLimit(long limit) {
+    return bindParameters
+        ? sqlDialect.applyToLimitParameter(SqlParameters.bind(limit))
+        : sqlDialect.applyToLimit(limit);
+  }
+
+  private String getOffset(long offset) {
+    return bindParameters
+        ? sqlDialect.applyToOffsetParameter(SqlParameters.bind(offset))
+        : sqlDialect.applyToOffset(offset);
+  }
+
   private List<String> getSortFields(
       SchemaSql schema,
       List<SchemaSql> parents,
@@ -45,6 +45,7 @@ import de.ii.xtraplatform.features.domain.FeatureExtents;
 import de.ii.xtraplatform.features.domain.FeatureProvider;
 import de.ii.xtraplatform.features.domain.FeatureProviderDataV2;
 import de.ii.xtraplatform.features.domain.FeatureQueries;
+import de.ii.xtraplatform.features.domain.FeatureQueriesMvt;
 import de.ii.xtraplatform.features.domain.FeatureQuery;
 import de.ii.xtraplatform.features.domain.FeatureQueryEncoder;
 import de.ii.xtraplatform.features.domain.FeatureSchema;
@@ -63,6 +64,7 @@ import de.ii.xtraplatform.features.domain.ImmutableSubQuery;
 import de.ii.xtraplatform.features.domain.MultiFeatureQueries;
 import de.ii.xtraplatform.features.domain.MultiFeatureQuery;
 import de.ii.xtraplatform.features.domain.MultiFeatureQuery.SubQuery;
+import de.ii.xtraplatform.features.domain.NumberMatchedStrategy;
 import de.ii.xtraplatform.features.domain.ProviderData;
 import de.ii.xtraplatform.features.domain.ProviderExtensionRegistry;
 import de.ii.xtraplatform.features.domain.Query;
@@ -86,6 +88,7 @@ import de.ii.xtraplatform.features.sql.app.FeatureQueryEncoderSql;
 import de.ii.xtraplatform.features.sql.app.FeatureSql;
 import de.ii.xtraplatform.features.sql.app.FilterEncoderSql;
 import de.ii.xtraplatform.features.sql.app.ModifiableFeatureSql;
+import de.ii.xtraplatform.features.sql.app.MvtQueryGenerator;
 import de.ii.xtraplatform.features.sql.app.MutationSchemaBuilderSql;
 import de.ii.xtraplatform.features.sql.app.MutationSchemaDeriver;
 import de.ii.xtraplatform.features.sql.app.PathParserSql;
@@ -93,7 +96,6 @@ import de.ii.xtraplatform.features.sql.app.QuerySchemaDeriver;
 import de.ii.xtraplatform.features.sql.app.SqlInsertGenerator2;
 import de.ii.xtraplatform.features.sql.app.SqlQueryTemplates;
 import de.ii.xtraplatform.features.sql.app.SqlQueryTemplatesDeriver;
-import de.ii.xtraplatform.features.sql.domain.FeatureProviderSqlData.QueryGeneratorSettings;
 import de.ii.xtraplatform.features.sql.infra.db.SourceSchemaValidatorSql;
 import de.ii.xtraplatform.streams.domain.Reactive;
 import de.ii.xtraplatform.streams.domain.Reactive.RunnableStream;
@@ -111,7 +113,9 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.concurrent.CompletionStage;
 import java.util.function.Predicate;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import org.postgresql.util.PSQLException;
@@ -298,9 +302,11 @@ public class FeatureProviderSql
         FeatureExtents,
         FeatureCrs,
         FeatureTransactions,
-        MultiFeatureQueries {
+        MultiFeatureQueries,
+        FeatureQueriesMvt {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(FeatureProviderSql.class);
+  private static final Pattern SIMPLE_COLUMN = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
 
   public static final String ENTITY_SUB_TYPE = "feature/sql";
   public static final String PROVIDER_SUB_TYPE = "SQL";
@@ -322,6 +328,7 @@ public class FeatureProviderSql
   private Map<String, List<SchemaSql>> tableSchemas;
   private Map<String, List<SchemaSql>> tableSchemasQueryables;
   private Map<String, List<SchemaSql>> tableSchemasMutations;
+  private Map<String, MvtQueryGenerator> mvtQueryGenerators;
 
   @AssistedInject
   public FeatureProviderSql(
@@ -451,6 +458,12 @@ public class FeatureProviderSql
         Objects.nonNull(getData().getQueryGeneration())
             ? getData().getQueryGeneration().getAccentiCollation().orElse(null)
             : null;
+    boolean bindParameters =
+        Objects.nonNull(getData().getQueryGeneration())
+            && getData().getQueryGeneration().getBindParameters();
+    boolean geometryAsWkb =
+        Objects.nonNull(getData().getQueryGeneration())
+            && getData().getQueryGeneration().getGeometryAsWkb();
     FilterEncoderSql filterEncoder =
         new FilterEncoderSql(
             getData().getNativeCrs().orElse(OgcCrs.CRS84),
@@ -458,9 +471,19 @@ public class FeatureProviderSql
             crsTransformerFactory,
             crsInfo,
             cql,
-            accentiCollation);
+            accentiCollation,
+            bindParameters);
+    // statistics queries are executed without bind parameters
     AggregateStatsQueryGenerator queryGeneratorSql =
-        new AggregateStatsQueryGenerator(sqlDialect, filterEncoder);
+        new AggregateStatsQueryGenerator(
+            sqlDialect,
+            new FilterEncoderSql(
+                getData().getNativeCrs().orElse(OgcCrs.CRS84),
+                sqlDialect,
+                crsTransformerFactory,
+                crsInfo,
+                cql,
+                accentiCollation));
 
     this.tableSchemasMutations =
         getData().getTypes().entrySet().stream()
@@ -487,7 +510,9 @@ public class FeatureProviderSql
                                           filterEncoder,
                                           sqlDialect,
                                           getData().getQueryGeneration().getComputeNumberMatched(),
-                                          true)))
+                                          true,
+                                          bindParameters,
+                                          geometryAsWkb)))
                           .collect(Collectors.toList()));
                 })
             .collect(ImmutableMap.toImmutableMap(Entry::getKey, Entry::getValue));
@@ -510,7 +535,9 @@ public class FeatureProviderSql
                                         filterEncoder,
                                         sqlDialect,
                                         getData().getQueryGeneration().getComputeNumberMatched(),
-                                        false)))))
+                                        false,
+                                        bindParameters,
+                                        geometryAsWkb)))))
             .collect(ImmutableMap.toImmutableMap(Entry::getKey, Entry::getValue));
 
     this.queryTransformer =
@@ -520,6 +547,17 @@ public class FeatureProviderSql
             getData().getQueryGeneration(),
             sqlDialect);
 
+    this.mvtQueryGenerators =
+        supportsMvtInternal()
+            ? getData().getTypes().keySet().stream()
+                .map(
+                    type ->
+                        createMvtQueryGenerator(type, sqlDialect, filterEncoder)
+                            .map(generator -> Map.entry(type, generator)))
+                .flatMap(Optional::stream)
+                .collect(ImmutableMap.toImmutableMap(Entry::getKey, Entry::getValue))
+            : ImmutableMap.of();
+
     this.aggregateStatsReader =
         new AggregateStatsReaderSql(
             this::getSqlClient,
@@ -538,6 +576,76 @@ public class FeatureProviderSql
     return true;
   }
 
+  // only types where every property is a plain column of the main table can be encoded natively,
+  // everything else needs the feature token pipeline
+  private Optional<MvtQueryGenerator> createMvtQueryGenerator(
+      String type, SqlDialect sqlDialect, FilterEncoderSql filterEncoder) {
+    FeatureSchema featureSchema = getData().getTypes().get(type);
+    List<SchemaSql> mainSchemas = tableSchemas.get(type);
+
+    if (Objects.isNull(featureSchema)
+        || Objects.isNull(mainSchemas)
+        || mainSchemas.size() != 1
+        || mainSchemas.get(0).getAllObjects().size() != 1
+        || mainSchemas.get(0).getSortKey().isEmpty()
+        || featureSchema.getPrimaryGeometry().isEmpty()
+        || !featureSchema
+            .accept(new PropertyTransformationsCollector())
+            .getTransformations()
+            .isEmpty()) {
+      return Optional.empty();
+    }
+
+    SchemaSql mainSchema = mainSchemas.get(0);
+    Map<String, String> columns = new LinkedHashMap<>();
+    String geometryColumn = null;
+    // like in the feature pipeline, only integer ids are used as feature id
+    Optional<String> idColumn = Optional.empty();
+
+    for (FeatureSchema property : featureSchema.getProperties()) {
+      Optional<String> column = property.getSourcePath().filter(this::isSimpleColumn);
+
+      if (property.isObject()
+          || property.isArray()
+          || column.isEmpty()
+          || mainSchema.getProperties().stream()
+              .noneMatch(
+                  sqlColumn ->
+                      Objects.equals(sqlColumn.getName(), column.get())
+                          && !sqlColumn.isExpression()
+                          && !sqlColumn.isConstant())) {
+        return Optional.empty();
+      }
+
+      if (property.isPrimaryGeometry()) {
+        geometryColumn = column.get();
+      } else if (!property.isSpatial()) {
+        columns.put(column.get(), property.getName());
+        if (property.isId() && property.getType() == SchemaBase.Type.INTEGER) {
+          idColumn = column;
+        }
+      }
+    }
+
+    if (Objects.isNull(geometryColumn)) {
+      return Optional.empty();
+    }
+
+    return Optional.of(
+        new MvtQueryGenerator(
+            mainSchema,
+            tableSchemasQueryables.get(type).get(0),
+            geometryColumn,
+            idColumn,
+            columns,
+            sqlDialect,
+            filterEncoder));
+  }
+
+  private boolean isSimpleColumn(String sourcePath) {
+    return SIMPLE_COLUMN.matcher(sourcePath).matches();
+  }
+
   @Override
   protected void onStarted() {
     super.onStarted();
@@ -559,6 +667,14 @@ public class FeatureProviderSql
     }
     boolean br = true;
 
+    changes()
+        .addListener(
+            (DatasetChangeListener)
+                change -> change.getFeatureTypes().forEach(this::invalidateQueryCaches));
+    changes()
+        .addListener(
+            (FeatureChangeListener) change -> invalidateQueryCaches(change.getFeatureType()));
+
     if (getConnectionInfo().getAssumeExternalChanges()) {
       getData().getTypes().keySet().forEach(this::clearCache);
       changes()
@@ -573,6 +689,12 @@ public class FeatureProviderSql
     }
   }
 
+  private void invalidateQueryCaches(String type) {
+    if (Objects.nonNull(queryTransformer)) {
+      queryTransformer.invalidate(type);
+    }
+  }
+
   private void clearCache(String type) {
     cache.del(type, "stats", "count");
     cache.del(type, "stats", "spatial");
@@ -765,6 +887,47 @@ public class FeatureProviderSql
     return Objects.equals(getData().getConnectionInfo().getDialect(), SqlDbmsPgis.ID);
   }
 
+  @Override
+  public boolean supportsMvtInternal() {
+    return Objects.equals(getData().getConnectionInfo().getDialect(), SqlDbmsPgis.ID);
+  }
+
+  @Override
+  public boolean supportsMvt(String type) {
+    return Objects.nonNull(mvtQueryGenerators) && mvtQueryGenerators.containsKey(type);
+  }
+
+  @Override
+  public CompletionStage<byte[]> getMvtLayer(
+      FeatureQuery query, String layerName, BoundingBox tileBounds, int extent, int buffer) {
+    if (!supportsMvt(query.getType())) {
+      throw new IllegalArgumentException(
+          String.format("Feature type '%s' cannot be encoded as MVT natively.", query.getType()));
+    }
+
+    FeatureQuery query2 = (FeatureQuery) preprocessQuery(query);
+    String mvtQuery =
+        mvtQueryGenerators
+            .get(query.getType())
+            .getMvtQuery(query2, layerName, tileBounds, extent, buffer);
+
+    return getSqlClient()
+        .run(
+            mvtQuery,
+            new ImmutableSqlQueryOptions.Builder()
+                .customColumnTypes(List.of(byte[].class))
+                .isBindParameters(
+                    Objects.nonNull(getData().getQueryGeneration())
+                        && getData().getQueryGeneration().getBindParameters())
+                .build())
+        .thenApply(
+            rows ->
+                rows.stream()
+                    .findFirst()
+                    .map(row -> (byte[]) row.getValues().get(0))
+                    .orElse(new byte[0]));
+  }
+
   @Override
   public EpsgCrs getNativeCrs() {
     return getData().getNativeCrs().get();
@@ -1207,7 +1370,8 @@ public class FeatureProviderSql
         crsTransformerFactory,
         getCodelists(),
         this::runQuery,
-        !query.hitsOnly());
+        !query.hitsOnly(),
+        getDerivedSchemaCache());
   }
 
   @Override
@@ -1223,7 +1387,11 @@ public class FeatureProviderSql
   @Override
   public boolean supportsHitsOnly() {
     return Optional.ofNullable(getData().getQueryGeneration())
-        .map(QueryGeneratorSettings::getComputeNumberMatched)
+        .map(
+            settings ->
+                settings.getNumberMatchedStrategy() != NumberMatchedStrategy.NONE
+                    || settings.getNumberMatchedStrategyByType().values().stream()
+                        .anyMatch(strategy -> strategy != NumberMatchedStrategy.NONE))
         .orElse(true);
   }
 
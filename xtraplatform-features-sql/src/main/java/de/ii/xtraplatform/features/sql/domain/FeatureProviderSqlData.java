@@ -17,8 +17,10 @@ import de.ii.xtraplatform.features.domain.ExtensionConfiguration;
 import de.ii.xtraplatform.features.domain.FeatureProviderDataV2;
 import de.ii.xtraplatform.features.domain.FeatureSchema;
 import de.ii.xtraplatform.features.domain.ImmutableFeatureSchema;
+import de.ii.xtraplatform.features.domain.NumberMatchedStrategy;
 import de.ii.xtraplatform.features.domain.WithConnectionInfo;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import javax.annotation.Nullable;
@@ -147,6 +149,105 @@ public interface FeatureProviderSqlData
       return true;
     }
 
+    /**
+     * @langEn How the number of selected features that is returned in `numberMatched` is
+     *     determined. `EXACT` counts the features for every query. `CACHED` counts them once per
+     *     feature type and filter and reuses the count until the data of the feature type changes.
+     *     Changes that are not made via the provider, e.g. directly in the database, are only
+     *     noticed when the count expires after 10 minutes. `ESTIMATE` uses the table statistics of
+     *     the database for queries without filter, this is only supported for PostgreSQL, in all
+     *     other cases `CACHED` is used. `NONE` disables the computation. The default is `EXACT` or
+     *     `NONE` depending on `computeNumberMatched`. If the count is not exact, the strategy is
+     *     reported in the response metadata.
+     * @langDe Steuert, wie die Anzahl der selektierten Features, die in `numberMatched`
+     *     zurückgegeben wird, bestimmt wird. `EXACT` zählt die Features bei jeder Abfrage. `CACHED`
+     *     zählt sie einmal je Objektart und Filter und verwendet das Ergebnis wieder, bis sich die
+     *     Daten der Objektart ändern. Änderungen, die nicht über den Provider erfolgen, z.B. direkt
+     *     in der Datenbank, werden erst bemerkt, wenn die Anzahl nach 10 Minuten verfällt.
+     *     `ESTIMATE` verwendet für Abfragen ohne Filter die Tabellenstatistik der Datenbank, das
+     *     wird nur für PostgreSQL unterstützt, in allen anderen Fällen wird `CACHED` verwendet.
+     *     `NONE` deaktiviert die Berechnung. Der Default ist `EXACT` oder `NONE` abhängig von
+     *     `computeNumberMatched`. Ist die Anzahl nicht exakt, wird die Strategie in den Metadaten
+     *     der Antwort angegeben.
+     * @default EXACT
+     * @since v4.3
+     */
+    @Value.Default
+    default NumberMatchedStrategy getNumberMatchedStrategy() {
+      return getComputeNumberMatched() ? NumberMatchedStrategy.EXACT : NumberMatchedStrategy.NONE;
+    }
+
+    /**
+     * @langEn Overrides `numberMatchedStrategy` for single feature types, the keys are the ids of
+     *     the feature types.
+     * @langDe Überschreibt `numberMatchedStrategy` für einzelne Objektarten, die Schlüssel sind die
+     *     Ids der Objektarten.
+     * @default {}
+     * @since v4.3
+     */
+    Map<String, NumberMatchedStrategy> getNumberMatchedStrategyByType();
+
+    default NumberMatchedStrategy getNumberMatchedStrategy(String type) {
+      return getNumberMatchedStrategyByType().getOrDefault(type, getNumberMatchedStrategy());
+    }
+
+    /**
+     * @langEn Option to send limits, offsets, key ranges and geometry literals of feature queries
+     *     as bind parameters of prepared statements. Queries that only differ in these values then
+     *     share the same statement, so the database can reuse the query plan, e.g. for vector tiles
+     *     or paging.
+     * @langDe Steuert, ob Limits, Offsets, Schlüsselbereiche und Geometrie-Literale von
+     *     Feature-Abfragen als Parameter von Prepared Statements übergeben werden. Abfragen, die
+     *     sich nur in diesen Werten unterscheiden, verwenden dann dasselbe Statement, so dass die
+     *     Datenbank den Abfrageplan wiederverwenden kann, z.B. bei Vector Tiles oder beim Paging.
+     * @default false
+     * @since v4.3
+     */
+    @Value.Default
+    default boolean getBindParameters() {
+      return false;
+    }
+
+    /**
+     * @langEn Option to fetch geometries from the database as Well-known Binary (WKB) instead of
+     *     Well-known Text (WKT). This avoids formatting coordinates as text in the database and
+     *     parsing them again, which reduces the CPU load for features with large geometries.
+     * @langDe Steuert, ob Geometrien als Well-known Binary (WKB) statt als Well-known Text (WKT)
+     *     aus der Datenbank gelesen werden. Dadurch entfällt das Formatieren der Koordinaten als
+     *     Text in der Datenbank und das erneute Parsen, was die CPU-Last bei Features mit großen
+     *     Geometrien reduziert.
+     * @default false
+     * @since v4.3
+     */
+    @Value.Default
+    default boolean getGeometryAsWkb() {
+      return false;
+    }
+
+    /**
+     * @langEn Option to speed up deep paging. The last sort key of every returned page is
+     *     remembered, a query for a page at a larger offset then starts at the nearest remembered
+     *     key instead of skipping all features before the offset. Only applies to queries without
+     *     custom sorting on a feature type with a unique sort key. The remembered keys of a feature
+     *     type are discarded whenever its data changes. Changes that are not made via the provider,
+     *     e.g. directly in the database, are not noticed, the keys are therefore also discarded
+     *     after 10 minutes.
+     * @langDe Steuert, ob das Blättern zu weit hinten liegenden Seiten beschleunigt werden soll.
+     *     Der letzte Sortierschlüssel jeder zurückgegebenen Seite wird gemerkt, eine Abfrage für
+     *     eine Seite mit größerem Offset beginnt dann beim nächstgelegenen gemerkten Schlüssel,
+     *     statt alle Features vor dem Offset zu überspringen. Gilt nur für Abfragen ohne eigene
+     *     Sortierung auf einer Objektart mit eindeutigem Sortierschlüssel. Die gemerkten Schlüssel
+     *     einer Objektart werden verworfen, sobald sich deren Daten ändern. Änderungen, die nicht
+     *     über den Provider erfolgen, z.B. direkt in der Datenbank, werden nicht bemerkt, die
+     *     Schlüssel werden deshalb auch nach 10 Minuten verworfen.
+     * @default false
+     * @since v4.3
+     */
+    @Value.Default
+    default boolean getKeysetPaging() {
+      return false;
+    }
+
     // TODO
     @DocIgnore
     @Value.Default
@@ -17,6 +17,7 @@ import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.IntStream;
 
 public interface SqlClient extends SqlClientBasic {
 
@@ -24,6 +25,19 @@ public interface SqlClient extends SqlClientBasic {
 
   Reactive.Source<SqlRow> getSourceStream(String query, SqlQueryOptions options);
 
+  /**
+   * Runs the queries and merges their rows, which have to be sorted per query, into a single sorted
+   * stream.
+   */
+  @SuppressWarnings("unchecked")
+  default Reactive.Source<SqlRow> getSourceStreamSorted(
+      List<String> queries, List<SqlQueryOptions> options) {
+    return SqlConnector.mergeAndSort(
+        IntStream.range(0, queries.size())
+            .mapToObj(i -> getSourceStream(queries.get(i), options.get(i)))
+            .toArray(Reactive.Source[]::new));
+  }
+
   Reactive.Source<String> getMutationSource(
       FeatureSql feature,
       List<Function<FeatureSql, String>> mutations,
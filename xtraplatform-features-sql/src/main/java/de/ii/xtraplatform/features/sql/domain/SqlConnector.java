@@ -7,6 +7,7 @@
  */
 package de.ii.xtraplatform.features.sql.domain;
 
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import de.ii.xtraplatform.base.domain.resiliency.Volatile2;
 import de.ii.xtraplatform.base.domain.util.Tuple;
@@ -17,13 +18,19 @@ import de.ii.xtraplatform.streams.domain.Reactive.Source;
 import de.ii.xtraplatform.streams.domain.Reactive.Transformer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
 import java.util.function.Function;
-import java.util.function.IntFunction;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import org.postgresql.util.PSQLException;
@@ -32,6 +39,9 @@ import org.postgresql.util.PSQLState;
 public interface SqlConnector
     extends FeatureProviderConnector<SqlRow, SqlQueryBatch, SqlQueryOptions>, Volatile2 {
 
+  List<Class<?>> META_COLUMN_TYPES =
+      ImmutableList.of(Object.class, Object.class, Long.class, Long.class, Long.class);
+
   int getMaxConnections();
 
   int getMinConnections();
@@ -103,6 +113,137 @@ public interface SqlConnector
     }
   }
 
+  /**
+   * Limits the number of meta queries that are started ahead across all requests, so that they
+   * cannot starve the connection pool. Zero permits disable the prefetching.
+   */
+  Semaphore getMetaQueryPrefetchPermits();
+
+  /**
+   * The meta query of the first query set of every table is started ahead with the full limit and
+   * without skipped features, so that the round-trips for multiple tables or types overlap. When
+   * the paging bookkeeping reaches a query set, the prefetched result is used if it is identical to
+   * the result of the actual meta query, otherwise the actual meta query is executed.
+   */
+  class MetaQueryPrefetch {
+    private final long maxLimit;
+    private final String metaQuery;
+    private final CompletableFuture<?> query;
+    private final CompletableFuture<Optional<SqlRowMeta>> metaResult;
+
+    MetaQueryPrefetch(
+        long maxLimit,
+        String metaQuery,
+        CompletableFuture<?> query,
+        CompletableFuture<Optional<SqlRowMeta>> metaResult) {
+      this.maxLimit = maxLimit;
+      this.metaQuery = metaQuery;
+      this.query = query;
+      this.metaResult = metaResult;
+    }
+
+    // when the limit was already reached, only numberMatched is needed, which does not depend on
+    // the limit
+    boolean matches(SqlQuerySet querySet, long actualMaxLimit, long actualSkipped) {
+      return actualMaxLimit == 0
+          || querySet
+              .getMetaQuery()
+              .apply(maxLimit, actualSkipped)
+              .filter(actualMetaQuery -> Objects.equals(actualMetaQuery, metaQuery))
+              .isPresent();
+    }
+
+    // with a smaller limit the rows are only identical, if the limit was not reached
+    boolean matches(SqlRowMeta metaResult, long actualMaxLimit) {
+      return actualMaxLimit == 0 || metaResult.getNumberReturned() <= actualMaxLimit;
+    }
+  }
+
+  /** The prefetched meta queries of a query batch. */
+  class MetaQueryPrefetches {
+    private final Map<SqlQuerySet, MetaQueryPrefetch> prefetches;
+
+    MetaQueryPrefetches() {
+      this.prefetches = new IdentityHashMap<>();
+    }
+
+    synchronized void put(SqlQuerySet querySet, MetaQueryPrefetch prefetch) {
+      prefetches.put(querySet, prefetch);
+    }
+
+    synchronized MetaQueryPrefetch get(SqlQuerySet querySet) {
+      return prefetches.get(querySet);
+    }
+
+    /** Stops the meta queries that are still running, e.g. when the stream was cancelled. */
+    synchronized void cancel() {
+      prefetches.values().forEach(prefetch -> prefetch.query.cancel(false));
+    }
+  }
+
+  /**
+   * Meta queries are only prefetched, if they will certainly be executed with the prefetched limit
+   * and offset. Without an offset every table is queried with the remaining limit, and if
+   * numberMatched is needed, tables are also queried after the limit was reached. Only the meta
+   * query of the table that reaches the limit has to be executed again with the smaller limit.
+   */
+  private MetaQueryPrefetches prefetchMetaResults(
+      SqlQueryBatch queryBatch, MetaQueryPrefetches prefetched) {
+    if (queryBatch.getLimit() <= 0
+        || queryBatch.getOffset() > 0
+        || queryBatch.isAllowSkipMetaQueries()
+        || queryBatch.isSingleFeature()) {
+      return prefetched;
+    }
+
+    Map<String, SqlQuerySet> firstQuerySets = new LinkedHashMap<>();
+
+    for (SqlQuerySet querySet : queryBatch.getQuerySets()) {
+      firstQuerySets.putIfAbsent(
+          querySet.getTableSchemas().get(0).getFullPathAsString(), querySet);
+    }
+
+    // a single table gains nothing, the meta queries depend on each other anyway
+    if (firstQuerySets.size() <= 1) {
+      return prefetched;
+    }
+
+    Semaphore permits = getMetaQueryPrefetchPermits();
+
+    for (Map.Entry<String, SqlQuerySet> entry : firstQuerySets.entrySet()) {
+      String table = entry.getKey();
+      SqlQuerySet querySet = entry.getValue();
+      Optional<String> metaQuery = querySet.getMetaQuery().apply(queryBatch.getLimit(), 0L);
+
+      if (metaQuery.isEmpty()) {
+        continue;
+      }
+      // the remaining tables are queried when the bookkeeping reaches them
+      if (!permits.tryAcquire()) {
+        break;
+      }
+
+      CompletableFuture<Collection<SqlRow>> query =
+          getSqlClient().run(metaQuery.get(), getMetaQueryOptions(querySet.getOptions()));
+      query.whenComplete((rows, throwable) -> permits.release());
+
+      prefetched.put(
+          querySet,
+          new MetaQueryPrefetch(
+              queryBatch.getLimit(),
+              metaQuery.get(),
+              query,
+              query.handle(
+                  (rows, throwable) ->
+                      Objects.isNull(throwable) && !rows.isEmpty()
+                          ? Optional.of(
+                              getMetaQueryResult(rows.iterator().next().getValues(), table))
+                          : Optional.empty())));
+    }
+
+    return prefetched;
+  }
+
   // TODO: simplify, class SqlQueryRunner, remove options, singleFeature
   @Override
   default Reactive.Source<SqlRow> getSourceStream(
@@ -113,6 +254,9 @@ public interface SqlConnector
             queryBatch.getOffset(),
             queryBatch.getChunkSize(),
             queryBatch.isAllowSkipMetaQueries());
+    MetaQueryPrefetches prefetches = new MetaQueryPrefetches();
+    Supplier<MetaQueryPrefetches> prefetched =
+        Suppliers.memoize(() -> prefetchMetaResults(queryBatch, prefetches));
 
     Source<SqlRow> sqlRowSource1 =
         Source.iterable(queryBatch.getQuerySets())
@@ -128,19 +272,22 @@ public interface SqlConnector
                       }
 
                       return getMetaResult(
-                              querySet
-                                  .getMetaQuery()
-                                  .apply(
-                                      maxLimitAndSkipped.get().first(),
-                                      maxLimitAndSkipped.get().second()),
+                              querySet,
+                              prefetched.get(),
+                              maxLimitAndSkipped.get().first(),
+                              maxLimitAndSkipped.get().second(),
                               options,
                               currentTable)
                           .via(
                               Transformer.map(
                                   metaResult -> {
-                                    paging.register(currentTable, metaResult);
+                                    SqlRowMeta handledMetaResult =
+                                        querySet
+                                            .getMetaResultHandler()
+                                            .apply(metaResult, maxLimitAndSkipped.get().second());
+                                    paging.register(currentTable, handledMetaResult);
 
-                                    return Tuple.of(querySet, metaResult);
+                                    return Tuple.of(querySet, handledMetaResult);
                                   }));
                     }))
             .via(
@@ -183,6 +330,10 @@ public interface SqlConnector
                               .name(nextRow.getName())
                               .numberReturned(numberReturned)
                               .numberMatched(numberMatched)
+                              .numberMatchedStrategy(
+                                  rows.get(0)
+                                      .getNumberMatchedStrategy()
+                                      .or(nextRow::getNumberMatchedStrategy))
                               .numberSkipped(numberSkipped3)
                               .build());
 
@@ -194,6 +345,9 @@ public interface SqlConnector
             .via(
                 Transformer.flatMap(
                     plan -> {
+                      // all prefetched results were consumed, nothing should be left
+                      prefetches.cancel();
+
                       if (queryBatch.isSingleFeature()) {
                         List<SqlQuerySet> querySets = queryBatch.getQuerySets();
                         ImmutableSqlRowMeta sqlRowMeta =
@@ -205,35 +359,35 @@ public interface SqlConnector
                             .via(
                                 Transformer.flatMap(
                                     index -> {
-                                      int[] i = {0};
-                                      Source<SqlRow>[] sqlRows =
+                                      List<String> valueQueries =
                                           querySets
                                               .get(index)
                                               .getValueQueries()
                                               .apply(sqlRowMeta, 0L, 0L)
-                                              .map(
-                                                  valueQuery ->
-                                                      getSqlClient()
-                                                          .getSourceStream(
-                                                              valueQuery,
-                                                              new ImmutableSqlQueryOptions.Builder()
-                                                                  .from(options)
-                                                                  .tableSchema(
-                                                                      querySets
-                                                                          .get(index)
-                                                                          .getTableSchemas()
-                                                                          .get(i[0]))
-                                                                  .type(
-                                                                      querySets
-                                                                          .get(index)
-                                                                          .getOptions()
-                                                                          .getType())
-                                                                  .containerPriority(i[0]++)
-                                                                  .build()))
-                                              .toArray(
-                                                  (IntFunction<Source<SqlRow>[]>) Source[]::new);
-
-                                      return mergeAndSort(sqlRows);
+                                              .collect(Collectors.toList());
+                                      List<SqlQueryOptions> valueQueryOptions =
+                                          IntStream.range(0, valueQueries.size())
+                                              .mapToObj(
+                                                  i ->
+                                                      (SqlQueryOptions)
+                                                          new ImmutableSqlQueryOptions.Builder()
+                                                              .from(options)
+                                                              .tableSchema(
+                                                                  querySets
+                                                                      .get(index)
+                                                                      .getTableSchemas()
+                                                                      .get(i))
+                                                              .type(
+                                                                  querySets
+                                                                      .get(index)
+                                                                      .getOptions()
+                                                                      .getType())
+                                                              .containerPriority(i)
+                                                              .build())
+                                              .collect(Collectors.toList());
+
+                                      return getSqlClient()
+                                          .getSourceStreamSorted(valueQueries, valueQueryOptions);
                                     }))
                             .prepend(Source.single(sqlRowMeta));
                       }
@@ -266,7 +420,6 @@ public interface SqlConnector
                                             .getTableSchemas()
                                             .get(0)
                                             .getFullPathAsString();
-                                    int[] j = {0};
 
                                     if (metaResults.get(index).getNumberReturned() <= 0) {
                                       paging2.register(currentTable, metaResults.get(index));
@@ -276,7 +429,7 @@ public interface SqlConnector
                                     Optional<Tuple<Long, Long>> maxLimitAndSkipped =
                                         paging2.get(currentTable);
 
-                                    Source<SqlRow>[] sqlRows =
+                                    List<String> valueQueries =
                                         querySets
                                             .get(index)
                                             .getValueQueries()
@@ -284,35 +437,81 @@ public interface SqlConnector
                                                 metaResults.get(index),
                                                 maxLimitAndSkipped.get().first(),
                                                 maxLimitAndSkipped.get().second())
-                                            .map(
-                                                valueQuery ->
-                                                    getSqlClient()
-                                                        .getSourceStream(
-                                                            valueQuery,
-                                                            new ImmutableSqlQueryOptions.Builder()
-                                                                .from(options)
-                                                                .tableSchema(
-                                                                    querySets
-                                                                        .get(index)
-                                                                        .getTableSchemas()
-                                                                        .get(j[0]++))
-                                                                .type(
-                                                                    querySets
-                                                                        .get(index)
-                                                                        .getOptions()
-                                                                        .getType())
-                                                                .containerPriority(i[0]++)
-                                                                .build()))
-                                            .toArray((IntFunction<Source<SqlRow>[]>) Source[]::new);
+                                            .collect(Collectors.toList());
+                                    List<SqlQueryOptions> valueQueryOptions =
+                                        IntStream.range(0, valueQueries.size())
+                                            .mapToObj(
+                                                j ->
+                                                    (SqlQueryOptions)
+                                                        new ImmutableSqlQueryOptions.Builder()
+                                                            .from(options)
+                                                            .tableSchema(
+                                                                querySets
+                                                                    .get(index)
+                                                                    .getTableSchemas()
+                                                                    .get(j))
+                                                            .type(
+                                                                querySets
+                                                                    .get(index)
+                                                                    .getOptions()
+                                                                    .getType())
+                                                            .containerPriority(i[0]++)
+                                                            .build())
+                                            .collect(Collectors.toList());
 
                                     paging2.register(currentTable, metaResults.get(index));
 
-                                    return mergeAndSort(sqlRows);
+                                    return getSqlClient()
+                                        .getSourceStreamSorted(valueQueries, valueQueryOptions);
                                   }))
                           .prepend(Source.single(aggregatedMetaResult));
                     }));
 
-    return sqlRowSource1.mapError(PSQL_CONTEXT);
+    return sqlRowSource1.mapError(
+        throwable -> {
+          prefetches.cancel();
+          return PSQL_CONTEXT.apply(throwable);
+        });
+  }
+
+  private Reactive.Source<SqlRowMeta> getMetaResult(
+      SqlQuerySet querySet,
+      MetaQueryPrefetches prefetches,
+      long maxLimit,
+      long skipped,
+      SqlQueryOptions options,
+      String table) {
+    MetaQueryPrefetch prefetch = prefetches.get(querySet);
+
+    if (Objects.isNull(prefetch) || !prefetch.matches(querySet, maxLimit, skipped)) {
+      return getMetaResult(querySet.getMetaQuery().apply(maxLimit, skipped), options, table);
+    }
+
+    return toSource(prefetch.metaResult, prefetches::cancel)
+        .via(
+            Transformer.flatMap(
+                metaResult -> {
+                  if (metaResult.isEmpty() || !prefetch.matches(metaResult.get(), maxLimit)) {
+                    return getMetaResult(
+                        querySet.getMetaQuery().apply(maxLimit, skipped), options, table);
+                  }
+                  if (maxLimit == 0) {
+                    return Source.single(
+                        getMetaQueryResult(null, null, 0L, -1L, -1L)
+                            .numberMatched(metaResult.get().getNumberMatched())
+                            .name(table)
+                            .build());
+                  }
+                  return Source.single(metaResult.get());
+                }));
+  }
+
+  /**
+   * Waits for the result without blocking, if supported by the implementation. {@code onCancel} is
+   * called when the returned source is cancelled before the result is available, if supported.
+   */
+  default <T> Reactive.Source<T> toSource(CompletableFuture<T> result, Runnable onCancel) {
+    return Source.single(result).via(Transformer.map(CompletableFuture::join));
   }
 
   // TODO: simplify
@@ -322,14 +521,18 @@ public interface SqlConnector
       return Reactive.Source.single(getMetaQueryResult(0L, 0L, 0L, 0L, -1L).build());
     }
 
-    List<Class<?>> columnTypes =
-        ImmutableList.of(Object.class, Object.class, Long.class, Long.class, Long.class);
-
     return getSqlClient()
-        .getSourceStream(metaQuery.get(), SqlQueryOptions.withColumnTypes(columnTypes))
+        .getSourceStream(metaQuery.get(), getMetaQueryOptions(options))
         .via(Reactive.Transformer.map(sqlRow -> getMetaQueryResult(sqlRow.getValues(), table)));
   }
 
+  private static SqlQueryOptions getMetaQueryOptions(SqlQueryOptions options) {
+    return new ImmutableSqlQueryOptions.Builder()
+        .customColumnTypes(META_COLUMN_TYPES)
+        .isBindParameters(options.isBindParameters())
+        .build();
+  }
+
   default Builder getMetaQueryResult(
       Object minKey, Object maxKey, Long numberReturned, Long numberMatched, Long numberSkipped) {
     return new ImmutableSqlRowMeta.Builder()
@@ -25,6 +25,8 @@ public interface SqlDialect {
 
   String applyToWkt(String column, boolean forcePolygonCCW, boolean linearizeCurves);
 
+  String applyToWkb(String column, boolean forcePolygonCCW, boolean linearizeCurves);
+
   String applyToWkt(String wkt, int srid);
 
   String applyToExtent(String column, boolean is3d);
@@ -77,12 +79,36 @@ public interface SqlDialect {
     return String.format(" OFFSET %d", offset);
   }
 
+  default String applyToLimitAndOffsetParameter(String limit, String offset) {
+    return applyToLimitParameter(limit) + applyToOffsetParameter(offset);
+  }
+
+  default String applyToLimitParameter(String limit) {
+    return String.format(" LIMIT %s", limit);
+  }
+
+  default String applyToOffsetParameter(String offset) {
+    return String.format(" OFFSET %s", offset);
+  }
+
+  default String applyToWktParameter(String wkt, int srid) {
+    return String.format("ST_GeomFromText(%s,%s)", wkt, srid);
+  }
+
   default String applyToNoTable(String select) {
     return select;
   }
 
   String castToBigInt(int value);
 
+  /**
+   * @return a select that returns the estimated number of rows of the given table as
+   *     `numberMatched`, empty if estimates are not supported
+   */
+  default Optional<String> applyToEstimatedCount(String table) {
+    return Optional.empty();
+  }
+
   Optional<BoundingBox> parseExtent(String extent, EpsgCrs crs);
 
   Optional<Interval> parseTemporalExtent(String start, String end);
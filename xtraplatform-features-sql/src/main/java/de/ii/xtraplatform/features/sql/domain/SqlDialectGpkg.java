@@ -34,6 +34,14 @@ public class SqlDialectGpkg implements SqlDialect {
     return String.format("ST_AsText(ST_ForcePolygonCCW(%s))", column);
   }
 
+  @Override
+  public String applyToWkb(String column, boolean forcePolygonCCW, boolean linearizeCurves) {
+    if (!forcePolygonCCW) {
+      return String.format("ST_AsBinary(%s)", column);
+    }
+    return String.format("ST_AsBinary(ST_ForcePolygonCCW(%s))", column);
+  }
+
   @Override
   public String applyToWkt(String wkt, int srid) {
     return String.format("ST_GeomFromText('%s',%s)", wkt, srid);
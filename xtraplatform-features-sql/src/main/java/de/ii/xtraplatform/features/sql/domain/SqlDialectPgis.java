@@ -49,7 +49,17 @@ public class SqlDialectPgis implements SqlDialect {
 
   @Override
   public String applyToWkt(String column, boolean forcePolygonCCW, boolean linearizeCurves) {
-    StringBuilder queryBuilder = new StringBuilder("ST_AsText(");
+    return applyToGeometry("ST_AsText", column, forcePolygonCCW, linearizeCurves);
+  }
+
+  @Override
+  public String applyToWkb(String column, boolean forcePolygonCCW, boolean linearizeCurves) {
+    return applyToGeometry("ST_AsBinary", column, forcePolygonCCW, linearizeCurves);
+  }
+
+  private static String applyToGeometry(
+      String function, String column, boolean forcePolygonCCW, boolean linearizeCurves) {
+    StringBuilder queryBuilder = new StringBuilder(function).append("(");
     if (linearizeCurves) {
       queryBuilder.append("ST_CurveToLine(");
     }
@@ -81,6 +91,16 @@ public class SqlDialectPgis implements SqlDialect {
     return String.format("%d::bigint", value);
   }
 
+  // reltuples is -1 if the table was never analyzed, the count is then reported as unknown; the
+  // name is resolved like in the other queries, to_regclass returns null for unknown tables
+  @Override
+  public Optional<String> applyToEstimatedCount(String table) {
+    return Optional.of(
+        String.format(
+            "SELECT coalesce((SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass('%s')), -1) AS numberMatched",
+            table.replace("'", "''")));
+  }
+
   @Override
   public Optional<BoundingBox> parseExtent(String extent, EpsgCrs crs) {
     if (Objects.isNull(extent)) {
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.xtraplatform.features.sql.domain;
+
+import de.ii.xtraplatform.features.domain.Tuple;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Values that should be passed as bind parameters instead of literals are embedded in the
+ * generated SQL as markers, so the query templates can still be composed as strings. Before
+ * execution, {@link #extract(String)} replaces every marker with a placeholder and returns the
+ * values in the order of the placeholders. This is only done for queries that were generated with
+ * bind parameters, see {@link SqlQueryOptions#isBindParameters()}.
+ *
+ * <p>String values are Base64 encoded inside the markers. Literals that are inlined into the SQL
+ * must not contain the marker characters, see {@link #containsMarkers(String)}.
+ */
+public final class SqlParameters {
+
+  private static final char START = '\u0001';
+  private static final char END = '\u0002';
+  private static final char LONG = 'L';
+  private static final char DOUBLE = 'D';
+  private static final char DECIMAL = 'N';
+  private static final char STRING = 'S';
+  private static final char TIMESTAMP = 'T';
+
+  private SqlParameters() {}
+
+  public static boolean isBindable(Object value) {
+    return value instanceof String
+        || value instanceof Long
+        || value instanceof Integer
+        || value instanceof Short
+        || value instanceof Double
+        || value instanceof Float
+        || value instanceof BigDecimal
+        || value instanceof Timestamp;
+  }
+
+  public static String bind(Object value) {
+    if (!isBindable(value)) {
+      throw new IllegalArgumentException(
+          String.format("Value cannot be used as bind parameter: %s", value));
+    }
+
+    return new StringBuilder()
+        .append(START)
+        .append(getType(value))
+        .append(value instanceof String ? encode((String) value) : value)
+        .append(END)
+        .toString();
+  }
+
+  public static boolean containsMarkers(String value) {
+    return value.indexOf(START) >= 0 || value.indexOf(END) >= 0;
+  }
+
+  /**
+   * @return the SQL with a placeholder for every marker and the bind values in order
+   */
+  public static Tuple<String, List<Object>> extract(String sql) {
+    StringBuilder parameterized = new StringBuilder(sql.length());
+    List<Object> values = new ArrayList<>();
+    int position = 0;
+
+    while (position < sql.length()) {
+      int start = sql.indexOf(START, position);
+      int end = start < 0 ? -1 : sql.indexOf(END, start);
+
+      if (start < 0 || end < 0) {
+        parameterized.append(sql, position, sql.length());
+        break;
+      }
+
+      parameterized.append(sql, position, start).append('?');
+      values.add(parse(sql.charAt(start + 1), sql.substring(start + 2, end)));
+      position = end + 1;
+    }
+
+    return Tuple.of(parameterized.toString(), values);
+  }
+
+  private static char getType(Object value) {
+    if (value instanceof Long || value instanceof Integer || value instanceof Short) {
+      return LONG;
+    }
+    if (value instanceof Double || value instanceof Float) {
+      return DOUBLE;
+    }
+    if (value instanceof BigDecimal) {
+      return DECIMAL;
+    }
+    if (value instanceof Timestamp) {
+      return TIMESTAMP;
+    }
+    return STRING;
+  }
+
+  private static Object parse(char type, String value) {
+    switch (type) {
+      case LONG:
+        return Long.parseLong(value);
+      case DOUBLE:
+        return Double.parseDouble(value);
+      case DECIMAL:
+        return new BigDecimal(value);
+      case TIMESTAMP:
+        return Timestamp.valueOf(value);
+      default:
+        return decode(value);
+    }
+  }
+
+  private static String encode(String value) {
+    return Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String decode(String value) {
+    return new String(Base64.getDecoder().decode(value), StandardCharsets.UTF_8);
+  }
+}
@@ -64,6 +64,20 @@ public interface SqlQueryOptions extends FeatureProviderConnector.QueryOptions {
     return false;
   }
 
+  @Value.Default
+  default boolean isGeometryAsWkb() {
+    return false;
+  }
+
+  /**
+   * If true, the values marked with {@link SqlParameters} are passed as bind parameters, otherwise
+   * the query is executed as is.
+   */
+  @Value.Default
+  default boolean isBindParameters() {
+    return false;
+  }
+
   @Value.Default
   default int getContainerPriority() {
     return 0;
@@ -110,7 +124,14 @@ public interface SqlQueryOptions extends FeatureProviderConnector.QueryOptions {
             attributesContainer ->
                 attributesContainer.getProperties().stream()
                     .filter(SchemaBase::isValue)
-                    .forEach(attribute -> columnTypes.add(String.class)));
+                    .forEach(
+                        attribute ->
+                            columnTypes.add(
+                                isGeometryAsWkb()
+                                        && attribute.isSpatial()
+                                        && !attribute.isExpression()
+                                    ? byte[].class
+                                    : String.class)));
 
     columnTypes.addAll(getCustomColumnTypes());
 
@@ -24,4 +24,13 @@ public interface SqlQuerySet {
   List<SchemaSql> getTableSchemas();
 
   SqlQueryOptions getOptions();
+
+  /**
+   * Is called with every meta query result and the number of rows skipped before the query, the
+   * returned result replaces the original one.
+   */
+  @Value.Default
+  default BiFunction<SqlRowMeta, Long, SqlRowMeta> getMetaResultHandler() {
+    return (metaResult, skipped) -> metaResult;
+  }
 }
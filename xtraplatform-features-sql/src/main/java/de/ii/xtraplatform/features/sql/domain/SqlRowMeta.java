@@ -7,7 +7,9 @@
  */
 package de.ii.xtraplatform.features.sql.domain;
 
+import de.ii.xtraplatform.features.domain.NumberMatchedStrategy;
 import java.util.List;
+import java.util.Optional;
 import java.util.OptionalLong;
 import javax.annotation.Nullable;
 import org.immutables.value.Value;
@@ -25,6 +27,8 @@ public interface SqlRowMeta extends SqlRow {
 
   OptionalLong getNumberMatched();
 
+  Optional<NumberMatchedStrategy> getNumberMatchedStrategy();
+
   OptionalLong getNumberSkipped();
 
   List<Object> getCustomMinKeys();
@@ -0,0 +1,307 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.xtraplatform.features.sql.infra.db;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * Merges k publishers that emit sorted elements into a single sorted stream. The current head of
+ * every source is kept in a priority queue, so every element needs O(log k) comparisons instead of
+ * the up to k - 1 comparisons of chained pairwise merges. Elements that are equal are emitted in
+ * the order of the sources.
+ *
+ * <p>Every source is requested in batches of {@code prefetch} elements, the next batch is requested
+ * when three quarters of the previous one were emitted. Elements are only emitted as requested
+ * downstream, so a slow consumer slows down all sources.
+ */
+final class MergeSortedPublisher<T> implements Publisher<T> {
+
+  private final List<? extends Publisher<? extends T>> sources;
+  private final Comparator<? super T> comparator;
+  private final int prefetch;
+
+  MergeSortedPublisher(
+      List<? extends Publisher<? extends T>> sources,
+      Comparator<? super T> comparator,
+      int prefetch) {
+    this.sources = sources;
+    this.comparator = comparator;
+    this.prefetch = prefetch;
+  }
+
+  @Override
+  public void subscribe(Subscriber<? super T> subscriber) {
+    Coordinator<T> coordinator =
+        new Coordinator<>(subscriber, sources.size(), comparator, prefetch);
+
+    subscriber.onSubscribe(coordinator);
+    coordinator.subscribe(sources);
+  }
+
+  static final class Coordinator<T> implements Subscription {
+
+    private final Subscriber<? super T> downstream;
+    private final List<Inner<T>> inners;
+    private final Object[] heads;
+    private final boolean[] exhausted;
+    private final PriorityQueue<Integer> heap;
+    private final int[] missing;
+    private final AtomicLong requested;
+    private final AtomicInteger wip;
+    private final AtomicReference<Throwable> error;
+    private int missingCount;
+    private int active;
+    private volatile boolean cancelled;
+
+    @SuppressWarnings("unchecked")
+    Coordinator(
+        Subscriber<? super T> downstream,
+        int size,
+        Comparator<? super T> comparator,
+        int prefetch) {
+      this.downstream = downstream;
+      this.inners = new ArrayList<>(size);
+      this.heads = new Object[size];
+      this.exhausted = new boolean[size];
+      this.heap =
+          new PriorityQueue<>(
+              Math.max(1, size),
+              Comparator.<Integer, T>comparing(i -> (T) heads[i], comparator)
+                  .thenComparingInt(i -> i));
+      this.missing = new int[size];
+      this.requested = new AtomicLong();
+      this.wip = new AtomicInteger();
+      this.error = new AtomicReference<>();
+
+      for (int i = 0; i < size; i++) {
+        inners.add(new Inner<>(this, prefetch));
+        missing[i] = i;
+      }
+      this.missingCount = size;
+      this.active = size;
+    }
+
+    void subscribe(List<? extends Publisher<? extends T>> sources) {
+      for (int i = 0; i < sources.size() && !cancelled; i++) {
+        sources.get(i).subscribe(inners.get(i));
+      }
+      drain();
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        onError(new IllegalArgumentException("Request amount must be positive: " + n));
+        return;
+      }
+      requested.getAndAccumulate(
+          n, (current, add) -> current + add < 0 ? Long.MAX_VALUE : current + add);
+      drain();
+    }
+
+    @Override
+    public void cancel() {
+      if (!cancelled) {
+        this.cancelled = true;
+        cancelAll();
+        if (wip.getAndIncrement() == 0) {
+          clear();
+        }
+      }
+    }
+
+    void onError(Throwable throwable) {
+      if (setError(throwable)) {
+        drain();
+      }
+    }
+
+    boolean setError(Throwable throwable) {
+      return error.compareAndSet(null, throwable);
+    }
+
+    private void cancelAll() {
+      inners.forEach(Inner::cancel);
+    }
+
+    private void clear() {
+      inners.forEach(inner -> inner.queue.clear());
+      heap.clear();
+      for (int i = 0; i < heads.length; i++) {
+        heads[i] = null;
+      }
+    }
+
+    // only one thread at a time is in the loop, all other callers just increment wip
+    @SuppressWarnings("unchecked")
+    void drain() {
+      if (wip.getAndIncrement() != 0) {
+        return;
+      }
+
+      int missed = 1;
+
+      for (; ; ) {
+        long r = requested.get();
+        long emitted = 0;
+
+        for (; ; ) {
+          if (cancelled) {
+            clear();
+            return;
+          }
+
+          Throwable throwable = error.get();
+          if (Objects.nonNull(throwable)) {
+            this.cancelled = true;
+            cancelAll();
+            clear();
+            downstream.onError(throwable);
+            return;
+          }
+
+          int stillMissing = 0;
+          for (int m = 0; m < missingCount; m++) {
+            int i = missing[m];
+            Inner<T> inner = inners.get(i);
+            boolean done = inner.done;
+            T next = inner.queue.poll();
+
+            if (Objects.nonNull(next)) {
+              heads[i] = next;
+              heap.offer(i);
+            } else if (done) {
+              exhausted[i] = true;
+              active--;
+            } else {
+              missing[stillMissing++] = i;
+            }
+          }
+          this.missingCount = stillMissing;
+
+          if (active == 0 && heap.isEmpty()) {
+            // a source might have failed while the missing heads were polled
+            if (Objects.nonNull(error.get())) {
+              continue;
+            }
+            this.cancelled = true;
+            downstream.onComplete();
+            return;
+          }
+
+          // the smallest element is only known when every active source has a head
+          if (missingCount > 0 || emitted == r) {
+            break;
+          }
+
+          int i = heap.poll();
+          T next = (T) heads[i];
+          heads[i] = null;
+          missing[missingCount++] = i;
+
+          downstream.onNext(next);
+          inners.get(i).consumed();
+          emitted++;
+        }
+
+        if (emitted != 0 && r != Long.MAX_VALUE) {
+          requested.addAndGet(-emitted);
+        }
+
+        missed = wip.addAndGet(-missed);
+        if (missed == 0) {
+          break;
+        }
+      }
+    }
+  }
+
+  static final class Inner<T> implements Subscriber<T> {
+
+    private static final Subscription CANCELLED =
+        new Subscription() {
+          @Override
+          public void request(long n) {}
+
+          @Override
+          public void cancel() {}
+        };
+
+    private final Coordinator<T> parent;
+    private final int prefetch;
+    private final int limit;
+    private final Queue<T> queue;
+    private final AtomicReference<Subscription> upstream;
+    private int consumed;
+    private volatile boolean done;
+
+    Inner(Coordinator<T> parent, int prefetch) {
+      this.parent = parent;
+      this.prefetch = prefetch;
+      this.limit = Math.max(1, prefetch - (prefetch >> 2));
+      this.queue = new ConcurrentLinkedQueue<>();
+      this.upstream = new AtomicReference<>();
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+      if (upstream.compareAndSet(null, subscription)) {
+        subscription.request(prefetch);
+      } else {
+        subscription.cancel();
+      }
+    }
+
+    @Override
+    public void onNext(T next) {
+      queue.offer(next);
+      parent.drain();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      // the error has to be visible before done, otherwise the source might be taken as complete
+      parent.setError(throwable);
+      this.done = true;
+      parent.drain();
+    }
+
+    @Override
+    public void onComplete() {
+      this.done = true;
+      parent.drain();
+    }
+
+    // only called from the drain loop
+    void consumed() {
+      if (++consumed == limit) {
+        this.consumed = 0;
+        upstream.get().request(limit);
+      }
+    }
+
+    void cancel() {
+      Subscription subscription = upstream.getAndSet(CANCELLED);
+      if (Objects.nonNull(subscription)) {
+        subscription.cancel();
+      }
+    }
+  }
+}
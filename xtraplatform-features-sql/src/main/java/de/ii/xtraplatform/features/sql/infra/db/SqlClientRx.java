@@ -15,10 +15,12 @@ import de.ii.xtraplatform.features.sql.app.FeatureSql;
 import de.ii.xtraplatform.features.sql.domain.SqlClient;
 import de.ii.xtraplatform.features.sql.domain.SqlDbmsAdapter;
 import de.ii.xtraplatform.features.sql.domain.SqlDialect;
+import de.ii.xtraplatform.features.sql.domain.SqlParameters;
 import de.ii.xtraplatform.features.sql.domain.SqlQueryOptions;
 import de.ii.xtraplatform.features.sql.domain.SqlRow;
 import de.ii.xtraplatform.streams.domain.Reactive;
 import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.disposables.Disposable;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -26,6 +28,7 @@ import java.text.Collator;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -34,6 +37,7 @@ import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import org.davidmoten.rxjava3.jdbc.Database;
 import org.davidmoten.rxjava3.jdbc.Tx;
@@ -46,6 +50,7 @@ import org.slf4j.LoggerFactory;
 public class SqlClientRx implements SqlClient {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(SqlClientRx.class);
+  private static final int MERGE_PREFETCH = 256;
 
   private final Database session;
   private final SqlDbmsAdapter dbmsAdapter;
@@ -60,35 +65,67 @@ public class SqlClientRx implements SqlClient {
   }
 
   @Override
-  public CompletableFuture<Collection<SqlRow>> run(String query, SqlQueryOptions options) {
-    if (LOGGER.isDebugEnabled(MARKER.SQL)) {
-      LOGGER.debug(MARKER.SQL, "Executing statement: {}", query);
-    }
+  public CompletableFuture<Collection<SqlRow>> run(String sql, SqlQueryOptions options) {
+    Tuple<String, List<Object>> statement = toStatement(sql, options);
+    String query = statement.first();
+    List<Object> parameters = statement.second();
     CompletableFuture<Collection<SqlRow>> result = new CompletableFuture<>();
 
     if (options.getColumnTypes().isEmpty()) {
       session
           .update(query)
+          .parameterList(parameters)
           .complete()
           .subscribe(() -> result.complete(ImmutableList.of()), result::completeExceptionally);
 
       return result;
     }
 
-    session
-        .select(query)
-        .get(resultSet -> new SqlRowVals(collator).read(resultSet, options))
-        .toList()
-        .subscribe(result::complete, result::completeExceptionally);
+    Disposable subscription =
+        session
+            .select(query)
+            .parameterList(parameters)
+            .get(resultSet -> new SqlRowVals(collator).read(resultSet, options))
+            .toList()
+            .subscribe(result::complete, result::completeExceptionally);
+
+    // cancelling the result stops the query and returns the connection to the pool
+    result.whenComplete(
+        (rows, throwable) -> {
+          if (result.isCancelled()) {
+            subscription.dispose();
+          }
+        });
 
     return result;
   }
 
   @Override
-  public Reactive.Source<SqlRow> getSourceStream(String query, SqlQueryOptions options) {
-    if (LOGGER.isDebugEnabled(MARKER.SQL)) {
-      LOGGER.debug(MARKER.SQL, "Executing statement: {}", query);
+  public Reactive.Source<SqlRow> getSourceStream(String sql, SqlQueryOptions options) {
+    return Reactive.Source.publisher(getFlowable(sql, options));
+  }
+
+  @Override
+  public Reactive.Source<SqlRow> getSourceStreamSorted(
+      List<String> queries, List<SqlQueryOptions> options) {
+    if (queries.size() == 1) {
+      return getSourceStream(queries.get(0), options.get(0));
     }
+
+    List<Flowable<SqlRow>> flowables =
+        IntStream.range(0, queries.size())
+            .mapToObj(i -> getFlowable(queries.get(i), options.get(i)))
+            .collect(Collectors.toList());
+
+    return Reactive.Source.publisher(
+        Flowable.fromPublisher(
+            new MergeSortedPublisher<>(flowables, Comparator.naturalOrder(), MERGE_PREFETCH)));
+  }
+
+  private Flowable<SqlRow> getFlowable(String sql, SqlQueryOptions options) {
+    Tuple<String, List<Object>> statement = toStatement(sql, options);
+    String query = statement.first();
+    List<Object> parameters = statement.second();
     List<SqlRow> logBuffer = new ArrayList<>(5);
 
     // TODO encapsulating the query in a transaction is a workaround for what appears to be a bug in
@@ -96,6 +133,7 @@ public class SqlClientRx implements SqlClient {
     Flowable<SqlRow> flowable =
         session
             .select(query)
+            .parameterList(parameters)
             .get(
                 resultSet -> {
                   SqlRow row = new SqlRowVals(collator).read(resultSet, options);
@@ -136,7 +174,31 @@ public class SqlClientRx implements SqlClient {
               });
     }
 
-    return Reactive.Source.publisher(flowable);
+    return flowable;
+  }
+
+  /**
+   * Queries with bind parameters are executed as prepared statements with the same SQL for all
+   * parameter values. The JDBC driver keeps the server-side statements in a bounded cache per
+   * connection, so repeated queries do not have to be parsed and planned again.
+   */
+  private Tuple<String, List<Object>> toStatement(String sql, SqlQueryOptions options) {
+    Tuple<String, List<Object>> statement =
+        options.isBindParameters() ? SqlParameters.extract(sql) : Tuple.of(sql, List.of());
+
+    if (LOGGER.isDebugEnabled(MARKER.SQL)) {
+      if (statement.second().isEmpty()) {
+        LOGGER.debug(MARKER.SQL, "Executing statement: {}", statement.first());
+      } else {
+        LOGGER.debug(
+            MARKER.SQL,
+            "Executing statement: {}\n  Parameters: {}",
+            statement.first(),
+            statement.second());
+      }
+    }
+
+    return statement;
   }
 
   @Override
@@ -37,6 +37,7 @@ import de.ii.xtraplatform.features.sql.domain.SqlQueryBatch;
 import de.ii.xtraplatform.features.sql.domain.SqlQueryOptions;
 import de.ii.xtraplatform.features.sql.domain.SqlRow;
 import de.ii.xtraplatform.streams.domain.Reactive.Source;
+import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.plugins.RxJavaPlugins;
 import java.nio.file.Path;
 import java.sql.Connection;
@@ -48,6 +49,8 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import org.davidmoten.rxjava3.jdbc.Database;
@@ -71,6 +74,7 @@ public class SqlConnectorRx extends AbstractVolatilePolling implements SqlConnec
   private final HealthCheckRegistry healthCheckRegistry;
   private final int maxConnections;
   private final int minConnections;
+  private final Semaphore metaQueryPrefetchPermits;
   private final int queueSize;
   private final Path dataDir;
   private final String applicationName;
@@ -105,6 +109,8 @@ public class SqlConnectorRx extends AbstractVolatilePolling implements SqlConnec
         connectionInfo.getPool().getMinConnections() >= 0
             ? connectionInfo.getPool().getMinConnections()
             : maxConnections;
+    // at most half of the pool may be used for meta queries that are started ahead
+    this.metaQueryPrefetchPermits = new Semaphore(maxConnections / 2);
 
     // int capacity = maxConnections / maxQueries;
     // TODO
@@ -420,6 +426,16 @@ public class SqlConnectorRx extends AbstractVolatilePolling implements SqlConnec
     return SqlConnector.super.getSourceStream(queryBatch, options);
   }
 
+  @Override
+  public Semaphore getMetaQueryPrefetchPermits() {
+    return metaQueryPrefetchPermits;
+  }
+
+  @Override
+  public <T> Source<T> toSource(CompletableFuture<T> result, Runnable onCancel) {
+    return Source.publisher(Flowable.fromCompletionStage(result).doOnCancel(onCancel::run));
+  }
+
   @Override
   public de.ii.xtraplatform.base.domain.util.Tuple<State, String> check() {
     if (Objects.isNull(sqlClient)) {
@@ -21,6 +21,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Time;
 import java.sql.Timestamp;
+import java.text.CollationKey;
 import java.text.Collator;
 import java.util.ArrayList;
 import java.util.List;
@@ -30,7 +31,6 @@ import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-// TODO: extensive unit tests for compareTo
 class SqlRowVals implements SqlRow {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(SqlRowVals.class);
@@ -44,6 +44,7 @@ class SqlRowVals implements SqlRow {
   private SchemaSql tableSchema;
   private Optional<String> type;
   @Nullable private final Collator collator;
+  @Nullable private CollationKey[] collationKeys;
 
   SqlRowVals() {
     this(null);
@@ -211,6 +212,7 @@ class SqlRowVals implements SqlRow {
   void clear() {
     this.values.clear();
     this.ids.clear();
+    this.collationKeys = null;
     this.sortKeyNames = null;
     this.priority = 0;
     this.tableSchema = null;
@@ -224,9 +226,7 @@ class SqlRowVals implements SqlRow {
     }
 
     int commonSortKeys = getNumberOfCommonElements(sortKeyNames, otherSqlRow.getSortKeyNames());
-    int resultSortKeys =
-        compareSortKeys(
-            getSortKeys(), otherSqlRow.getSortKeys(), commonSortKeys, sortKeyDirections, collator);
+    int resultSortKeys = compareSortKeys(otherSqlRow, commonSortKeys);
     int result = resultSortKeys == 0 ? priority - otherSqlRow.getPriority() : resultSortKeys;
 
     if (LOGGER.isTraceEnabled()) {
@@ -256,17 +256,37 @@ class SqlRowVals implements SqlRow {
     return size;
   }
 
-  private static int compareSortKeys(
-      List<Comparable<?>> ids1,
-      List<Comparable<?>> ids2,
-      int numberOfIds,
-      List<Direction> idColumnDirections,
-      Collator collator) {
+  /**
+   * The collation key of a string sort key is created on the first comparison and then reused for
+   * all further comparisons of the row. Comparing collation keys is much cheaper than {@link
+   * Collator#compare(String, String)}, which also synchronizes on the collator shared by all
+   * queries.
+   */
+  private Object getComparableSortKey(int i) {
+    Comparable<?> sortKey = sortKeys.get(i);
+
+    if (Objects.isNull(collator) || !(sortKey instanceof String)) {
+      return sortKey;
+    }
+    if (Objects.isNull(collationKeys)) {
+      this.collationKeys = new CollationKey[sortKeys.size()];
+    }
+    if (Objects.isNull(collationKeys[i])) {
+      collationKeys[i] = collator.getCollationKey((String) sortKey);
+    }
+
+    return collationKeys[i];
+  }
+
+  private int compareSortKeys(SqlRow otherSqlRow, int numberOfIds) {
     for (int i = 0; i < numberOfIds; i++) {
       int result = 0;
-      Comparable<?> id1 = ids1.get(i);
-      Comparable<?> id2 = ids2.get(i);
-      int direction = idColumnDirections.get(i) == Direction.DESCENDING ? -1 : 1;
+      Object id1 = getComparableSortKey(i);
+      Object id2 =
+          otherSqlRow instanceof SqlRowVals
+              ? ((SqlRowVals) otherSqlRow).getComparableSortKey(i)
+              : otherSqlRow.getSortKeys().get(i);
+      int direction = sortKeyDirections.get(i) == Direction.DESCENDING ? -1 : 1;
 
       if (Objects.isNull(id1) && Objects.isNull(id2)) {
         result = 0;
@@ -274,12 +294,10 @@ class SqlRowVals implements SqlRow {
         result = -1;
       } else if (Objects.isNull(id2)) {
         result = 1;
-      } else if (id1 instanceof Integer) {
-        result = ((Integer) id1).compareTo((Integer) id2);
-      } else if (id1 instanceof Long) {
-        result = ((Long) id1).compareTo((Long) id2);
-      } else if (id1 instanceof Short) {
-        result = ((Short) id1).compareTo((Short) id2);
+      } else if (isIntegral(id1) && isIntegral(id2)) {
+        result = Long.compare(((Number) id1).longValue(), ((Number) id2).longValue());
+      } else if (id1 instanceof CollationKey && id2 instanceof CollationKey) {
+        result = ((CollationKey) id1).compareTo((CollationKey) id2);
       } else if (id1 instanceof Double) {
         result = ((Double) id1).compareTo((Double) id2);
       } else if (id1 instanceof BigDecimal) {
@@ -291,7 +309,7 @@ class SqlRowVals implements SqlRow {
       } else if (id1 instanceof Timestamp) {
         result = ((Timestamp) id1).compareTo((Timestamp) id2);
       } else if (Objects.nonNull(collator)) {
-        result = collator.compare((String) id1, (String) id2);
+        result = collator.compare(asString(id1), asString(id2));
       } else {
         result = ((String) id1).compareTo((String) id2);
       }
@@ -302,6 +320,14 @@ class SqlRowVals implements SqlRow {
     return 0;
   }
 
+  private static boolean isIntegral(Object id) {
+    return id instanceof Integer || id instanceof Long || id instanceof Short;
+  }
+
+  private static String asString(Object id) {
+    return id instanceof CollationKey ? ((CollationKey) id).getSourceString() : (String) id;
+  }
+
   @Override
   public String toString() {
     return "SqlRowSlick{"
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.xtraplatform.features.sql.app
+
+import de.ii.xtraplatform.cql.app.CqlImpl
+import de.ii.xtraplatform.cql.domain.Eq
+import de.ii.xtraplatform.cql.domain.ScalarLiteral
+import de.ii.xtraplatform.crs.domain.OgcCrs
+import de.ii.xtraplatform.features.domain.FeatureQuery
+import de.ii.xtraplatform.features.domain.ImmutableFeatureQuery
+import de.ii.xtraplatform.features.domain.NumberMatchedStrategy
+import de.ii.xtraplatform.features.sql.domain.ImmutableQueryGeneratorSettings
+import de.ii.xtraplatform.features.sql.domain.ImmutableSqlRowMeta
+import de.ii.xtraplatform.features.sql.domain.SqlDialectGpkg
+import de.ii.xtraplatform.features.sql.domain.SqlDialectPgis
+import de.ii.xtraplatform.features.sql.domain.SqlQuerySet
+import spock.lang.Shared
+import spock.lang.Specification
+
+class FeatureQueryEncoderSqlSpec extends Specification {
+
+    @Shared
+    FilterEncoderSql filterEncoder = new FilterEncoderSql(OgcCrs.CRS84, new SqlDialectPgis(), null, null, new CqlImpl(), null)
+    @Shared
+    SqlQueryTemplatesDeriver td = new SqlQueryTemplatesDeriver(null, filterEncoder, new SqlDialectPgis(), true, false)
+
+    @Shared
+    FeatureQuery query = ImmutableFeatureQuery.builder().type("externalprovider").build()
+
+    @Shared
+    FeatureQuery filtered = ImmutableFeatureQuery.builder().type("externalprovider").filter(Eq.of("type", ScalarLiteral.of(1))).build()
+
+    def 'numberMatched strategy: #casename'() {
+
+        given:
+
+        FeatureQueryEncoderSql encoder = new FeatureQueryEncoderSql([:], [:], new ImmutableQueryGeneratorSettings.Builder()
+                .numberMatchedStrategy(strategy)
+                .numberMatchedStrategyByType(byType)
+                .build(), dialect)
+
+        when:
+
+        NumberMatchedStrategy actual = encoder.getNumberMatchedStrategy(typeQuery, table.get(0), virtualTables)
+
+        then:
+
+        actual == expected
+
+        where:
+
+        casename                   | strategy                       | byType                                                 | dialect              | typeQuery | table                             | virtualTables                       || expected
+        "exact"                    | NumberMatchedStrategy.EXACT    | [:]                                                    | new SqlDialectPgis() | query     | QuerySchemaFixtures.SIMPLE        | [:]                                 || NumberMatchedStrategy.EXACT
+        "cached"                   | NumberMatchedStrategy.CACHED   | [:]                                                    | new SqlDialectPgis() | filtered  | QuerySchemaFixtures.SIMPLE        | [:]                                 || NumberMatchedStrategy.CACHED
+        "none"                     | NumberMatchedStrategy.NONE     | [:]                                                    | new SqlDialectPgis() | query     | QuerySchemaFixtures.SIMPLE        | [:]                                 || NumberMatchedStrategy.NONE
+        "estimate"                 | NumberMatchedStrategy.ESTIMATE | [:]                                                    | new SqlDialectPgis() | query     | QuerySchemaFixtures.SIMPLE        | [:]                                 || NumberMatchedStrategy.ESTIMATE
+        "estimate, query filter"   | NumberMatchedStrategy.ESTIMATE | [:]                                                    | new SqlDialectPgis() | filtered  | QuerySchemaFixtures.SIMPLE        | [:]                                 || NumberMatchedStrategy.CACHED
+        "estimate, table filter"   | NumberMatchedStrategy.ESTIMATE | [:]                                                    | new SqlDialectPgis() | query     | QuerySchemaFixtures.SIMPLE_FILTER | [:]                                 || NumberMatchedStrategy.CACHED
+        "estimate, virtual table"  | NumberMatchedStrategy.ESTIMATE | [:]                                                    | new SqlDialectPgis() | query     | QuerySchemaFixtures.SIMPLE        | ["externalprovider": "(SELECT 1)"] || NumberMatchedStrategy.CACHED
+        "estimate, no statistics"  | NumberMatchedStrategy.ESTIMATE | [:]                                                    | new SqlDialectGpkg() | query     | QuerySchemaFixtures.SIMPLE        | [:]                                 || NumberMatchedStrategy.CACHED
+        "by type"                  | NumberMatchedStrategy.EXACT    | ["externalprovider": NumberMatchedStrategy.NONE]       | new SqlDialectPgis() | query     | QuerySchemaFixtures.SIMPLE        | [:]                                 || NumberMatchedStrategy.NONE
+        "by type, other type"      | NumberMatchedStrategy.EXACT    | ["other": NumberMatchedStrategy.NONE]                  | new SqlDialectPgis() | query     | QuerySchemaFixtures.SIMPLE        | [:]                                 || NumberMatchedStrategy.EXACT
+        "by type, estimate filter" | NumberMatchedStrategy.NONE     | ["externalprovider": NumberMatchedStrategy.ESTIMATE]   | new SqlDialectPgis() | filtered  | QuerySchemaFixtures.SIMPLE        | [:]                                 || NumberMatchedStrategy.CACHED
+    }
+
+    def 'keyset paging seeks to the last key of a returned page'() {
+
+        given:
+
+        FeatureQueryEncoderSql encoder = new FeatureQueryEncoderSql(["externalprovider": [QuerySchemaFixtures.SIMPLE.get(0).accept(td)]], [:], new ImmutableQueryGeneratorSettings.Builder()
+                .keysetPaging(true)
+                .build(), new SqlDialectPgis())
+
+        when: "the first page at offset 10 is requested"
+
+        SqlQuerySet page2 = querySet(encoder, 10)
+
+        then: "there is no checkpoint yet"
+
+        page2.getMetaQuery().apply(10L, 0L) == Optional.of(SqlQueryTemplatesFixtures.META)
+
+        when: "the page ends with key 19 and the next page is requested"
+
+        page2.getMetaResultHandler().apply(meta(10, 19L), 0L)
+        SqlQuerySet page3 = querySet(encoder, 20)
+
+        then: "the query seeks to the key instead of skipping"
+
+        page3.getMetaQuery().apply(10L, 0L) == Optional.of(SqlQueryTemplatesFixtures.META.replace("A ORDER BY SKEY LIMIT 10 OFFSET 10", "A WHERE A.id > 19 ORDER BY SKEY LIMIT 10"))
+
+        when: "a page behind the checkpoint is requested"
+
+        SqlQuerySet page4 = querySet(encoder, 30)
+
+        then: "the query seeks to the key and skips the rest"
+
+        page4.getMetaQuery().apply(10L, 0L) == Optional.of(SqlQueryTemplatesFixtures.META.replace("A ORDER BY SKEY LIMIT 10 OFFSET 10", "A WHERE A.id > 19 ORDER BY SKEY LIMIT 10 OFFSET 10"))
+
+        when: "the data of the type changes"
+
+        encoder.invalidate("externalprovider")
+        SqlQuerySet page3Again = querySet(encoder, 20)
+
+        then: "the query skips all rows again"
+
+        page3Again.getMetaQuery().apply(10L, 0L) == Optional.of(SqlQueryTemplatesFixtures.META.replace("OFFSET 10", "OFFSET 20"))
+    }
+
+    static SqlQuerySet querySet(FeatureQueryEncoderSql encoder, int offset) {
+        return encoder.encode(ImmutableFeatureQuery.builder().type("externalprovider").limit(10).offset(offset).build(), [:]).getQuerySets().get(0)
+    }
+
+    static ImmutableSqlRowMeta meta(long numberReturned, Object maxKey) {
+        return new ImmutableSqlRowMeta.Builder()
+                .name("externalprovider")
+                .minKey(0L)
+                .maxKey(maxKey)
+                .numberReturned(numberReturned)
+                .build()
+    }
+
+}
@@ -11,7 +11,9 @@ import de.ii.xtraplatform.base.domain.resiliency.VolatileRegistry
 import de.ii.xtraplatform.blobs.domain.ResourceStore
 import de.ii.xtraplatform.cql.app.CqlFilterExamples
 import de.ii.xtraplatform.cql.app.CqlImpl
+import de.ii.xtraplatform.cql.domain.Eq
 import de.ii.xtraplatform.cql.domain.Not
+import de.ii.xtraplatform.cql.domain.ScalarLiteral
 import de.ii.xtraplatform.crs.domain.CrsTransformerFactory
 import de.ii.xtraplatform.crs.domain.OgcCrs
 import de.ii.xtraplatform.crs.infra.CrsTransformerFactoryProj
@@ -361,6 +363,22 @@ class FilterEncoderSqlSpec extends Specification {
 
     }
 
+    def 'string literal with bind parameter markers'() {
+
+        given:
+        def instanceContainer = QuerySchemaFixtures.SIMPLE_INTERVAL
+        def filter = Eq.of("owner", ScalarLiteral.of("\u0001L42\u0002"))
+
+        when:
+
+        filterEncoder.encode(filter, instanceContainer)
+
+        then:
+
+        thrown(IllegalArgumentException)
+
+    }
+
     def 'casei test'() {
 
         given:
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.xtraplatform.features.sql.app
+
+import de.ii.xtraplatform.features.domain.FeatureEventHandler
+import de.ii.xtraplatform.features.domain.ModifiableGenericContext
+import spock.lang.Specification
+
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+
+class GeometryDecoderWkbSpec extends Specification {
+
+    def 'same events as WKT: #casename'() {
+
+        when:
+
+        List<String> actual = decode { handler, context -> new GeometryDecoderWkb(handler, context).decode(wkb) }
+        List<String> expected = decode { handler, context -> new GeometryDecoderWkt(handler, context).decode(wkt) }
+
+        then:
+
+        actual == expected
+
+        where:
+
+        casename                   | wkt                                                                 | wkb
+        "point"                    | "POINT(10 20.5)"                                                    | wkb(ByteOrder.LITTLE_ENDIAN, 1, [10, 20.5])
+        "point z, big endian"      | "POINT Z(10 20.5 3)"                                                | wkb(ByteOrder.BIG_ENDIAN, 1001, [10, 20.5, 3])
+        "linestring"               | "LINESTRING(0 0,1.25 1,2 -2)"                                       | wkb(ByteOrder.LITTLE_ENDIAN, 2, [3, 0, 0, 1.25, 1, 2, -2])
+        "polygon with hole"        | "POLYGON((0 0,10 0,10 10,0 0),(1 1,2 1,2 2,1 1))"                   | wkb(ByteOrder.LITTLE_ENDIAN, 3, [2, 4, 0, 0, 10, 0, 10, 10, 0, 0, 4, 1, 1, 2, 1, 2, 2, 1, 1])
+        "multipoint"               | "MULTIPOINT((0 0),(1 1))"                                           | multi(4, [wkb(ByteOrder.LITTLE_ENDIAN, 1, [0, 0]), wkb(ByteOrder.BIG_ENDIAN, 1, [1, 1])])
+        "multilinestring"          | "MULTILINESTRING((0 0,1 1),(2 2,3 3))"                              | multi(5, [wkb(ByteOrder.LITTLE_ENDIAN, 2, [2, 0, 0, 1, 1]), wkb(ByteOrder.LITTLE_ENDIAN, 2, [2, 2, 2, 3, 3])])
+        "multipolygon"             | "MULTIPOLYGON(((0 0,1 0,1 1,0 0)),((5 5,6 5,6 6,5 5)))"             | multi(6, [wkb(ByteOrder.LITTLE_ENDIAN, 3, [1, 4, 0, 0, 1, 0, 1, 1, 0, 0]), wkb(ByteOrder.LITTLE_ENDIAN, 3, [1, 4, 5, 5, 6, 5, 6, 6, 5, 5])])
+        "multipoint z"             | "MULTIPOINT Z((0 0 1),(1 1 2))"                                     | multi(1004, [wkb(ByteOrder.LITTLE_ENDIAN, 1001, [0, 0, 1]), wkb(ByteOrder.LITTLE_ENDIAN, 1001, [1, 1, 2])])
+        "ewkb polygon z with srid" | "POLYGON Z((0 0 1,1 0 1,1 1 1,0 0 1))"                              | ewkbWithSrid(3, 4326, [1, 4, 0, 0, 1, 1, 0, 1, 1, 1, 1, 0, 0, 1])
+        "large ordinates"          | "POINT(32500000.25 -5800000.5)"                                     | wkb(ByteOrder.LITTLE_ENDIAN, 1, [32500000.25d, -5800000.5d])
+        "small ordinates"          | "POINT(0.0001 -0.00000125)"                                         | wkb(ByteOrder.LITTLE_ENDIAN, 1, [0.0001d, -0.00000125d])
+    }
+
+    def 'multi geometry members that do not match the parent: #casename'() {
+
+        when:
+
+        decode { handler, context -> new GeometryDecoderWkb(handler, context).decode(wkb) }
+
+        then:
+
+        thrown(IOException)
+
+        where:
+
+        casename               | wkb
+        "member without z"     | multi(1004, [wkb(ByteOrder.LITTLE_ENDIAN, 1001, [0, 0, 1]), wkb(ByteOrder.LITTLE_ENDIAN, 1, [1, 1])])
+        "member with z"        | multi(4, [wkb(ByteOrder.LITTLE_ENDIAN, 1, [0, 0]), wkb(ByteOrder.LITTLE_ENDIAN, 1001, [1, 1, 2])])
+        "member of wrong type" | multi(4, [wkb(ByteOrder.LITTLE_ENDIAN, 2, [2, 0, 0, 1, 1])])
+    }
+
+    def 'ordinates without exponent: #value'() {
+
+        when:
+
+        List<String> actual = decode { handler, context -> new GeometryDecoderWkb(handler, context).decode(wkb(ByteOrder.LITTLE_ENDIAN, 1, [value, 0])) }
+
+        then:
+
+        actual.contains("value ${expected} 0".toString())
+
+        where:
+
+        value               | expected
+        1.0E7d              | "10000000"
+        12345678.9d         | "12345678.9"
+        -9.87654321012E10d  | "-98765432101.2"
+        1.0E16d             | "10000000000000000"
+        0.001d              | "0.001"
+        9.99E-4d            | "0.000999"
+        -1.5E-10d           | "-0.00000000015"
+    }
+
+    List<String> decode(Closure decoder) {
+        List<String> events = []
+        FeatureEventHandler handler = Stub()
+        handler.onObjectStart(_) >> { FeatureEventHandler.ModifiableContext context -> events << "objectStart ${context.geometryType().get()} ${context.geometryDimension().getAsInt()}".toString() }
+        handler.onObjectEnd(_) >> { events << "objectEnd" }
+        handler.onArrayStart(_) >> { events << "arrayStart" }
+        handler.onArrayEnd(_) >> { events << "arrayEnd" }
+        handler.onValue(_) >> { FeatureEventHandler.ModifiableContext context -> events << "value ${context.value()}".toString() }
+
+        decoder(handler, ModifiableGenericContext.create())
+
+        return events
+    }
+
+    static byte[] wkb(ByteOrder byteOrder, int type, List<Number> content) {
+        ByteBuffer buffer = ByteBuffer.allocate(1024).order(byteOrder)
+        buffer.put((byte) (byteOrder == ByteOrder.BIG_ENDIAN ? 0 : 1))
+        buffer.putInt(type)
+        putContent(buffer, type % 1000, type >= 1000 ? 3 : 2, content)
+        return trim(buffer)
+    }
+
+    static byte[] ewkbWithSrid(int type, int srid, List<Number> content) {
+        ByteBuffer buffer = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN)
+        buffer.put((byte) 1)
+        // EWKB flags for Z and SRID
+        buffer.putInt(type | (int) 0xA0000000L)
+        buffer.putInt(srid)
+        putContent(buffer, type, 3, content)
+        return trim(buffer)
+    }
+
+    static byte[] multi(int type, List<byte[]> geometries) {
+        ByteBuffer buffer = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN)
+        buffer.put((byte) 1)
+        buffer.putInt(type)
+        buffer.putInt(geometries.size())
+        geometries.each { buffer.put(it) }
+        return trim(buffer)
+    }
+
+    // content is a flat list of point and ring counts followed by their ordinates, in WKB order
+    static void putContent(ByteBuffer buffer, int type, int dimension, List<Number> content) {
+        Iterator<Number> values = content.iterator()
+        Closure points = { int n -> (n * dimension).times { buffer.putDouble(values.next().doubleValue()) } }
+        Closure lineString = {
+            int n = values.next().intValue()
+            buffer.putInt(n)
+            points(n)
+        }
+        switch (type) {
+            case 1:
+                points(1)
+                break
+            case 2:
+                lineString()
+                break
+            case 3:
+                int rings = values.next().intValue()
+                buffer.putInt(rings)
+                rings.times { lineString() }
+                break
+        }
+    }
+
+    static byte[] trim(ByteBuffer buffer) {
+        return Arrays.copyOf(buffer.array(), buffer.position())
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.xtraplatform.features.sql.app
+
+import de.ii.xtraplatform.crs.domain.BoundingBox
+import de.ii.xtraplatform.crs.domain.EpsgCrs
+import de.ii.xtraplatform.features.domain.ImmutableFeatureQuery
+import de.ii.xtraplatform.features.sql.domain.SqlDialectPgis
+import spock.lang.Specification
+
+class MvtQueryGeneratorSpec extends Specification {
+
+    static BoundingBox TILE = BoundingBox.of(0, 0, 10, 10, EpsgCrs.of(3857))
+
+    static String GEOMETRY = "ST_AsMVTGeom(ST_Transform(A.location, 3857), ST_MakeEnvelope(0.0, 0.0, 10.0, 10.0, 3857), 4096, 256, true) AS mvt_geom"
+
+    def 'feature id: #casename'() {
+
+        given:
+
+        MvtQueryGenerator generator = new MvtQueryGenerator(QuerySchemaFixtures.SIMPLE_GEOMETRY, QuerySchemaFixtures.SIMPLE_GEOMETRY, "location", idColumn, ["id": "id", "name": "name"], new SqlDialectPgis(), null)
+
+        when:
+
+        String actual = generator.getMvtQuery(ImmutableFeatureQuery.builder().type("building").limit(10).build(), "building", TILE, 4096, 256)
+
+        then:
+
+        actual == expected
+
+        where:
+
+        casename     | idColumn           | expected
+        "integer id" | Optional.of("id")  | "SELECT ST_AsMVT(R.*, 'building', 4096, 'mvt_geom', 'mvt_id') FROM (SELECT ${GEOMETRY}, A.id AS mvt_id, A.id AS \"id\", A.name AS \"name\" FROM building A ORDER BY A.id LIMIT 10) AS R WHERE R.mvt_geom IS NOT NULL".toString()
+        "no id"      | Optional.empty()   | "SELECT ST_AsMVT(R.*, 'building', 4096, 'mvt_geom') FROM (SELECT ${GEOMETRY}, A.id AS \"id\", A.name AS \"name\" FROM building A ORDER BY A.id LIMIT 10) AS R WHERE R.mvt_geom IS NOT NULL".toString()
+    }
+
+}
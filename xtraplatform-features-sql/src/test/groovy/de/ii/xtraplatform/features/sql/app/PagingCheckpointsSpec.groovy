@@ -0,0 +1,142 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.xtraplatform.features.sql.app
+
+import com.google.common.base.Ticker
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+class PagingCheckpointsSpec extends Specification {
+
+    static List<Object> QUERY = ["building", "building", Optional.empty(), [:]]
+
+    static List<Object> OTHER_QUERY = ["building", "building", Optional.of("filter"), [:]]
+
+    static List<Object> OTHER_TYPE = ["address", "address", Optional.empty(), [:]]
+
+    FakeTicker ticker = new FakeTicker()
+
+    PagingCheckpoints checkpoints = new PagingCheckpoints(ticker)
+
+    def 'lookup returns the nearest preceding checkpoint'() {
+
+        given:
+
+        checkpoints.put(QUERY, 10, 110)
+        checkpoints.put(QUERY, 20, 120)
+
+        expect:
+
+        checkpoints.get(QUERY, offset).map { [it.key, it.value] }.orElse(null) == expected
+
+        where:
+
+        offset || expected
+        0      || null
+        5      || null
+        10     || [10L, 110]
+        15     || [10L, 110]
+        20     || [20L, 120]
+        1000   || [20L, 120]
+    }
+
+    def 'checkpoints are separated by query'() {
+
+        when:
+
+        checkpoints.put(QUERY, 10, 110)
+
+        then:
+
+        checkpoints.get(QUERY, 10).isPresent()
+        checkpoints.get(OTHER_QUERY, 10).isEmpty()
+        checkpoints.get(OTHER_TYPE, 10).isEmpty()
+    }
+
+    def 'checkpoints without position or key are ignored'() {
+
+        when:
+
+        checkpoints.put(QUERY, 0, 100)
+        checkpoints.put(QUERY, 10, null)
+
+        then:
+
+        checkpoints.get(QUERY, 10).isEmpty()
+    }
+
+    def 'only the last checkpoints of a query are kept'() {
+
+        when:
+
+        (1..65).each { checkpoints.put(QUERY, it * 10, it) }
+
+        then:
+
+        checkpoints.get(QUERY, 15).isEmpty()
+        checkpoints.get(QUERY, 25).get().value == 2
+        checkpoints.get(QUERY, 650).get().value == 65
+    }
+
+    def 'invalidate drops all checkpoints of the type'() {
+
+        given:
+
+        checkpoints.put(QUERY, 10, 110)
+        checkpoints.put(OTHER_QUERY, 10, 110)
+        checkpoints.put(OTHER_TYPE, 10, 110)
+
+        when:
+
+        checkpoints.invalidate("building")
+
+        then:
+
+        checkpoints.get(QUERY, 10).isEmpty()
+        checkpoints.get(OTHER_QUERY, 10).isEmpty()
+        checkpoints.get(OTHER_TYPE, 10).isPresent()
+    }
+
+    def 'checkpoints expire'() {
+
+        given:
+
+        checkpoints.put(QUERY, 10, 110)
+
+        when:
+
+        ticker.advance(PagingCheckpoints.MAX_AGE_MINUTES - 1)
+
+        then:
+
+        checkpoints.get(QUERY, 10).isPresent()
+
+        when:
+
+        ticker.advance(1)
+
+        then:
+
+        checkpoints.get(QUERY, 10).isEmpty()
+    }
+
+    static class FakeTicker extends Ticker {
+
+        long nanos = 0
+
+        void advance(long minutes) {
+            nanos += TimeUnit.MINUTES.toNanos(minutes)
+        }
+
+        @Override
+        long read() {
+            return nanos
+        }
+    }
+}
@@ -13,6 +13,7 @@ import de.ii.xtraplatform.cql.domain.*
 import de.ii.xtraplatform.crs.domain.OgcCrs
 import de.ii.xtraplatform.features.domain.FeatureSchemaFixtures
 import de.ii.xtraplatform.features.domain.MappingOperationResolver
+import de.ii.xtraplatform.features.domain.NumberMatchedStrategy
 import de.ii.xtraplatform.features.domain.SortKey
 import de.ii.xtraplatform.features.domain.Tuple
 import de.ii.xtraplatform.features.json.app.DecoderFactoryJson
@@ -20,6 +21,7 @@ import de.ii.xtraplatform.features.sql.domain.ConstantsResolver
 import de.ii.xtraplatform.features.sql.domain.ImmutableSqlPathDefaults
 import de.ii.xtraplatform.features.sql.domain.SchemaSql
 import de.ii.xtraplatform.features.sql.domain.SqlDialectPgis
+import de.ii.xtraplatform.features.sql.domain.SqlParameters
 import de.ii.xtraplatform.features.sql.domain.SqlPathParser
 import spock.lang.Shared
 import spock.lang.Specification
@@ -32,6 +34,8 @@ class SqlQueryTemplatesDeriverSpec extends Specification {
     SqlQueryTemplatesDeriver td = new SqlQueryTemplatesDeriver(null, filterEncoder, new SqlDialectPgis(), true, false)
     @Shared
     SqlQueryTemplatesDeriver tdNoNm = new SqlQueryTemplatesDeriver(null, filterEncoder, new SqlDialectPgis(), false, false)
+    @Shared
+    SqlQueryTemplatesDeriver tdBind = new SqlQueryTemplatesDeriver(null, filterEncoder, new SqlDialectPgis(), true, false, true)
 
     @Shared
     QuerySchemaDeriver schemaDeriver
@@ -70,6 +74,44 @@ class SqlQueryTemplatesDeriverSpec extends Specification {
         "filter"                      | td      | []                                                                                | noFilter   | QuerySchemaFixtures.SIMPLE_FILTER || SqlQueryTemplatesFixtures.META_FILTER
     }
 
+    def 'meta query templates with keyset: #casename'() {
+
+        when:
+
+        SqlQueryTemplates templates = QuerySchemaFixtures.SIMPLE.get(0).accept(td)
+        String actual = templates.getMetaQueryTemplate().generateMetaQuery(10, 10, 0, sortBy, noFilter, ImmutableMap.of(), false, true, Optional.of(42L), Optional.empty())
+
+        then:
+
+        actual == expected
+
+        where:
+
+        casename | sortBy                  || expected
+        "basic"  | []                      || SqlQueryTemplatesFixtures.META.replace("A ORDER BY SKEY LIMIT", "A WHERE A.id > 42 ORDER BY SKEY LIMIT")
+        "sortBy" | [SortKey.of("created")] || SqlQueryTemplatesFixtures.META_SORT_BY
+    }
+
+    def 'meta query templates with numberMatched strategy: #casename'() {
+
+        when:
+
+        SqlQueryTemplates templates = source.get(0).accept(td)
+        String actual = templates.getMetaQueryTemplate().generateMetaQuery(10, 10, 0, [], noFilter, ImmutableMap.of(), false, true, Optional.empty(), Optional.of(strategy))
+
+        then:
+
+        actual == expected
+
+        where:
+
+        casename            | strategy                        | source                            || expected
+        "cached"            | NumberMatchedStrategy.CACHED    | QuerySchemaFixtures.SIMPLE        || SqlQueryTemplatesFixtures.META
+        "none"              | NumberMatchedStrategy.NONE      | QuerySchemaFixtures.SIMPLE        || SqlQueryTemplatesFixtures.META_WITHOUT_NUMBER_MATCHED
+        "estimate"          | NumberMatchedStrategy.ESTIMATE  | QuerySchemaFixtures.SIMPLE        || SqlQueryTemplatesFixtures.META.replace("SELECT count(*) AS numberMatched FROM (SELECT A.id AS SKEY FROM externalprovider A ORDER BY 1) AS IDS", "SELECT coalesce((SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass('externalprovider')), -1) AS numberMatched")
+        "estimate + filter" | NumberMatchedStrategy.ESTIMATE  | QuerySchemaFixtures.SIMPLE_FILTER || SqlQueryTemplatesFixtures.META_FILTER
+    }
+
     def 'value query templates: #casename'() {
 
         when:
@@ -102,6 +144,37 @@ class SqlQueryTemplatesDeriverSpec extends Specification {
 
     }
 
+    def 'bind parameters: #casename'() {
+
+        when:
+
+        SqlQueryTemplates templates = source.get(0).accept(tdBind)
+        List<Tuple<String, List<Object>>> actual = (isMeta ? [meta(templates, [], noFilter)] : values(templates, 10, 10, [], null)).collect { SqlParameters.extract(it) }
+
+        then:
+
+        actual.collect { it.first() } == expected
+        actual.collect { it.second() } == parameters
+
+        where:
+
+        casename | isMeta | source                          || expected                                                        | parameters
+        "meta"   | true   | QuerySchemaFixtures.SIMPLE      || [SqlQueryTemplatesFixtures.META.replace("LIMIT 10 OFFSET 10", "LIMIT ? OFFSET ?")] | [[10L, 10L]]
+        "paging" | false  | QuerySchemaFixtures.OBJECT_ARRAY || SqlQueryTemplatesFixtures.OBJECT_ARRAY_PAGING.collect { it.replace("A.id >= 10 AND A.id <= 19", "A.id >= ? AND A.id <= ?") } | [[10L, 19L], [10L, 19L]]
+    }
+
+    def 'bind parameters: string values are passed unchanged'() {
+
+        when:
+
+        Tuple<String, List<Object>> actual = SqlParameters.extract("SELECT " + SqlParameters.bind("a'\u0001S\u0002b") + ", " + SqlParameters.bind(1L))
+
+        then:
+
+        actual.first() == "SELECT ?, ?"
+        actual.second() == ["a'\u0001S\u0002b", 1L]
+    }
+
     def 'value query templates too: #casename'() {
 
         when:
@@ -159,4 +159,11 @@ class SqlDialectPostGisSpec extends Specification {
             extent.isEmpty()
     }
 
+    def 'Estimated count escapes the table name'() {
+        when:
+            Optional<String> count = sqlDialectPostGis.applyToEstimatedCount("o'neil.building")
+        then:
+            count.get() == "SELECT coalesce((SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass('o''neil.building')), -1) AS numberMatched"
+    }
+
 }
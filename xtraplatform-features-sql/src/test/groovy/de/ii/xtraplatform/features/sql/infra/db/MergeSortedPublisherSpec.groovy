@@ -0,0 +1,125 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.xtraplatform.features.sql.infra.db
+
+import io.reactivex.rxjava3.core.Flowable
+import io.reactivex.rxjava3.schedulers.Schedulers
+import io.reactivex.rxjava3.subscribers.TestSubscriber
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+class MergeSortedPublisherSpec extends Specification {
+
+    def 'merged stream is sorted: k = #k'() {
+
+        given:
+
+        Random random = new Random(k)
+        List<List<Integer>> values = (0..<k).collect { (0..<random.nextInt(1000)).collect { random.nextInt(5000) }.sort() }
+        List<Flowable<Integer>> sources = values.collect { Flowable.fromIterable(it).subscribeOn(Schedulers.computation()) }
+
+        when:
+
+        List<Integer> actual = Flowable.fromPublisher(new MergeSortedPublisher<Integer>(sources, Comparator.naturalOrder(), 16))
+                .toList()
+                .blockingGet()
+
+        then:
+
+        actual == values.flatten().sort()
+
+        where:
+
+        k << [0, 1, 2, 8, 32]
+    }
+
+    def 'equal elements are emitted in the order of the sources'() {
+
+        given:
+
+        List<Flowable<String>> sources = [Flowable.just("a1", "b1"), Flowable.just("a2", "b2"), Flowable.just("a3")]
+        Comparator<String> byLetter = Comparator.comparing { String it -> it.charAt(0) }
+
+        when:
+
+        List<String> actual = Flowable.fromPublisher(new MergeSortedPublisher<String>(sources, byLetter, 16))
+                .toList()
+                .blockingGet()
+
+        then:
+
+        actual == ["a1", "a2", "a3", "b1", "b2"]
+    }
+
+    def 'only requested elements are emitted'() {
+
+        given:
+
+        List<Flowable<Integer>> sources = [Flowable.range(0, 100).map { it * 2 }, Flowable.range(0, 100).map { it * 2 + 1 }]
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>(0)
+
+        when:
+
+        new MergeSortedPublisher<Integer>(sources, Comparator.naturalOrder(), 4).subscribe(subscriber)
+        subscriber.request(5)
+
+        then:
+
+        subscriber.values() == [0, 1, 2, 3, 4]
+        subscriber.assertNotComplete()
+
+        when:
+
+        subscriber.request(Long.MAX_VALUE)
+
+        then:
+
+        subscriber.awaitDone(5, TimeUnit.SECONDS)
+        subscriber.values() == (0..<200).toList()
+        subscriber.assertComplete()
+    }
+
+    def 'errors are propagated and cancel the other sources'() {
+
+        given:
+
+        boolean cancelled = false
+        List<Flowable<Integer>> sources = [Flowable.<Integer> never().doOnCancel { cancelled = true }, Flowable.<Integer> error(new IllegalStateException())]
+
+        when:
+
+        List<Integer> actual = Flowable.fromPublisher(new MergeSortedPublisher<Integer>(sources, Comparator.naturalOrder(), 16))
+                .toList()
+                .blockingGet()
+
+        then:
+
+        thrown(IllegalStateException)
+        cancelled
+    }
+
+    def 'an error after the last element is not reported as completion'() {
+
+        when:
+
+        List<TestSubscriber<Integer>> subscribers = (0..<500).collect {
+            List<Flowable<Integer>> sources = [
+                    Flowable.just(1, 3).subscribeOn(Schedulers.computation()),
+                    Flowable.just(2).concatWith(Flowable.<Integer> error(new IllegalStateException())).subscribeOn(Schedulers.computation())
+            ]
+            TestSubscriber<Integer> subscriber = new TestSubscriber<>()
+            new MergeSortedPublisher<Integer>(sources, Comparator.naturalOrder(), 16).subscribe(subscriber)
+            subscriber.awaitDone(5, TimeUnit.SECONDS)
+        }
+
+        then:
+
+        subscribers.each { it.assertError(IllegalStateException).assertNotComplete() }
+    }
+}
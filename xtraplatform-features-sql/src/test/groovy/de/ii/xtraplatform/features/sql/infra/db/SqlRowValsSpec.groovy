@@ -0,0 +1,161 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.xtraplatform.features.sql.infra.db
+
+import de.ii.xtraplatform.features.domain.SchemaBase
+import de.ii.xtraplatform.features.domain.SortKey
+import de.ii.xtraplatform.features.sql.domain.ImmutableSchemaSql
+import de.ii.xtraplatform.features.sql.domain.ImmutableSqlQueryOptions
+import de.ii.xtraplatform.features.sql.domain.SchemaSql
+import spock.lang.Shared
+import spock.lang.Specification
+
+import java.sql.ResultSet
+import java.text.Collator
+
+class SqlRowValsSpec extends Specification {
+
+    static SchemaSql BUILDING = new ImmutableSchemaSql.Builder()
+            .name("building")
+            .sourcePath("building")
+            .type(SchemaBase.Type.OBJECT)
+            .sortKey("id")
+            .build()
+
+    static SchemaSql ADDRESS = new ImmutableSchemaSql.Builder()
+            .name("address")
+            .sourcePath("address")
+            .type(SchemaBase.Type.OBJECT)
+            .sortKey("id")
+            .parentSortKeys(["building.id"])
+            .build()
+
+    @Shared
+    Collator collator
+
+    def setupSpec() {
+        collator = Collator.getInstance(Locale.GERMAN)
+        collator.setStrength(Collator.SECONDARY)
+    }
+
+    def 'integral sort keys of different types: #casename'() {
+
+        when:
+
+        int actual = Integer.signum(row(BUILDING, [key1]).compareTo(row(BUILDING, [key2])))
+
+        then:
+
+        actual == expected
+
+        where:
+
+        casename       | key1                 | key2                  || expected
+        "int4 = int8"  | 5                    | 5L                    || 0
+        "int4 < int8"  | 5                    | 7L                    || -1
+        "int8 > int4"  | 7L                   | 5                     || 1
+        "int2 < int4"  | (short) 3            | 4                     || -1
+        "int8 range"   | Integer.MAX_VALUE    | Integer.MAX_VALUE + 1L || -1
+        "negative"     | -1L                  | 0                     || -1
+    }
+
+    def 'null custom sort keys: #casename'() {
+
+        when:
+
+        int actual = Integer.signum(row(BUILDING, [name1, 1], [SortKey.of("name", direction)]).compareTo(row(BUILDING, [name2, 2], [SortKey.of("name", direction)])))
+
+        then:
+
+        actual == expected
+
+        where:
+
+        casename                | direction                    | name1 | name2 || expected
+        "both null"             | SortKey.Direction.ASCENDING  | null  | null  || -1
+        "null first"            | SortKey.Direction.ASCENDING  | null  | "a"   || -1
+        "null first, reversed"  | SortKey.Direction.ASCENDING  | "a"   | null  || 1
+        "null last, descending" | SortKey.Direction.DESCENDING | null  | "a"   || 1
+    }
+
+    def 'collation: #casename'() {
+
+        when:
+
+        int actual = Integer.signum(row(BUILDING, [name1, id1], [SortKey.of("name")], 0, collator).compareTo(row(BUILDING, [name2, id2], [SortKey.of("name")], 0, collator)))
+
+        then:
+
+        actual == expected
+
+        where:
+
+        casename                  | name1 | id1 | name2 | id2 || expected
+        "tie decided by key"      | "a"   | 2   | "A"   | 1   || 1
+        "tie decided by key 2"    | "A"   | 1   | "a"   | 2   || -1
+        "umlaut before next char" | "ä"   | 2   | "b"   | 1   || -1
+        "accent is secondary"     | "e"   | 1   | "é"   | 2   || -1
+    }
+
+    def 'collation keys give the same order as the collator'() {
+
+        given:
+
+        List<String> names = ["Zebra", "apfel", "Äpfel", "Apfel", "zebra", "Öl", "oel", "Straße", "strasse", "éclair", "eclair"]
+        List<SqlRowVals> rows = names.withIndex().collect { name, i -> row(BUILDING, [name, i], [SortKey.of("name")], 0, collator) }
+
+        when:
+
+        List<String> actual = rows.sort(false).collect { it.getSortKeys().get(0) }
+
+        then:
+
+        actual == names.withIndex().sort(false) { a, b -> collator.compare(a[0], b[0]) ?: a[1] <=> b[1] }.collect { it[0] }
+    }
+
+    def 'rows of several tables are ordered by the common sort keys and the priority'() {
+
+        given:
+
+        List<SqlRowVals> rows = [
+                row(ADDRESS, [2L, 21L], [], 1),
+                row(BUILDING, [2]),
+                row(ADDRESS, [1L, 12L], [], 1),
+                row(BUILDING, [1]),
+                row(ADDRESS, [1L, 11L], [], 1),
+                row(BUILDING, [3]),
+        ]
+
+        when:
+
+        List<String> actual = rows.sort(false).collect { "${it.getSortKeyNames().size() == 1 ? 'building' : 'address'} ${it.getSortKeys().join('/')}".toString() }
+
+        then:
+
+        actual == [
+                "building 1",
+                "address 1/11",
+                "address 1/12",
+                "building 2",
+                "address 2/21",
+                "building 3",
+        ]
+    }
+
+    SqlRowVals row(SchemaSql table, List<Object> keys, List<SortKey> customSortKeys = [], int priority = 0, Collator collator = null) {
+        ResultSet result = Stub(ResultSet) {
+            getObject(_) >> { int i -> keys[i - 1] }
+        }
+
+        return (SqlRowVals) new SqlRowVals(collator).read(result, new ImmutableSqlQueryOptions.Builder()
+                .tableSchema(table)
+                .customSortKeys(customSortKeys)
+                .containerPriority(priority)
+                .build())
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.xtraplatform.features.app;
+
+import de.ii.xtraplatform.features.domain.FeatureEventHandler;
+import de.ii.xtraplatform.features.domain.FeatureEventHandler.ModifiableContext;
+import de.ii.xtraplatform.features.domain.FeatureSchema;
+import de.ii.xtraplatform.features.domain.SchemaMapping;
+import de.ii.xtraplatform.geometries.domain.Coordinates;
+import de.ii.xtraplatform.geometries.domain.DoubleArrayProcessor;
+import java.io.IOException;
+import java.util.Arrays;
+import org.immutables.value.Value;
+
+/**
+ * Collects the transformed coordinates of a geometry part and passes them downstream as a single
+ * {@link FeatureEventHandler#onCoordinates} event.
+ */
+@Value.Immutable
+public abstract class CoordinatesProcessorFeatureTokens implements DoubleArrayProcessor {
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  private double[] buffer = new double[INITIAL_CAPACITY];
+  private int length = 0;
+  private int dimension = 2;
+
+  @Value.Parameter
+  public abstract FeatureEventHandler<
+          FeatureSchema, SchemaMapping, ModifiableContext<FeatureSchema, SchemaMapping>>
+      getDelegate();
+
+  @Value.Parameter
+  public abstract ModifiableContext<FeatureSchema, SchemaMapping> getContext();
+
+  @Override
+  public void onStart() throws IOException {
+    this.length = 0;
+  }
+
+  @Override
+  public void onCoordinates(double[] coordinates, int length, int dimension) throws IOException {
+    if (this.length + length > buffer.length) {
+      this.buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, this.length + length));
+    }
+    System.arraycopy(coordinates, 0, buffer, this.length, length);
+    this.length += length;
+    this.dimension = dimension;
+  }
+
+  @Override
+  public void onEnd() throws IOException {
+    if (length == 0) {
+      return;
+    }
+
+    // the buffer is handed over, a new one is allocated for the next geometry part
+    getContext().setCoordinates(Coordinates.of(buffer, length, dimension));
+    getDelegate().onCoordinates(getContext());
+    getContext().setCoordinates(null);
+
+    this.buffer = new double[INITIAL_CAPACITY];
+    this.length = 0;
+  }
+}
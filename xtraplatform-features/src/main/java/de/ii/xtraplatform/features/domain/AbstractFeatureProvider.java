@@ -74,6 +74,7 @@ public abstract class AbstractFeatureProvider<
   private final FeatureChanges changeHandler;
   private final ScheduledExecutorService delayedDisposer;
   private final VolatileRegistry volatileRegistry;
+  private final DerivedSchemaCache derivedSchemaCache;
   private Reactive.Runner streamRunner;
   private final DelayedVolatile<FeatureProviderConnector<T, U, V>> connector;
   private boolean datasetChanged;
@@ -96,6 +97,7 @@ public abstract class AbstractFeatureProvider<
     this.codelistStore = codelistStore;
     this.volatileRegistry = volatileRegistry;
     this.changeHandler = new FeatureChangeHandlerImpl();
+    this.derivedSchemaCache = new DerivedSchemaCache();
     this.connector =
         new DelayedVolatile<>(
             volatileRegistry,
@@ -149,6 +151,9 @@ public abstract class AbstractFeatureProvider<
     if (multiQueries().isSupported()) {
       addCapability(MultiFeatureQueries.CAPABILITY);
     }
+    if (mvt().isSupported()) {
+      addCapability(FeatureQueriesMvt.CAPABILITY);
+    }
     addSubcomponent(crsTransformerFactory, FeatureCrs.CAPABILITY);
     addSubcomponent(
         connector,
@@ -157,7 +162,8 @@ public abstract class AbstractFeatureProvider<
         FeatureQueriesPassThrough.CAPABILITY,
         FeatureTransactions.CAPABILITY,
         FeatureMetadata.CAPABILITY,
-        MultiFeatureQueries.CAPABILITY);
+        MultiFeatureQueries.CAPABILITY,
+        FeatureQueriesMvt.CAPABILITY);
 
     this.datasetChanged =
         connector.isPresent() && !connector.get().isSameDataset(getConnectionInfo());
@@ -263,6 +269,8 @@ public abstract class AbstractFeatureProvider<
 
   @Override
   protected void onReloaded() {
+    derivedSchemaCache.invalidate();
+
     String startupInfo =
         getStartupInfo()
             .map(map -> String.format(" (%s)", map.toString().replace("{", "").replace("}", "")))
@@ -417,6 +425,13 @@ public abstract class AbstractFeatureProvider<
     return Reactive.Runner.DYNAMIC_CAPACITY;
   }
 
+  @Override
+  public int getMaxParallelQueries() {
+    int capacity = getRunnerCapacity(getConnectionInfo());
+
+    return capacity > 0 ? capacity : Runtime.getRuntime().availableProcessors();
+  }
+
   protected int getRunnerQueueSize(ConnectionInfo connectionInfo) {
     return Reactive.Runner.DYNAMIC_CAPACITY;
   }
@@ -485,7 +500,12 @@ public abstract class AbstractFeatureProvider<
         crsTransformerFactory,
         getCodelists(),
         this::runQuery,
-        !query.hitsOnly());
+        !query.hitsOnly(),
+        derivedSchemaCache);
+  }
+
+  protected DerivedSchemaCache getDerivedSchemaCache() {
+    return derivedSchemaCache;
   }
 
   // TODO: more tests
@@ -555,13 +575,11 @@ public abstract class AbstractFeatureProvider<
     if (query instanceof FeatureQuery) {
       FeatureQuery featureQuery = (FeatureQuery) query;
 
-      WithScope withScope =
-          featureQuery.getSchemaScope() == SchemaBase.Scope.RETURNABLE
-              ? WITH_SCOPE_RETURNABLE
-              : WITH_SCOPE_RECEIVABLE;
+      Scope scope =
+          featureQuery.getSchemaScope() == Scope.RETURNABLE ? Scope.RETURNABLE : Scope.RECEIVABLE;
 
       return Map.of(
-          featureQuery.getType(), createMapping(featureQuery, withScope, propertyTransformations));
+          featureQuery.getType(), createMapping(featureQuery, scope, propertyTransformations));
     }
 
     if (query instanceof MultiFeatureQuery) {
@@ -571,7 +589,7 @@ public abstract class AbstractFeatureProvider<
                   typeQuery ->
                       Map.entry(
                           typeQuery.getType(),
-                          createMapping(typeQuery, WITH_SCOPE_RETURNABLE, propertyTransformations)))
+                          createMapping(typeQuery, Scope.RETURNABLE, propertyTransformations)))
               .collect(ImmutableMap.toImmutableMap(Entry::getKey, Entry::getValue));
     }
 
@@ -580,25 +598,33 @@ public abstract class AbstractFeatureProvider<
 
   private SchemaMapping createMapping(
       TypeQuery query,
-      WithScope withScope,
+      Scope scope,
       Map<String, PropertyTransformations> propertyTransformations) {
-    SchemaTransformerChain schemaTransformations =
-        propertyTransformations
-            .get(query.getType())
-            .getSchemaTransformations(
-                null,
-                !(query instanceof FeatureQuery) || !((FeatureQuery) query).returnsSingleFeature());
-
-    return new Builder()
-        .targetSchema(
-            getData()
-                .getTypes()
-                .get(query.getType())
-                .accept(withScope)
-                .accept(schemaTransformations)
-                .accept(new WithoutProperties(query.getFields(), query.skipGeometry())))
-        .sourcePathTransformer(this::applySourcePathDefaults)
-        .build();
+    WithScope withScope = scope == Scope.RECEIVABLE ? WITH_SCOPE_RECEIVABLE : WITH_SCOPE_RETURNABLE;
+    PropertyTransformations typeTransformations = propertyTransformations.get(query.getType());
+    boolean inCollection =
+        !(query instanceof FeatureQuery) || !((FeatureQuery) query).returnsSingleFeature();
+
+    return derivedSchemaCache.getMapping(
+        query,
+        scope,
+        inCollection,
+        typeTransformations.getTransformations(),
+        () -> {
+          SchemaTransformerChain schemaTransformations =
+              typeTransformations.getSchemaTransformations(null, inCollection);
+
+          return new Builder()
+              .targetSchema(
+                  getData()
+                      .getTypes()
+                      .get(query.getType())
+                      .accept(withScope)
+                      .accept(schemaTransformations)
+                      .accept(new WithoutProperties(query.getFields(), query.skipGeometry())))
+              .sourcePathTransformer(this::applySourcePathDefaults)
+              .build();
+        });
   }
 
   protected String applySourcePathDefaults(String path, boolean isValue) {
@@ -7,6 +7,7 @@
  */
 package de.ii.xtraplatform.features.domain;
 
+import java.util.Optional;
 import java.util.OptionalLong;
 import org.immutables.value.Value;
 
@@ -21,6 +22,9 @@ public interface CollectionMetadata {
   @Value.Parameter
   OptionalLong getNumberMatched();
 
+  /** How the number of matched features was determined, absent if it was counted exactly. */
+  Optional<NumberMatchedStrategy> getNumberMatchedStrategy();
+
   @Value.Default
   default boolean isSingleFeature() {
     return false;
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.xtraplatform.features.domain;
+
+import com.google.common.collect.ImmutableList;
+import de.ii.xtraplatform.features.domain.FeatureEventHandler.ModifiableContext;
+import de.ii.xtraplatform.features.domain.SchemaBase.Type;
+import de.ii.xtraplatform.geometries.domain.Coordinates;
+import de.ii.xtraplatform.geometries.domain.DoubleArrayProcessor;
+import de.ii.xtraplatform.geometries.domain.ImmutableToChars;
+import de.ii.xtraplatform.geometries.domain.SeperateStringsProcessor;
+import de.ii.xtraplatform.geometries.domain.SimpleFeatureGeometry;
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Emits the coordinates of a {@link FeatureEventHandler#onCoordinates} event as arrays and values,
+ * for consumers that do not handle primitive coordinates.
+ */
+final class CoordinatesAsValues {
+
+  private static final List<Integer> NO_PRECISION = ImmutableList.of(0, 0, 0);
+
+  private CoordinatesAsValues() {}
+
+  static <
+          T extends SchemaBase<T>,
+          U extends SchemaMappingBase<T>,
+          V extends ModifiableContext<T, U>>
+      void emit(FeatureEventHandler<T, U, V> handler, V context) {
+    Coordinates coordinates = context.coordinates();
+
+    if (Objects.isNull(coordinates) || coordinates.getLength() == 0) {
+      return;
+    }
+
+    List<Integer> precision =
+        context.query().getGeometryPrecision().get(0) > 0
+            ? context.query().getGeometryPrecision()
+            : NO_PRECISION;
+    DoubleArrayProcessor toChars =
+        ImmutableToChars.of(new ValueWriter<>(handler, context), precision);
+
+    context.setValueType(Type.STRING);
+
+    try {
+      toChars.onStart();
+      toChars.onCoordinates(
+          coordinates.getValues(), coordinates.getLength(), coordinates.getDimension());
+      toChars.onEnd();
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  // same events as CoordinatesWriterFeatureTokens
+  private static class ValueWriter<
+          T extends SchemaBase<T>,
+          U extends SchemaMappingBase<T>,
+          V extends ModifiableContext<T, U>>
+      implements SeperateStringsProcessor {
+
+    private final FeatureEventHandler<T, U, V> handler;
+    private final V context;
+    private final boolean isPoint;
+
+    ValueWriter(FeatureEventHandler<T, U, V> handler, V context) {
+      this.handler = handler;
+      this.context = context;
+      this.isPoint =
+          context
+              .geometryType()
+              .filter(
+                  geoType ->
+                      geoType == SimpleFeatureGeometry.POINT
+                          || geoType == SimpleFeatureGeometry.MULTI_POINT)
+              .isPresent();
+    }
+
+    @Override
+    public void onStart() {
+      if (!isPoint) {
+        handler.onArrayStart(context);
+      }
+      handler.onArrayStart(context);
+    }
+
+    @Override
+    public void onSeparator() {
+      handler.onArrayEnd(context);
+      handler.onArrayStart(context);
+    }
+
+    @Override
+    public void onX(char[] chars, int offset, int length) {
+      onValue(chars, offset, length);
+    }
+
+    @Override
+    public void onY(char[] chars, int offset, int length) {
+      onValue(chars, offset, length);
+    }
+
+    @Override
+    public void onZ(char[] chars, int offset, int length) {
+      onValue(chars, offset, length);
+    }
+
+    @Override
+    public void onEnd() {
+      handler.onArrayEnd(context);
+      if (!isPoint) {
+        handler.onArrayEnd(context);
+      }
+    }
+
+    private void onValue(char[] chars, int offset, int length) {
+      context.setValue(String.valueOf(chars, offset, length));
+      handler.onValue(context);
+    }
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.xtraplatform.features.domain;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import de.ii.xtraplatform.features.domain.SchemaBase.Scope;
+import de.ii.xtraplatform.features.domain.transform.PropertyTransformation;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Caches the schema mappings and provider transformations that are derived from the provider
+ * schema for every query. Queries with the same shape, i.e. the same type, scope, requested
+ * properties and transformations, reuse the same immutable instances. Has to be invalidated
+ * whenever the provider schema changes.
+ */
+public class DerivedSchemaCache {
+
+  private static final long MAX_MAPPINGS = 256;
+
+  private final Cache<List<Object>, SchemaMapping> mappings;
+  private final Cache<List<Object>, Map<String, List<PropertyTransformation>>> transformations;
+
+  public DerivedSchemaCache() {
+    this.mappings = CacheBuilder.newBuilder().maximumSize(MAX_MAPPINGS).build();
+    this.transformations = CacheBuilder.newBuilder().build();
+  }
+
+  public SchemaMapping getMapping(
+      TypeQuery query,
+      Scope scope,
+      boolean inCollection,
+      Map<String, List<PropertyTransformation>> schemaTransformations,
+      Supplier<SchemaMapping> mapping) {
+    List<Object> key =
+        List.of(
+            query.getType(),
+            scope,
+            query.getFields(),
+            query.skipGeometry(),
+            inCollection,
+            schemaTransformations);
+
+    return mappings.asMap().computeIfAbsent(key, ignore -> mapping.get());
+  }
+
+  public Map<String, List<PropertyTransformation>> getProviderTransformations(
+      String type, Scope scope, Supplier<Map<String, List<PropertyTransformation>>> derive) {
+    return transformations.asMap().computeIfAbsent(List.of(type, scope), ignore -> derive.get());
+  }
+
+  public void invalidate() {
+    mappings.invalidateAll();
+    transformations.invalidateAll();
+  }
+}
@@ -10,6 +10,7 @@ package de.ii.xtraplatform.features.domain;
 import com.google.common.collect.ImmutableList;
 import de.ii.xtraplatform.features.domain.FeatureEventHandler.ModifiableContext;
 import de.ii.xtraplatform.features.domain.SchemaBase.Type;
+import de.ii.xtraplatform.geometries.domain.Coordinates;
 import de.ii.xtraplatform.geometries.domain.SimpleFeatureGeometry;
 import java.util.List;
 import java.util.Map;
@@ -40,6 +41,21 @@ public interface FeatureEventHandler<
     @Nullable
     Type valueType();
 
+    /**
+     * @return the coordinates of the current {@link FeatureEventHandler#onCoordinates} event
+     */
+    @Nullable
+    Coordinates coordinates();
+
+    /**
+     * @return true if the consumer at the end of the pipeline wants to receive geometry
+     *     coordinates as {@link FeatureEventHandler#onCoordinates} events
+     */
+    @Value.Default
+    default boolean acceptsCoordinates() {
+      return false;
+    }
+
     @Value.Default
     default boolean inGeometry() {
       return false;
@@ -89,22 +105,30 @@ public interface FeatureEventHandler<
 
     Map<String, String> additionalInfo();
 
+    /**
+     * @return the id of the current path in the given index
+     */
+    default int pathId(SchemaPathIndex<T> pathIndex) {
+      return pathIndex.getId(path());
+    }
+
     @Value.Lazy
     default Optional<T> schema() {
       if (Objects.isNull(mapping())) {
         return Optional.empty();
       }
 
-      List<String> path = path();
+      SchemaPathIndex<T> pathIndex = mapping().getPathIndex(isUseTargetPaths());
+      int pathId = pathId(pathIndex);
 
-      if (path.isEmpty()) {
+      if (pathId == SchemaPathIndex.ROOT) {
         return Optional.ofNullable(mapping().getTargetSchema());
       }
 
       List<T> targetSchemas =
-          isUseTargetPaths()
-              ? mapping().getSchemasForTargetPath(path)
-              : mapping().getSchemasForSourcePath(path);
+          isUseTargetPaths() && mapping().hasDynamicTargetPaths()
+              ? mapping().getSchemasForTargetPath(path())
+              : pathIndex.getSchemas(pathId);
 
       if (targetSchemas.isEmpty()) {
         // LOGGER.warn("No mapping found for path {}.", path);
@@ -128,16 +152,14 @@ public interface FeatureEventHandler<
         return -1;
       }
 
-      List<String> path = path();
+      SchemaPathIndex<T> pathIndex = mapping().getPathIndex(isUseTargetPaths());
+      int pathId = pathId(pathIndex);
 
-      if (path.isEmpty()) {
+      if (pathId == SchemaPathIndex.ROOT) {
         return -1;
       }
 
-      List<Integer> positions =
-          isUseTargetPaths()
-              ? mapping().getPositionsForTargetPath(path)
-              : mapping().getPositionsForSourcePath(path);
+      List<Integer> positions = pathIndex.getPositions(pathId);
 
       int schemaIndex = schemaIndex() > -1 ? schemaIndex() : positions.size() - 1;
       if (positions.size() > schemaIndex) {
@@ -153,17 +175,15 @@ public interface FeatureEventHandler<
         return List.of();
       }
 
-      List<String> path = path();
+      SchemaPathIndex<T> pathIndex = mapping().getPathIndex(isUseTargetPaths());
+      int pathId = pathId(pathIndex);
 
-      if (path.isEmpty()) {
+      if (pathId == SchemaPathIndex.ROOT) {
         return List.of();
       }
 
       // TODO: by target path?
-      List<List<Integer>> positions =
-          isUseTargetPaths()
-              ? mapping().getParentPositionsForTargetPath(path)
-              : mapping().getParentPositionsForSourcePath(path);
+      List<List<Integer>> positions = pathIndex.getParentPositions(pathId);
 
       int schemaIndex = schemaIndex() > -1 ? schemaIndex() : positions.size() - 1;
       if (positions.size() > schemaIndex) {
@@ -179,16 +199,14 @@ public interface FeatureEventHandler<
         return ImmutableList.of();
       }
 
-      List<String> path = path();
+      SchemaPathIndex<T> pathIndex = mapping().getPathIndex(isUseTargetPaths());
+      int pathId = pathId(pathIndex);
 
-      if (path.isEmpty()) {
+      if (pathId == SchemaPathIndex.ROOT) {
         return ImmutableList.of();
       }
 
-      List<List<T>> parentSchemas =
-          isUseTargetPaths()
-              ? mapping().getParentSchemasForTargetPath(path)
-              : mapping().getParentSchemasForSourcePath(path);
+      List<List<T>> parentSchemas = pathIndex.getParentSchemas(pathId);
 
       if (parentSchemas.isEmpty()) {
         return ImmutableList.of();
@@ -241,6 +259,11 @@ public interface FeatureEventHandler<
       return pathTracker().asList();
     }
 
+    @Override
+    default int pathId(SchemaPathIndex<T> pathIndex) {
+      return pathTracker().asId(pathIndex);
+    }
+
     @Value.Lazy
     @Override
     default String pathAsString() {
@@ -303,6 +326,10 @@ public interface FeatureEventHandler<
 
     ModifiableContext<T, U> setValueType(SchemaBase.Type valueType);
 
+    ModifiableContext<T, U> setCoordinates(Coordinates coordinates);
+
+    ModifiableContext<T, U> setAcceptsCoordinates(boolean acceptsCoordinates);
+
     ModifiableContext<T, U> setInGeometry(boolean inGeometry);
 
     ModifiableContext<T, U> setInObject(boolean inObject);
@@ -345,4 +372,18 @@ public interface FeatureEventHandler<
   void onArrayEnd(V context);
 
   void onValue(V context);
+
+  /**
+   * A sequence of positions within a geometry as primitive values, see {@link
+   * Context#coordinates()}. Replaces the arrays and values for the positions that are emitted
+   * otherwise, i.e. one array with one value per axis for a single position or an array of such
+   * arrays for a line string or polygon ring. Only emitted if {@link
+   * Context#acceptsCoordinates()} is true.
+   *
+   * <p>The default implementation emits these arrays and values, with the same formatting that
+   * applies if coordinates are not passed as primitive values.
+   */
+  default void onCoordinates(V context) {
+    CoordinatesAsValues.emit(this, context);
+  }
 }
@@ -108,6 +108,16 @@ public abstract class FeatureObjectEncoderBase<
         context.transformed());
   }
 
+  @Override
+  public final void onCoordinates(ModifiableContext<T, U> context) {
+    if (context.schema().isEmpty() || Objects.isNull(context.coordinates())) {
+      return;
+    }
+
+    createProperty(PropertyBase.Type.ARRAY, context.path(), context.schema().get())
+        .coordinates(context.coordinates());
+  }
+
   private V createProperty(Property.Type type, List<String> path, T schema) {
     return createProperty(type, path, schema, null, null, ImmutableMap.of());
   }
@@ -10,6 +10,7 @@ package de.ii.xtraplatform.features.domain;
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
@@ -22,15 +23,23 @@ public class FeaturePathTracker {
 
   private final Joiner joiner;
   private final List<String> localPath;
+  private int[] ids;
+  private int validIds;
+  private SchemaPathIndex<?> idIndex;
 
   public FeaturePathTracker() {
-    this.localPath = new ArrayList<>(64);
-    this.joiner = DEFAULT_JOINER;
+    this(DEFAULT_JOINER);
   }
 
   public FeaturePathTracker(String separator) {
+    this(Joiner.on(separator).skipNulls());
+  }
+
+  private FeaturePathTracker(Joiner joiner) {
     this.localPath = new ArrayList<>(64);
-    this.joiner = Joiner.on(separator).skipNulls();
+    this.joiner = joiner;
+    this.ids = new int[64];
+    this.validIds = 0;
   }
 
   public void track(int depth) {
@@ -52,6 +61,7 @@ public class FeaturePathTracker {
     }
     if (depth < localPath.size()) {
       localPath.subList(depth, localPath.size()).clear();
+      validIds = Math.min(validIds, depth);
     }
   }
 
@@ -62,6 +72,7 @@ public class FeaturePathTracker {
   public void track(List<String> path) {
     localPath.clear();
     localPath.addAll(path);
+    validIds = 0;
   }
 
   @Override
@@ -80,6 +91,34 @@ public class FeaturePathTracker {
     return ImmutableList.copyOf(localPath);
   }
 
+  /**
+   * Resolves the id of the current path in the given index. The ids of the path prefixes are kept,
+   * so only the segments added since the last call have to be resolved.
+   *
+   * @return the id of the current path, {@link SchemaPathIndex#UNKNOWN} if the path is not part of
+   *     the index
+   */
+  public int asId(SchemaPathIndex<?> index) {
+    if (index != idIndex) {
+      this.idIndex = index;
+      this.validIds = 0;
+    }
+    if (localPath.isEmpty()) {
+      return SchemaPathIndex.ROOT;
+    }
+    if (ids.length < localPath.size()) {
+      this.ids = Arrays.copyOf(ids, Math.max(ids.length * 2, localPath.size()));
+    }
+
+    for (int i = validIds; i < localPath.size(); i++) {
+      int parentId = i == 0 ? SchemaPathIndex.ROOT : ids[i - 1];
+      ids[i] = index.getChild(parentId, localPath.get(i));
+    }
+    this.validIds = localPath.size();
+
+    return ids[localPath.size() - 1];
+  }
+
   public boolean containedIn(List<String> path) {
     if (path.size() < localPath.size()) {
       return false;
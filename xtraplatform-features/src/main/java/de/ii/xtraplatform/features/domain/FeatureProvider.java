@@ -244,6 +244,15 @@ public interface FeatureProvider extends VolatileComposed {
         this::supportsMutationsInternal);
   }
 
+  default boolean supportsMvtInternal() {
+    return false;
+  }
+
+  default OptionalVolatileCapability<FeatureQueriesMvt> mvt() {
+    return new FeatureVolatileCapability<>(
+        FeatureQueriesMvt.class, FeatureQueriesMvt.CAPABILITY, this, this::supportsMvtInternal);
+  }
+
   default OptionalVolatileCapability<FeatureCrs> crs() {
     return new FeatureVolatileCapability<>(
         FeatureCrs.class, FeatureCrs.CAPABILITY, this, info().getCrs()::isPresent);
@@ -268,6 +277,10 @@ public interface FeatureProvider extends VolatileComposed {
     return false;
   }
 
+  default int getMaxParallelQueries() {
+    return 1;
+  }
+
   // TODO: to QueryCapabilities
   default boolean supportsHitsOnly() {
     return false;
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.xtraplatform.features.domain;
+
+import de.ii.xtraplatform.crs.domain.BoundingBox;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Encodes the result of a feature query as a Mapbox Vector Tile layer directly in the data source,
+ * bypassing the feature token pipeline.
+ */
+public interface FeatureQueriesMvt {
+
+  String CAPABILITY = "mvt";
+
+  /**
+   * @return true, if the features of the given type can be encoded by the data source without
+   *     losing information compared to the regular feature stream
+   */
+  boolean supportsMvt(String type);
+
+  /**
+   * @param query the query, filters have to include the spatial filter for the tile
+   * @param layerName the name of the layer in the tile
+   * @param tileBounds the bounds of the tile in the tile matrix set crs
+   * @param extent the tile extent in tile coordinates
+   * @param buffer the buffer around the tile in tile coordinates
+   * @return the encoded tile with a single layer, empty if no feature was selected
+   */
+  CompletionStage<byte[]> getMvtLayer(
+      FeatureQuery query, String layerName, BoundingBox tileBounds, int extent, int buffer);
+}
@@ -48,6 +48,7 @@ public class FeatureStreamImpl implements FeatureStream {
   private final boolean stepClean;
   private final boolean stepEtag;
   private final boolean stepMetadata;
+  private final DerivedSchemaCache derivedSchemaCache;
 
   public FeatureStreamImpl(
       Query query,
@@ -56,7 +57,26 @@ public class FeatureStreamImpl implements FeatureStream {
       Map<String, Codelist> codelists,
       QueryRunner runner,
       boolean doTransform) {
+    this(
+        query,
+        data,
+        crsTransformerFactory,
+        codelists,
+        runner,
+        doTransform,
+        new DerivedSchemaCache());
+  }
+
+  public FeatureStreamImpl(
+      Query query,
+      FeatureProviderDataV2 data,
+      CrsTransformerFactory crsTransformerFactory,
+      Map<String, Codelist> codelists,
+      QueryRunner runner,
+      boolean doTransform,
+      DerivedSchemaCache derivedSchemaCache) {
     this.query = query;
+    this.derivedSchemaCache = derivedSchemaCache;
     this.data = data;
     this.crsTransformerFactory = crsTransformerFactory;
     this.codelists = codelists;
@@ -276,15 +296,24 @@ public class FeatureStreamImpl implements FeatureStream {
 
   private PropertyTransformations getPropertyTransformations(
       TypeQuery typeQuery, Optional<PropertyTransformations> propertyTransformations) {
-    FeatureSchema featureSchema = data.getTypes().get(typeQuery.getType());
+    String type = typeQuery.getType();
+    FeatureSchema featureSchema = data.getTypes().get(type);
 
     if (typeQuery instanceof FeatureQuery
         && ((FeatureQuery) typeQuery).getSchemaScope() == SchemaBase.Scope.RECEIVABLE) {
-      return () -> getProviderTransformationsMutations(featureSchema);
+      Map<String, List<PropertyTransformation>> mutationTransformations =
+          derivedSchemaCache.getProviderTransformations(
+              type,
+              SchemaBase.Scope.RECEIVABLE,
+              () -> getProviderTransformationsMutations(featureSchema));
+
+      return () -> mutationTransformations;
     }
 
-    PropertyTransformations providerTransformations =
-        () -> getProviderTransformations(featureSchema);
+    Map<String, List<PropertyTransformation>> transformations =
+        derivedSchemaCache.getProviderTransformations(
+            type, SchemaBase.Scope.RETURNABLE, () -> getProviderTransformations(featureSchema));
+    PropertyTransformations providerTransformations = () -> transformations;
 
     PropertyTransformations merged =
         propertyTransformations
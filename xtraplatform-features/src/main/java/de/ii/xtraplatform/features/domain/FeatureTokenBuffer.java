@@ -151,4 +151,13 @@ public class FeatureTokenBuffer<
       downstream.onValue(context);
     }
   }
+
+  @Override
+  public void onCoordinates(W context) {
+    if (doBuffer) {
+      bufferIn.onCoordinates(context);
+    } else {
+      downstream.onCoordinates(context);
+    }
+  }
 }
@@ -9,6 +9,7 @@ package de.ii.xtraplatform.features.domain;
 
 import de.ii.xtraplatform.features.domain.FeatureEventHandler.ModifiableContext;
 import de.ii.xtraplatform.features.domain.SchemaBase.Type;
+import de.ii.xtraplatform.geometries.domain.Coordinates;
 import de.ii.xtraplatform.geometries.domain.SimpleFeatureGeometry;
 import java.util.List;
 import java.util.Optional;
@@ -27,6 +28,7 @@ public interface FeatureTokenEmitter2<
         context.metadata().isSingleFeature(),
         context.metadata().getNumberReturned(),
         context.metadata().getNumberMatched());
+    context.metadata().getNumberMatchedStrategy().ifPresent(this::push);
   }
 
   default void onStart(
@@ -137,4 +139,15 @@ public interface FeatureTokenEmitter2<
     push(type);
     // }
   }
+
+  @Override
+  default void onCoordinates(V context) {
+    onCoordinates(context.path(), context.coordinates());
+  }
+
+  default void onCoordinates(List<String> path, Coordinates coordinates) {
+    push(FeatureTokenType.COORDINATES);
+    push(path);
+    push(coordinates);
+  }
 }
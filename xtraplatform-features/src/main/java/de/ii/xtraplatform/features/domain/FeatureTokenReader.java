@@ -9,6 +9,7 @@ package de.ii.xtraplatform.features.domain;
 
 import de.ii.xtraplatform.features.domain.FeatureEventHandler.ModifiableContext;
 import de.ii.xtraplatform.features.domain.SchemaBase.Type;
+import de.ii.xtraplatform.geometries.domain.Coordinates;
 import de.ii.xtraplatform.geometries.domain.SimpleFeatureGeometry;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -67,6 +68,7 @@ public class FeatureTokenReader<
     context.pathTracker().track(0);
     context.setValueType(Type.UNKNOWN);
     context.setValue(null);
+    context.setCoordinates(null);
 
     switch (currentType) {
       case FEATURE:
@@ -130,6 +132,8 @@ public class FeatureTokenReader<
           this.context.metadata().numberReturned((Long) context);
         } else if (contextIndex == 1 && context instanceof Long) {
           this.context.metadata().numberMatched((Long) context);
+        } else if (context instanceof NumberMatchedStrategy) {
+          this.context.metadata().numberMatchedStrategy((NumberMatchedStrategy) context);
         }
         break;
       case FEATURE:
@@ -162,6 +166,12 @@ public class FeatureTokenReader<
           this.context.setValueType((SchemaBase.Type) context);
         }
         break;
+      case COORDINATES:
+        tryReadPath(context);
+        if (contextIndex == 1 && context instanceof Coordinates) {
+          this.context.setCoordinates((Coordinates) context);
+        }
+        break;
       case ARRAY_END:
       case OBJECT_END:
         tryReadPath(context);
@@ -198,6 +208,9 @@ public class FeatureTokenReader<
       case VALUE:
         eventHandler.onValue(context);
         break;
+      case COORDINATES:
+        eventHandler.onCoordinates(context);
+        break;
       case ARRAY_END:
         eventHandler.onArrayEnd(context);
         break;
@@ -157,4 +157,9 @@ public abstract class FeatureTokenTransformerBase<
   public void onValue(V context) {
     getDownstream().onValue(context);
   }
+
+  @Override
+  public void onCoordinates(V context) {
+    getDownstream().onCoordinates(context);
+  }
 }
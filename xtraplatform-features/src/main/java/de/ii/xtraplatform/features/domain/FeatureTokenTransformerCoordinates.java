@@ -8,79 +8,35 @@
 package de.ii.xtraplatform.features.domain;
 
 import de.ii.xtraplatform.crs.domain.CrsTransformer;
+import de.ii.xtraplatform.features.app.ImmutableCoordinatesProcessorFeatureTokens;
 import de.ii.xtraplatform.features.app.ImmutableCoordinatesWriterFeatureTokens;
 import de.ii.xtraplatform.geometries.domain.CoordinatesTransformer;
 import de.ii.xtraplatform.geometries.domain.ImmutableCoordinatesTransformer;
 import de.ii.xtraplatform.geometries.domain.SimpleFeatureGeometry;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 public class FeatureTokenTransformerCoordinates extends FeatureTokenTransformer {
 
   private final Optional<CrsTransformer> crsTransformer;
-  private ImmutableCoordinatesTransformer.Builder coordinatesTransformerBuilder;
-  private int targetDimension;
+  // transformers keep no state between geometry values, so they are reused per geometry type and
+  // dimension as long as query and context do not change
+  private final Map<Integer, CoordinatesTransformer> coordinatesTransformers;
+  private Query currentQuery;
+  private ModifiableContext<FeatureSchema, SchemaMapping> currentContext;
 
   public FeatureTokenTransformerCoordinates(Optional<CrsTransformer> crsTransformer) {
     this.crsTransformer = crsTransformer;
-  }
-
-  @Override
-  public void onObjectStart(ModifiableContext<FeatureSchema, SchemaMapping> context) {
-    if (context.schema().filter(SchemaBase::isSpatial).isPresent()
-        || context.geometryType().isPresent()) {
-      this.coordinatesTransformerBuilder = ImmutableCoordinatesTransformer.builder();
-
-      if (crsTransformer.isPresent()) {
-        coordinatesTransformerBuilder.crsTransformer(crsTransformer.get());
-      }
-
-      int fallbackDimension = context.geometryDimension().orElse(2);
-      int sourceDimension =
-          crsTransformer.map(CrsTransformer::getSourceDimension).orElse(fallbackDimension);
-      this.targetDimension =
-          crsTransformer.map(CrsTransformer::getTargetDimension).orElse(fallbackDimension);
-      coordinatesTransformerBuilder.sourceDimension(sourceDimension);
-      coordinatesTransformerBuilder.targetDimension(targetDimension);
-
-      if (context.query().getMaxAllowableOffset() > 0) {
-        int minPoints =
-            context.geometryType().get() == SimpleFeatureGeometry.MULTI_POLYGON
-                    || context.geometryType().get() == SimpleFeatureGeometry.POLYGON
-                ? 4
-                : 2;
-        coordinatesTransformerBuilder.maxAllowableOffset(context.query().getMaxAllowableOffset());
-        coordinatesTransformerBuilder.minNumberOfCoordinates(minPoints);
-      }
-
-      // TODO: currently never true, see GeotoolsCrsTransformer.needsAxisSwap, find cfg example with
-      // forceAxisOrder
-      /*if (transformationContext.shouldSwapCoordinates()) {
-        coordinatesTransformerBuilder.isSwapXY(true);
-      }*/
-
-      if (context.query().getGeometryPrecision().get(0) > 0) {
-        coordinatesTransformerBuilder.precision(context.query().getGeometryPrecision());
-      }
-
-      // TODO: currently never true, see FeatureProperty.isForceReversePolygon, find cfg example
-      /*if (Objects.equals(featureProperty.isForceReversePolygon(), true)) {
-        coordinatesTransformerBuilder.isReverseOrder(true);
-      }*/
-    }
-
-    getDownstream().onObjectStart(context);
+    this.coordinatesTransformers = new HashMap<>();
   }
 
   @Override
   public void onValue(ModifiableContext<FeatureSchema, SchemaMapping> context) {
     if (context.inGeometry()) {
-      CoordinatesTransformer coordinatesTransformer =
-          coordinatesTransformerBuilder
-              .coordinatesWriter(
-                  ImmutableCoordinatesWriterFeatureTokens.of(
-                      getDownstream(), targetDimension, context))
-              .build();
+      CoordinatesTransformer coordinatesTransformer = getCoordinatesTransformer(context);
       try {
         coordinatesTransformer.write(context.value());
         coordinatesTransformer.close();
@@ -91,4 +47,81 @@ public class FeatureTokenTransformerCoordinates extends FeatureTokenTransformer
       getDownstream().onValue(context);
     }
   }
+
+  private CoordinatesTransformer getCoordinatesTransformer(
+      ModifiableContext<FeatureSchema, SchemaMapping> context) {
+    if (context.query() != currentQuery || context != currentContext) {
+      coordinatesTransformers.clear();
+      this.currentQuery = context.query();
+      this.currentContext = context;
+    }
+
+    SimpleFeatureGeometry geometryType = context.geometryType().orElse(SimpleFeatureGeometry.NONE);
+    int fallbackDimension = context.geometryDimension().orElse(2);
+    int key = geometryType.ordinal() * 4 + fallbackDimension;
+
+    CoordinatesTransformer coordinatesTransformer = coordinatesTransformers.get(key);
+
+    if (Objects.isNull(coordinatesTransformer)) {
+      coordinatesTransformer =
+          createCoordinatesTransformer(context, geometryType, fallbackDimension);
+      coordinatesTransformers.put(key, coordinatesTransformer);
+    }
+
+    return coordinatesTransformer;
+  }
+
+  private CoordinatesTransformer createCoordinatesTransformer(
+      ModifiableContext<FeatureSchema, SchemaMapping> context,
+      SimpleFeatureGeometry geometryType,
+      int fallbackDimension) {
+    ImmutableCoordinatesTransformer.Builder coordinatesTransformerBuilder =
+        ImmutableCoordinatesTransformer.builder();
+
+    if (crsTransformer.isPresent()) {
+      coordinatesTransformerBuilder.crsTransformer(crsTransformer.get());
+    }
+
+    int sourceDimension =
+        crsTransformer.map(CrsTransformer::getSourceDimension).orElse(fallbackDimension);
+    int targetDimension =
+        crsTransformer.map(CrsTransformer::getTargetDimension).orElse(fallbackDimension);
+    coordinatesTransformerBuilder.sourceDimension(sourceDimension);
+    coordinatesTransformerBuilder.targetDimension(targetDimension);
+
+    if (context.query().getMaxAllowableOffset() > 0) {
+      int minPoints =
+          geometryType == SimpleFeatureGeometry.MULTI_POLYGON
+                  || geometryType == SimpleFeatureGeometry.POLYGON
+              ? 4
+              : 2;
+      coordinatesTransformerBuilder.maxAllowableOffset(context.query().getMaxAllowableOffset());
+      coordinatesTransformerBuilder.minNumberOfCoordinates(minPoints);
+    }
+
+    // TODO: currently never true, see GeotoolsCrsTransformer.needsAxisSwap, find cfg example with
+    // forceAxisOrder
+    /*if (transformationContext.shouldSwapCoordinates()) {
+      coordinatesTransformerBuilder.isSwapXY(true);
+    }*/
+
+    if (context.query().getGeometryPrecision().get(0) > 0) {
+      coordinatesTransformerBuilder.precision(context.query().getGeometryPrecision());
+    }
+
+    // TODO: currently never true, see FeatureProperty.isForceReversePolygon, find cfg example
+    /*if (Objects.equals(featureProperty.isForceReversePolygon(), true)) {
+      coordinatesTransformerBuilder.isReverseOrder(true);
+    }*/
+
+    coordinatesTransformerBuilder.coordinatesWriter(
+        ImmutableCoordinatesWriterFeatureTokens.of(getDownstream(), targetDimension, context));
+
+    if (context.acceptsCoordinates()) {
+      coordinatesTransformerBuilder.doubleArrayProcessor(
+          ImmutableCoordinatesProcessorFeatureTokens.of(getDownstream(), context));
+    }
+
+    return coordinatesTransformerBuilder.build();
+  }
 }
@@ -10,6 +10,7 @@ package de.ii.xtraplatform.features.domain;
 import de.ii.xtraplatform.crs.domain.BoundingBox;
 import de.ii.xtraplatform.crs.domain.EpsgCrs;
 import de.ii.xtraplatform.crs.domain.OgcCrs;
+import de.ii.xtraplatform.geometries.domain.Coordinates;
 import java.time.Instant;
 import java.util.Objects;
 import java.util.Optional;
@@ -134,4 +135,40 @@ public class FeatureTokenTransformerMetadata extends FeatureTokenTransformer {
 
     super.onValue(context);
   }
+
+  @Override
+  public void onCoordinates(ModifiableContext<FeatureSchema, SchemaMapping> context) {
+    Coordinates coordinates = context.coordinates();
+
+    if (Objects.nonNull(coordinates) && coordinates.getNumberOfPositions() > 0) {
+      double minX = Double.POSITIVE_INFINITY;
+      double minY = Double.POSITIVE_INFINITY;
+      double maxX = Double.NEGATIVE_INFINITY;
+      double maxY = Double.NEGATIVE_INFINITY;
+
+      for (int i = 0; i < coordinates.getNumberOfPositions(); i++) {
+        double x = coordinates.get(i, 0);
+        double y = coordinates.get(i, 1);
+        minX = Math.min(minX, x);
+        maxX = Math.max(maxX, x);
+        minY = Math.min(minY, y);
+        maxY = Math.max(maxY, y);
+      }
+
+      if (xmin.isEmpty() || minX < Double.parseDouble(xmin)) {
+        this.xmin = String.valueOf(minX);
+      }
+      if (xmax.isEmpty() || maxX > Double.parseDouble(xmax)) {
+        this.xmax = String.valueOf(maxX);
+      }
+      if (ymin.isEmpty() || minY < Double.parseDouble(ymin)) {
+        this.ymin = String.valueOf(minY);
+      }
+      if (ymax.isEmpty() || maxY > Double.parseDouble(ymax)) {
+        this.ymax = String.valueOf(maxY);
+      }
+    }
+
+    super.onCoordinates(context);
+  }
 }
@@ -133,6 +133,17 @@ public class FeatureTokenTransformerRemoveEmptyOptionals extends FeatureTokenTra
     }
   }
 
+  @Override
+  public void onCoordinates(ModifiableContext<FeatureSchema, SchemaMapping> context) {
+    if (context.schema().isEmpty()) {
+      return;
+    }
+
+    openIfNecessary(context);
+
+    super.onCoordinates(context);
+  }
+
   private void openIfNecessary(ModifiableContext<FeatureSchema, SchemaMapping> context) {
     if (!schemaStack.isEmpty()) {
       List<String> previousPath = context.path();
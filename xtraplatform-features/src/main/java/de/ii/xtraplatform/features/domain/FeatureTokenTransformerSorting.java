@@ -10,6 +10,7 @@ package de.ii.xtraplatform.features.domain;
 import de.ii.xtraplatform.features.domain.SchemaBase.Type;
 import de.ii.xtraplatform.geometries.domain.SimpleFeatureGeometry;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -33,7 +34,9 @@ public class FeatureTokenTransformerSorting extends FeatureTokenTransformer {
       LoggerFactory.getLogger(FeatureTokenTransformerSorting.class);
 
   private final Map<String, Map<List<String>, Integer>> pathIndex;
-  private final Map<String, Map<List<String>, Integer>> rearrange;
+  private final Map<String, SchemaPathIndex<FeatureSchema>> pathIds;
+  private final Map<String, int[]> indexById;
+  private final Map<String, boolean[]> rearrangeById;
   private final Queue<Integer> indexQueue;
   private final Queue<List<String>> pathQueue;
   private final Queue<Integer> schemaIndexQueue;
@@ -56,7 +59,9 @@ public class FeatureTokenTransformerSorting extends FeatureTokenTransformer {
 
   public FeatureTokenTransformerSorting() {
     this.pathIndex = new LinkedHashMap<>();
-    this.rearrange = new LinkedHashMap<>();
+    this.pathIds = new LinkedHashMap<>();
+    this.indexById = new LinkedHashMap<>();
+    this.rearrangeById = new LinkedHashMap<>();
     this.indexQueue = new LinkedList<>();
     this.pathQueue = new LinkedList<>();
     this.schemaIndexQueue = new LinkedList<>();
@@ -107,7 +112,7 @@ public class FeatureTokenTransformerSorting extends FeatureTokenTransformer {
 
   @Override
   public void onObjectStart(ModifiableContext<FeatureSchema, SchemaMapping> context) {
-    int index = getIndex(context.path());
+    int index = getIndex(context);
 
     checkBuffer(context, FeatureTokenType.OBJECT, index, index > bufferIndex);
   }
@@ -125,32 +130,43 @@ public class FeatureTokenTransformerSorting extends FeatureTokenTransformer {
 
   @Override
   public void onArrayStart(ModifiableContext<FeatureSchema, SchemaMapping> context) {
-    int index = getIndex(context.path());
+    int index = getIndex(context);
 
     checkBuffer(context, FeatureTokenType.ARRAY, index, index > bufferIndex);
   }
 
   @Override
   public void onArrayEnd(ModifiableContext<FeatureSchema, SchemaMapping> context) {
-    int index = getIndex(context.path());
+    int index = getIndex(context);
 
     checkBuffer(context, FeatureTokenType.ARRAY_END, index, false);
   }
 
   @Override
   public void onValue(ModifiableContext<FeatureSchema, SchemaMapping> context) {
-    int index = getIndex(context.path());
+    int index = getIndex(context);
 
     checkBuffer(context, FeatureTokenType.VALUE, index, index > bufferIndex);
   }
 
-  private int getIndex(List<String> path) {
+  private int getIndex(ModifiableContext<FeatureSchema, SchemaMapping> context) {
     if (Objects.nonNull(currentType)) {
-      return Objects.requireNonNullElse(pathIndex.get(currentType).get(path), -1);
+      int pathId = context.pathId(pathIds.get(currentType));
+
+      return pathId == SchemaPathIndex.UNKNOWN ? -1 : indexById.get(currentType)[pathId];
     }
     return -1;
   }
 
+  private boolean isRearranged(ModifiableContext<FeatureSchema, SchemaMapping> context) {
+    if (Objects.nonNull(currentType)) {
+      int pathId = context.pathId(pathIds.get(currentType));
+
+      return pathId != SchemaPathIndex.UNKNOWN && rearrangeById.get(currentType)[pathId];
+    }
+    return false;
+  }
+
   // TODO: identify out of order elements, on element after ooe start buffer and mark 0, on ooe
   // insert 0 and flush
   // TODO: multiple ooes following each other, multiple marks
@@ -162,12 +178,16 @@ public class FeatureTokenTransformerSorting extends FeatureTokenTransformer {
 
     this.currentType = mapping.getTargetSchema().getName();
 
-    if (pathIndex.containsKey(currentType) || rearrange.containsKey(currentType)) {
+    if (pathIndex.containsKey(currentType)) {
       return;
     }
 
+    SchemaPathIndex<FeatureSchema> targetPathIndex = mapping.getTargetPathIndex();
+    int[] indexes = new int[targetPathIndex.size()];
+    boolean[] rearranges = new boolean[indexes.length];
+    Arrays.fill(indexes, -1);
+
     pathIndex.put(currentType, new LinkedHashMap<>());
-    rearrange.put(currentType, new LinkedHashMap<>());
 
     int index = 0;
     List<String> lastParent = null;
@@ -193,7 +213,7 @@ public class FeatureTokenTransformerSorting extends FeatureTokenTransformer {
         lastParent = parent;
 
         if (doRearrange) {
-          this.rearrange.get(currentType).put(path, index);
+          rearranges[targetPathIndex.getId(path)] = true;
         }
       }
 
@@ -202,8 +222,13 @@ public class FeatureTokenTransformerSorting extends FeatureTokenTransformer {
       }
 
       this.pathIndex.get(currentType).put(path, index);
+      indexes[targetPathIndex.getId(path)] = index;
       index++;
     }
+
+    pathIds.put(currentType, targetPathIndex);
+    indexById.put(currentType, indexes);
+    rearrangeById.put(currentType, rearranges);
   }
 
   private void checkBuffer(
@@ -211,10 +236,8 @@ public class FeatureTokenTransformerSorting extends FeatureTokenTransformer {
       FeatureTokenType token,
       int triggerIndex,
       boolean doEmptyBuffer) {
-    int index = getIndex(context.path());
-    boolean doRearrange =
-        rearrange.containsKey(currentType)
-            && rearrange.get(currentType).containsKey(context.path());
+    int index = getIndex(context);
+    boolean doRearrange = isRearranged(context);
 
     if (doRearrange) {
       buffer(context, index, token);
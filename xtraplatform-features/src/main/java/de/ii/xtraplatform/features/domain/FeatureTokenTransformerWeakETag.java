@@ -10,6 +10,8 @@ package de.ii.xtraplatform.features.domain;
 import de.ii.xtraplatform.base.domain.ETag;
 import de.ii.xtraplatform.base.domain.ETag.Type;
 import de.ii.xtraplatform.features.domain.ImmutableResult.Builder;
+import de.ii.xtraplatform.geometries.domain.Coordinates;
+import java.nio.ByteBuffer;
 import java.util.Objects;
 import java.util.function.Consumer;
 import javax.ws.rs.core.EntityTag;
@@ -44,4 +46,17 @@ public class FeatureTokenTransformerWeakETag extends FeatureTokenTransformer {
 
     super.onValue(context);
   }
+
+  @Override
+  public void onCoordinates(ModifiableContext<FeatureSchema, SchemaMapping> context) {
+    Coordinates coordinates = context.coordinates();
+
+    if (Objects.nonNull(coordinates)) {
+      ByteBuffer bytes = ByteBuffer.allocate(coordinates.getLength() * Double.BYTES);
+      bytes.asDoubleBuffer().put(coordinates.getValues(), 0, coordinates.getLength());
+      eTag.put(bytes.array());
+    }
+
+    super.onCoordinates(context);
+  }
 }
@@ -18,4 +18,5 @@ public enum FeatureTokenType {
   FEATURE_END,
   INPUT_END,
   FLUSH,
+  COORDINATES,
 }
@@ -0,0 +1,20 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.xtraplatform.features.domain;
+
+/** How the number of features matched by a query is determined. */
+public enum NumberMatchedStrategy {
+  /** Counted for every query. */
+  EXACT,
+  /** Counted once per type and filter, reused until the data of the type changes. */
+  CACHED,
+  /** Estimated by the database, e.g. from table statistics, might deviate from the exact count. */
+  ESTIMATE,
+  /** Not determined. */
+  NONE,
+}
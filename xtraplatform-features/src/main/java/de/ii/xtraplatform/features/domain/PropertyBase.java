@@ -9,6 +9,7 @@ package de.ii.xtraplatform.features.domain;
 
 import de.ii.xtraplatform.features.domain.transform.FeaturePropertyTransformerFlatten;
 import de.ii.xtraplatform.features.domain.transform.PropertyTransformations;
+import de.ii.xtraplatform.geometries.domain.Coordinates;
 import de.ii.xtraplatform.geometries.domain.SimpleFeatureGeometry;
 import java.util.List;
 import java.util.Map;
@@ -36,6 +37,11 @@ public interface PropertyBase<T extends PropertyBase<T, U>, U extends SchemaBase
   @Nullable
   String getValue();
 
+  /**
+   * @return the positions of a geometry part, if they were received as primitive values
+   */
+  Optional<Coordinates> getCoordinates();
+
   @Value.Auxiliary
   Optional<T> getParent();
 
@@ -85,6 +91,8 @@ public interface PropertyBase<T extends PropertyBase<T, U>, U extends SchemaBase
 
   PropertyBase<T, U> value(String value);
 
+  PropertyBase<T, U> coordinates(Coordinates coordinates);
+
   PropertyBase<T, U> parent(T parent);
 
   PropertyBase<T, U> addNestedProperties(T element);
@@ -29,6 +29,11 @@ public interface SchemaMapping extends SchemaMappingBase<FeatureSchema> {
     return new ImmutableFeatureSchema.Builder().from(schema).geometryType(geometryType).build();
   }
 
+  @Override
+  default boolean hasDynamicTargetPaths() {
+    return !getDynamicTransformers().isEmpty();
+  }
+
   @Override
   default List<FeatureSchema> getSchemasForTargetPath(List<String> path) {
     if (!getDynamicTransformers().isEmpty()) {
@@ -112,6 +112,38 @@ public interface SchemaMappingBase<T extends SchemaBase<T>> {
         getParentSchemasByTargetPath(), this::getPositionsForTargetPath);
   }
 
+  @Value.Lazy
+  @Value.Auxiliary
+  default SchemaPathIndex<T> getSourcePathIndex() {
+    return new SchemaPathIndex<>(
+        getSchemasBySourcePath(),
+        getPositionsBySourcePath(),
+        getParentSchemasBySourcePath(),
+        getParentPositionsBySourcePath());
+  }
+
+  @Value.Lazy
+  @Value.Auxiliary
+  default SchemaPathIndex<T> getTargetPathIndex() {
+    return new SchemaPathIndex<>(
+        getSchemasByTargetPath(),
+        getPositionsByTargetPath(),
+        getParentSchemasByTargetPath(),
+        getParentPositionsByTargetPath());
+  }
+
+  default SchemaPathIndex<T> getPathIndex(boolean useTargetPaths) {
+    return useTargetPaths ? getTargetPathIndex() : getSourcePathIndex();
+  }
+
+  /**
+   * @return true if {@link #getSchemasForTargetPath(List)} does not only depend on the path index,
+   *     e.g. because of dynamic transformations
+   */
+  default boolean hasDynamicTargetPaths() {
+    return false;
+  }
+
   default Map<List<String>, List<T>> getSchemasByPath(
       T targetSchema,
       SchemaToPathsVisitor<T> pathsVisitor,
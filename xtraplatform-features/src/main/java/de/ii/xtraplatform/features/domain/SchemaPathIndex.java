@@ -0,0 +1,132 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.xtraplatform.features.domain;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interns the paths of a {@link SchemaMappingBase} into integer ids. Every path and every prefix of
+ * a path gets an id, the empty path is {@link #ROOT}, paths that are not part of the mapping are
+ * {@link #UNKNOWN}. The id of a path is resolved segment by segment with {@link #getChild(int,
+ * String)}, so a {@link FeaturePathTracker} can resolve ids incrementally while the path grows. The
+ * schemas, positions, parent schemas and parent positions for an id are looked up by array index
+ * and are the same as the ones returned by the corresponding path based methods of {@link
+ * SchemaMappingBase}.
+ */
+public final class SchemaPathIndex<T extends SchemaBase<T>> {
+
+  public static final int ROOT = 0;
+  public static final int UNKNOWN = -1;
+
+  private static final List<Integer> NO_POSITIONS = ImmutableList.of(-1);
+  private static final List<List<Integer>> NO_PARENT_POSITIONS =
+      ImmutableList.of(ImmutableList.of());
+
+  private final List<Map<String, Integer>> children;
+  private final List<T>[] schemas;
+  private final List<Integer>[] positions;
+  private final List<List<T>>[] parentSchemas;
+  private final List<List<Integer>>[] parentPositions;
+
+  @SuppressWarnings("unchecked")
+  SchemaPathIndex(
+      Map<List<String>, List<T>> schemasByPath,
+      Map<List<String>, List<Integer>> positionsByPath,
+      Map<List<String>, List<List<T>>> parentSchemasByPath,
+      Map<List<String>, List<List<Integer>>> parentPositionsByPath) {
+    this.children = new ArrayList<>();
+    children.add(new HashMap<>());
+
+    schemasByPath.keySet().forEach(this::intern);
+    positionsByPath.keySet().forEach(this::intern);
+    parentSchemasByPath.keySet().forEach(this::intern);
+    parentPositionsByPath.keySet().forEach(this::intern);
+
+    int size = children.size();
+    this.schemas = new List[size];
+    this.positions = new List[size];
+    this.parentSchemas = new List[size];
+    this.parentPositions = new List[size];
+
+    for (int id = 0; id < size; id++) {
+      schemas[id] = ImmutableList.of();
+      positions[id] = NO_POSITIONS;
+      parentSchemas[id] = ImmutableList.of();
+      parentPositions[id] = NO_PARENT_POSITIONS;
+    }
+
+    schemasByPath.forEach((path, value) -> schemas[getId(path)] = value);
+    positionsByPath.forEach((path, value) -> positions[getId(path)] = value);
+    parentSchemasByPath.forEach((path, value) -> parentSchemas[getId(path)] = value);
+    parentPositionsByPath.forEach((path, value) -> parentPositions[getId(path)] = value);
+  }
+
+  private void intern(List<String> path) {
+    int id = ROOT;
+
+    for (String segment : path) {
+      Integer child = children.get(id).get(segment);
+
+      if (child == null) {
+        child = children.size();
+        children.get(id).put(segment, child);
+        children.add(new HashMap<>());
+      }
+
+      id = child;
+    }
+  }
+
+  /**
+   * @return the number of ids, ids are in the range from {@link #ROOT} to size - 1
+   */
+  public int size() {
+    return children.size();
+  }
+
+  /**
+   * @return the id of the path consisting of the path with the given id and the given segment
+   */
+  public int getChild(int parentId, String segment) {
+    if (parentId == UNKNOWN) {
+      return UNKNOWN;
+    }
+
+    return children.get(parentId).getOrDefault(segment, UNKNOWN);
+  }
+
+  public int getId(List<String> path) {
+    int id = ROOT;
+
+    for (int i = 0; i < path.size() && id != UNKNOWN; i++) {
+      id = getChild(id, path.get(i));
+    }
+
+    return id;
+  }
+
+  public List<T> getSchemas(int id) {
+    return id == UNKNOWN ? ImmutableList.of() : schemas[id];
+  }
+
+  public List<Integer> getPositions(int id) {
+    return id == UNKNOWN ? NO_POSITIONS : positions[id];
+  }
+
+  public List<List<T>> getParentSchemas(int id) {
+    return id == UNKNOWN ? ImmutableList.of() : parentSchemas[id];
+  }
+
+  public List<List<Integer>> getParentPositions(int id) {
+    return id == UNKNOWN ? NO_PARENT_POSITIONS : parentPositions[id];
+  }
+}
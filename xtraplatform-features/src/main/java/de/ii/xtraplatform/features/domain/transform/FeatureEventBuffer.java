@@ -344,6 +344,15 @@ public class FeatureEventBuffer<
     }
   }
 
+  @Override
+  public void onCoordinates(W context) {
+    if (doBuffer) {
+      bufferIn.onCoordinates(context);
+    } else {
+      downstream.onCoordinates(context);
+    }
+  }
+
   public String toString() {
     return sliceToString(buffer);
   }
@@ -9,6 +9,7 @@ package de.ii.xtraplatform.features.domain.transform;
 
 import de.ii.xtraplatform.features.domain.FeatureSchema;
 import de.ii.xtraplatform.features.domain.PropertyBase;
+import de.ii.xtraplatform.geometries.domain.Coordinates;
 import java.util.Arrays;
 import java.util.Objects;
 import java.util.Optional;
@@ -32,7 +33,11 @@ public interface PropertySfFlat extends PropertyBase<PropertySfFlat, FeatureSche
   @Value.Lazy
   default boolean hasCoordinates() {
     return getNestedProperties().stream()
-        .anyMatch(child -> child.isCoordinate() || child.hasCoordinates());
+        .anyMatch(
+            child ->
+                child.isCoordinate()
+                    || child.getCoordinates().isPresent()
+                    || child.hasCoordinates());
   }
 
   @Value.Lazy
@@ -152,6 +157,10 @@ public interface PropertySfFlat extends PropertyBase<PropertySfFlat, FeatureSche
 
   @Value.Lazy
   default Coordinate[] getJtsNestedCoordinateArray() {
+    if (getCoordinates().isPresent()) {
+      return toJtsCoordinates(getCoordinates().get());
+    }
+
     return getNestedProperties().stream()
         .map(PropertySfFlat::getJtsCoordinate)
         .filter(Optional::isPresent)
@@ -161,6 +170,12 @@ public interface PropertySfFlat extends PropertyBase<PropertySfFlat, FeatureSche
 
   @Value.Lazy
   default Optional<Coordinate> getJtsCoordinate() {
+    if (getCoordinates().isPresent()) {
+      Coordinate[] coordinates = toJtsCoordinates(getCoordinates().get());
+
+      return coordinates.length > 0 ? Optional.of(coordinates[0]) : Optional.empty();
+    }
+
     Coordinate coordinate = new Coordinate();
     int i = 0;
 
@@ -188,4 +203,17 @@ public interface PropertySfFlat extends PropertyBase<PropertySfFlat, FeatureSche
     }
     return i >= 2 ? Optional.of(coordinate) : Optional.empty();
   }
+
+  private static Coordinate[] toJtsCoordinates(Coordinates coordinates) {
+    Coordinate[] jtsCoordinates = new Coordinate[coordinates.getNumberOfPositions()];
+
+    for (int i = 0; i < jtsCoordinates.length; i++) {
+      jtsCoordinates[i] =
+          coordinates.getDimension() > 2
+              ? new Coordinate(coordinates.get(i, 0), coordinates.get(i, 1), coordinates.get(i, 2))
+              : new Coordinate(coordinates.get(i, 0), coordinates.get(i, 1));
+    }
+
+    return jtsCoordinates;
+  }
 }
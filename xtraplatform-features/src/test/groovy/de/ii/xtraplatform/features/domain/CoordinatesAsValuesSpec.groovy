@@ -0,0 +1,119 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.xtraplatform.features.domain
+
+import de.ii.xtraplatform.features.app.ImmutableCoordinatesProcessorFeatureTokens
+import de.ii.xtraplatform.features.app.ImmutableCoordinatesWriterFeatureTokens
+import de.ii.xtraplatform.geometries.domain.CoordinatesTransformer
+import de.ii.xtraplatform.geometries.domain.ImmutableCoordinatesTransformer
+import de.ii.xtraplatform.geometries.domain.SimpleFeatureGeometry
+import spock.lang.Specification
+
+class CoordinatesAsValuesSpec extends Specification {
+
+    def 'same values as the text path: #casename'() {
+
+        given:
+
+        FeatureEventHandler.ModifiableContext<FeatureSchema, SchemaMapping> context = ModifiableGenericContext.create()
+        context.setQuery(ImmutableFeatureQuery.builder().type('ft').geometryPrecision(precision).build())
+        context.setGeometryType(geometryType)
+
+        when:
+
+        List<String> text = transform(context, coordinates, dimension, false)
+        List<String> values = transform(context, coordinates, dimension, true)
+
+        then:
+
+        values == text
+
+        // the text path formats the values only if they are transformed, otherwise they are passed
+        // on verbatim, so the values without precision are already formatted like doubles
+        where:
+
+        casename                       | geometryType                       | dimension | precision | coordinates
+        "line string"                  | SimpleFeatureGeometry.LINE_STRING  | 2         | [0, 0, 0] | "8.18523495507722 49.698295103021096,8.185 49.698"
+        "point with z"                 | SimpleFeatureGeometry.POINT        | 3         | [0, 0, 0] | "8.5 49.25 100.75"
+        "multi point"                  | SimpleFeatureGeometry.MULTI_POINT  | 2         | [0, 0, 0] | "6.406233970262905 50.1501333536934"
+        "polygon ring with precision"  | SimpleFeatureGeometry.POLYGON      | 2         | [3, 3, 0] | "8.123456 49.987654,8.2 49.9,8.3 49.8,8.123456 49.987654"
+        "integral values, precision"   | SimpleFeatureGeometry.LINE_STRING  | 2         | [2, 2, 0] | "10 20,30 40"
+    }
+
+    static List<String> transform(FeatureEventHandler.ModifiableContext<FeatureSchema, SchemaMapping> context, String coordinates, int dimension, boolean acceptsCoordinates) {
+        EventRecorder recorder = new EventRecorder()
+        ImmutableCoordinatesTransformer.Builder builder = ImmutableCoordinatesTransformer.builder()
+                .sourceDimension(dimension)
+                .targetDimension(dimension)
+                .coordinatesWriter(ImmutableCoordinatesWriterFeatureTokens.of(recorder, dimension, context))
+
+        if (context.query().getGeometryPrecision().get(0) > 0) {
+            builder.precision(context.query().getGeometryPrecision())
+        }
+        if (acceptsCoordinates) {
+            builder.doubleArrayProcessor(ImmutableCoordinatesProcessorFeatureTokens.of(recorder, context))
+        }
+
+        CoordinatesTransformer transformer = builder.build()
+        transformer.write(coordinates)
+        transformer.close()
+
+        return recorder.events
+    }
+
+    // uses the default onCoordinates, i.e. CoordinatesAsValues
+    static class EventRecorder implements FeatureEventHandler<FeatureSchema, SchemaMapping, FeatureEventHandler.ModifiableContext<FeatureSchema, SchemaMapping>> {
+
+        List<String> events = []
+
+        @Override
+        void onStart(FeatureEventHandler.ModifiableContext<FeatureSchema, SchemaMapping> context) {
+            events << "start"
+        }
+
+        @Override
+        void onEnd(FeatureEventHandler.ModifiableContext<FeatureSchema, SchemaMapping> context) {
+            events << "end"
+        }
+
+        @Override
+        void onFeatureStart(FeatureEventHandler.ModifiableContext<FeatureSchema, SchemaMapping> context) {
+            events << "featureStart"
+        }
+
+        @Override
+        void onFeatureEnd(FeatureEventHandler.ModifiableContext<FeatureSchema, SchemaMapping> context) {
+            events << "featureEnd"
+        }
+
+        @Override
+        void onObjectStart(FeatureEventHandler.ModifiableContext<FeatureSchema, SchemaMapping> context) {
+            events << "objectStart"
+        }
+
+        @Override
+        void onObjectEnd(FeatureEventHandler.ModifiableContext<FeatureSchema, SchemaMapping> context) {
+            events << "objectEnd"
+        }
+
+        @Override
+        void onArrayStart(FeatureEventHandler.ModifiableContext<FeatureSchema, SchemaMapping> context) {
+            events << "arrayStart"
+        }
+
+        @Override
+        void onArrayEnd(FeatureEventHandler.ModifiableContext<FeatureSchema, SchemaMapping> context) {
+            events << "arrayEnd"
+        }
+
+        @Override
+        void onValue(FeatureEventHandler.ModifiableContext<FeatureSchema, SchemaMapping> context) {
+            events << "value ${context.value()}".toString()
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.xtraplatform.features.domain
+
+import de.ii.xtraplatform.features.domain.SchemaBase.Scope
+import de.ii.xtraplatform.features.domain.transform.ImmutablePropertyTransformation
+import spock.lang.Specification
+
+class DerivedSchemaCacheSpec extends Specification {
+
+    static TypeQuery QUERY = ImmutableFeatureQuery.builder().type("building").build()
+
+    DerivedSchemaCache cache = new DerivedSchemaCache()
+
+    def 'mapping is derived once per query shape'() {
+
+        given:
+
+        int derived = 0
+        SchemaMapping mapping = Stub()
+
+        when:
+
+        SchemaMapping first = cache.getMapping(QUERY, Scope.RETURNABLE, true, [:], { derived++; mapping })
+        SchemaMapping second = cache.getMapping(ImmutableFeatureQuery.builder().type("building").limit(10).offset(20).build(), Scope.RETURNABLE, true, [:], { derived++; mapping })
+
+        then:
+
+        derived == 1
+        first.is(mapping)
+        second.is(mapping)
+    }
+
+    def 'mappings are separated by #casename'() {
+
+        given:
+
+        SchemaMapping mapping = Stub()
+        SchemaMapping otherMapping = Stub()
+        cache.getMapping(QUERY, Scope.RETURNABLE, true, [:], { mapping })
+
+        when:
+
+        SchemaMapping actual = cache.getMapping(query, scope, inCollection, transformations, { otherMapping })
+
+        then:
+
+        actual.is(otherMapping)
+
+        where:
+
+        casename          | query                                                                           | scope            | inCollection | transformations
+        "type"            | ImmutableFeatureQuery.builder().type("address").build()                         | Scope.RETURNABLE | true         | [:]
+        "scope"           | QUERY                                                                           | Scope.RECEIVABLE | true         | [:]
+        "fields"          | ImmutableFeatureQuery.builder().type("building").addFields("name").build()      | Scope.RETURNABLE | true         | [:]
+        "skip geometry"   | ImmutableFeatureQuery.builder().type("building").skipGeometry(true).build()     | Scope.RETURNABLE | true         | [:]
+        "collection"      | QUERY                                                                           | Scope.RETURNABLE | false        | [:]
+        "transformations" | QUERY                                                                           | Scope.RETURNABLE | true         | ["name": [new ImmutablePropertyTransformation.Builder().rename("title").build()]]
+    }
+
+    def 'provider transformations are derived once per type and scope'() {
+
+        given:
+
+        int derived = 0
+
+        when:
+
+        cache.getProviderTransformations("building", Scope.RETURNABLE, { derived++; [:] })
+        cache.getProviderTransformations("building", Scope.RETURNABLE, { derived++; [:] })
+        cache.getProviderTransformations("building", Scope.RECEIVABLE, { derived++; [:] })
+        cache.getProviderTransformations("address", Scope.RETURNABLE, { derived++; [:] })
+
+        then:
+
+        derived == 3
+    }
+
+    def 'mappings are bounded'() {
+
+        given:
+
+        int derived = 0
+        SchemaMapping mapping = Stub()
+
+        when:
+
+        (0..<1000).each { cache.getMapping(ImmutableFeatureQuery.builder().type("type${it}".toString()).build(), Scope.RETURNABLE, true, [:], { derived++; mapping }) }
+
+        then:
+
+        derived == 1000
+        cache.@mappings.size() <= DerivedSchemaCache.MAX_MAPPINGS
+
+        when: "the first query shape was evicted"
+
+        cache.getMapping(ImmutableFeatureQuery.builder().type("type0").build(), Scope.RETURNABLE, true, [:], { derived++; mapping })
+
+        then:
+
+        derived == 1001
+    }
+
+    def 'invalidate drops all derived schemas'() {
+
+        given:
+
+        int derived = 0
+        SchemaMapping mapping = Stub()
+        cache.getMapping(QUERY, Scope.RETURNABLE, true, [:], { derived++; mapping })
+        cache.getProviderTransformations("building", Scope.RETURNABLE, { derived++; [:] })
+
+        when:
+
+        cache.invalidate()
+        cache.getMapping(QUERY, Scope.RETURNABLE, true, [:], { derived++; mapping })
+        cache.getProviderTransformations("building", Scope.RETURNABLE, { derived++; [:] })
+
+        then:
+
+        derived == 4
+    }
+}
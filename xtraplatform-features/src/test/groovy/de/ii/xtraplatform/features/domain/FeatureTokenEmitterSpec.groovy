@@ -58,4 +58,51 @@ class FeatureTokenEmitterSpec extends Specification {
         tokens == FeatureTokenFixtures.COLLECTION
 
     }
+
+    def 'feature with coordinates'() {
+
+        given:
+
+        when:
+
+        FeatureTokenFixtures.SINGLE_FEATURE_LINE_STRING_COORDINATES.forEach(token -> tokenReader.onToken(token))
+
+        then:
+
+        tokens == FeatureTokenFixtures.SINGLE_FEATURE_LINE_STRING_COORDINATES
+
+    }
+
+    def 'feature with coordinates through buffer'() {
+
+        given:
+
+        List<Object> input = FeatureTokenFixtures.SINGLE_FEATURE_LINE_STRING_COORDINATES
+        FeatureTokenBuffer buffer = new FeatureTokenBuffer(eventHandler, createContext())
+        FeatureTokenReader bufferReader = new FeatureTokenReader(buffer, createContext())
+
+        when:
+
+        buffer.bufferStart()
+        input.subList(0, input.size() - 1).forEach(token -> bufferReader.onToken(token))
+        buffer.bufferStop(true)
+        bufferReader.onToken(FeatureTokenType.INPUT_END)
+
+        then:
+
+        tokens == input
+        // the coordinates are passed on as is, not copied
+        tokens[13].is(input[13])
+
+    }
+
+    FeatureEventHandler.ModifiableContext<FeatureSchema, SchemaMapping> createContext() {
+        FeatureEventHandler.ModifiableContext<FeatureSchema, SchemaMapping> context = ModifiableGenericContext.create();
+        SchemaMapping mapping = Mock()
+        mapping.getPathSeparator() >> Optional.empty()
+        context.setMappings([ft: mapping])
+        context.setType('ft')
+        context.setQuery(ImmutableFeatureQuery.builder().type('ft').build())
+        return context
+    }
 }
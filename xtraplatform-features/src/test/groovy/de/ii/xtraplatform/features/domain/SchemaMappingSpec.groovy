@@ -46,6 +46,42 @@ class SchemaMappingSpec extends Specification {
 
     }
 
+    def 'path index: #casename'() {
+
+        when:
+
+        SchemaMapping actual = mapping(schema, mappingOperationResolver, implicitMappingResolver)
+        SchemaPathIndex<FeatureSchema> sourceIndex = actual.getSourcePathIndex()
+        SchemaPathIndex<FeatureSchema> targetIndex = actual.getTargetPathIndex()
+
+        then:
+
+        actual.getSchemasBySourcePath().keySet().every { path ->
+            int id = sourceIndex.getId(path)
+            id != SchemaPathIndex.UNKNOWN
+                    && sourceIndex.getSchemas(id) == actual.getSchemasForSourcePath(path)
+                    && sourceIndex.getPositions(id) == actual.getPositionsForSourcePath(path)
+                    && sourceIndex.getParentSchemas(id) == actual.getParentSchemasForSourcePath(path)
+                    && sourceIndex.getParentPositions(id) == actual.getParentPositionsForSourcePath(path)
+        }
+        actual.getSchemasByTargetPath().keySet().every { path ->
+            int id = targetIndex.getId(path)
+            id != SchemaPathIndex.UNKNOWN
+                    && targetIndex.getSchemas(id) == actual.getSchemasForTargetPath(path)
+                    && targetIndex.getPositions(id) == actual.getPositionsForTargetPath(path)
+                    && targetIndex.getParentSchemas(id) == actual.getParentSchemasForTargetPath(path)
+                    && targetIndex.getParentPositions(id) == actual.getParentPositionsForTargetPath(path)
+        }
+        sourceIndex.getId(["unknown"]) == SchemaPathIndex.UNKNOWN
+        sourceIndex.getPositions(SchemaPathIndex.UNKNOWN) == actual.getPositionsForSourcePath(["unknown"])
+
+        where:
+
+        casename                                   | schema
+        "embedded object with concat and backlink" | "pfs_plan-hatObjekt-embedded"
+
+    }
+
     static SchemaMapping mapping(String featureSchemaName, MappingOperationResolver mappingOperationResolver, ImplicitMappingResolver implicitMappingResolver) {
         def schema = FeatureSchemaFixtures.fromYaml(featureSchemaName)
         def schema2 = schema.accept(implicitMappingResolver, List.of())
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.xtraplatform.features.domain.transform
+
+import de.ii.xtraplatform.features.domain.PropertyBase
+import de.ii.xtraplatform.geometries.domain.Coordinates
+import de.ii.xtraplatform.geometries.domain.SimpleFeatureGeometry
+import org.locationtech.jts.geom.Geometry
+import org.locationtech.jts.geom.GeometryFactory
+import spock.lang.Shared
+import spock.lang.Specification
+
+class PropertySfFlatSpec extends Specification {
+
+    @Shared
+    GeometryFactory geometryFactory = new GeometryFactory()
+
+    def 'same geometry from coordinates as from values: #casename'() {
+
+        when:
+
+        Optional<Geometry> expected = geometry(geometryType, fromValues).getJtsGeometry(geometryFactory)
+        Optional<Geometry> actual = geometry(geometryType, fromCoordinates).getJtsGeometry(geometryFactory)
+
+        then:
+
+        expected.isPresent()
+        actual.isPresent()
+        actual.get().equalsExact(expected.get())
+        actual.get().getCoordinates().collect { it.z }.equals(expected.get().getCoordinates().collect { it.z })
+
+        where:
+
+        casename           | geometryType                           | fromValues                                                                                         | fromCoordinates
+        "point"            | SimpleFeatureGeometry.POINT            | [position("8.5", "49.25")]                                                                         | [coordinates(2, 8.5, 49.25)]
+        "point with z"     | SimpleFeatureGeometry.POINT            | [position("8.5", "49.25", "100.75")]                                                               | [coordinates(3, 8.5, 49.25, 100.75)]
+        "multi point"      | SimpleFeatureGeometry.MULTI_POINT      | [array(position("1", "2"), position("3", "4"))]                                                    | [array(coordinates(2, 1, 2), coordinates(2, 3, 4))]
+        "line string"      | SimpleFeatureGeometry.LINE_STRING      | [array(position("1", "2"), position("3", "4"), position("5.5", "6.5"))]                            | [coordinates(2, 1, 2, 3, 4, 5.5, 6.5)]
+        "line string z"    | SimpleFeatureGeometry.LINE_STRING      | [array(position("1", "2", "3"), position("4", "5", "6"))]                                          | [coordinates(3, 1, 2, 3, 4, 5, 6)]
+        "multi line"       | SimpleFeatureGeometry.MULTI_LINE_STRING | [array(array(position("1", "2"), position("3", "4")), array(position("5", "6"), position("7", "8")))] | [array(coordinates(2, 1, 2, 3, 4), coordinates(2, 5, 6, 7, 8))]
+        "polygon"          | SimpleFeatureGeometry.POLYGON          | [array(ring(0, 0, 10, 0, 10, 10, 0, 0), ring(1, 1, 2, 1, 2, 2, 1, 1))]                             | [array(coordinates(2, 0, 0, 10, 0, 10, 10, 0, 0), coordinates(2, 1, 1, 2, 1, 2, 2, 1, 1))]
+        "multi polygon"    | SimpleFeatureGeometry.MULTI_POLYGON    | [array(array(ring(0, 0, 1, 0, 1, 1, 0, 0)), array(ring(5, 5, 6, 5, 6, 6, 5, 5)))]                  | [array(array(coordinates(2, 0, 0, 1, 0, 1, 1, 0, 0)), array(coordinates(2, 5, 5, 6, 5, 6, 6, 5, 5)))]
+    }
+
+    static PropertySfFlat geometry(SimpleFeatureGeometry geometryType, List<PropertySfFlat> nested) {
+        ModifiablePropertySfFlat property = ModifiablePropertySfFlat.create().type(PropertyBase.Type.OBJECT).geometryType(geometryType)
+        nested.each { property.addNestedProperties(it) }
+        return property
+    }
+
+    static PropertySfFlat array(PropertySfFlat... nested) {
+        ModifiablePropertySfFlat property = ModifiablePropertySfFlat.create().type(PropertyBase.Type.ARRAY)
+        nested.each { property.addNestedProperties(it) }
+        return property
+    }
+
+    // the arrays and values that are emitted for a position if coordinates are not passed as primitive values
+    static PropertySfFlat position(String... values) {
+        return array(values.collect { ModifiablePropertySfFlat.create().type(PropertyBase.Type.VALUE).value(it) } as PropertySfFlat[])
+    }
+
+    static PropertySfFlat ring(double... values) {
+        return array((0..<values.length).step(2).collect { position(values[it].toString(), values[it + 1].toString()) } as PropertySfFlat[])
+    }
+
+    static PropertySfFlat coordinates(int dimension, double... values) {
+        return ModifiablePropertySfFlat.create().type(PropertyBase.Type.ARRAY).coordinates(Coordinates.of(values, dimension))
+    }
+}
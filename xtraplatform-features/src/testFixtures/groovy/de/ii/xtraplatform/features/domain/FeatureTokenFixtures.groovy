@@ -9,6 +9,7 @@ package de.ii.xtraplatform.features.domain
 
 import com.fasterxml.jackson.databind.ObjectMapper
 import com.google.common.io.Resources
+import de.ii.xtraplatform.geometries.domain.Coordinates
 import de.ii.xtraplatform.geometries.domain.SimpleFeatureGeometry
 
 import java.util.stream.Collectors
@@ -91,6 +92,27 @@ class FeatureTokenFixtures {
 
     public static final List<Object> SINGLE_FEATURE_POINT_SOURCE = withType("biotop", SINGLE_FEATURE_POINT)
 
+    public static final List<Object> SINGLE_FEATURE_LINE_STRING_COORDINATES = [
+            FeatureTokenType.INPUT,
+            true,
+            FeatureTokenType.FEATURE,
+            FeatureTokenType.VALUE,
+            ["id"],
+            "24",
+            Type.STRING,
+            FeatureTokenType.OBJECT,
+            ["geometry"],
+            SimpleFeatureGeometry.LINE_STRING,
+            2,
+            FeatureTokenType.COORDINATES,
+            ["geometry"],
+            Coordinates.of([8.18523495507722, 49.698295103021096, 8.185, 49.698] as double[], 2),
+            FeatureTokenType.OBJECT_END,
+            ["geometry"],
+            FeatureTokenType.FEATURE_END,
+            FeatureTokenType.INPUT_END
+    ]
+
     public static final List<Object> SINGLE_FEATURE_MULTI_POINT = [
             FeatureTokenType.INPUT,
             true,
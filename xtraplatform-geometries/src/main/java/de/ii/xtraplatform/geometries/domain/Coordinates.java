@@ -0,0 +1,71 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.xtraplatform.geometries.domain;
+
+import java.util.Arrays;
+
+/**
+ * A sequence of positions as primitive values, e.g. a point, a line string or a polygon ring. The
+ * first {@link #getLength()} values of the array are used, the array is neither copied nor
+ * modified.
+ */
+public final class Coordinates {
+
+  private final double[] values;
+  private final int length;
+  private final int dimension;
+
+  private Coordinates(double[] values, int length, int dimension) {
+    if (dimension < 2 || length % dimension != 0 || length > values.length) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Invalid coordinates: length %d, dimension %d, capacity %d",
+              length, dimension, values.length));
+    }
+    this.values = values;
+    this.length = length;
+    this.dimension = dimension;
+  }
+
+  public static Coordinates of(double[] values, int dimension) {
+    return new Coordinates(values, values.length, dimension);
+  }
+
+  public static Coordinates of(double[] values, int length, int dimension) {
+    return new Coordinates(values, length, dimension);
+  }
+
+  public double[] getValues() {
+    return values;
+  }
+
+  public int getLength() {
+    return length;
+  }
+
+  public int getDimension() {
+    return dimension;
+  }
+
+  public int getNumberOfPositions() {
+    return length / dimension;
+  }
+
+  public double get(int position, int axis) {
+    return values[position * dimension + axis];
+  }
+
+  @Override
+  public String toString() {
+    return "Coordinates{dimension="
+        + dimension
+        + ", values="
+        + Arrays.toString(Arrays.copyOf(values, length))
+        + "}";
+  }
+}
@@ -29,6 +29,12 @@ public abstract class CoordinatesTransformer extends Writer {
 
   protected abstract Optional<CrsTransformer> getCrsTransformer();
 
+  /**
+   * If present, the coordinates are passed to this processor as primitive values after all
+   * transformations instead of being formatted for the coordinates writer.
+   */
+  protected abstract Optional<DoubleArrayProcessor> getDoubleArrayProcessor();
+
   @Value.Default
   protected boolean isSwapXY() {
     return false;
@@ -76,8 +82,11 @@ public abstract class CoordinatesTransformer extends Writer {
   @Value.Derived
   protected Optional<DoubleArrayProcessor> getTransformationPipeline() {
     DoubleArrayProcessor lastTransformation =
-        ImmutableToChars.of(getCoordinatesWriter(), getPrecision());
-    boolean doTransform = getPrecision().stream().anyMatch(precision -> precision > 0);
+        getDoubleArrayProcessor()
+            .orElseGet(() -> ImmutableToChars.of(getCoordinatesWriter(), getPrecision()));
+    boolean doTransform =
+        getDoubleArrayProcessor().isPresent()
+            || getPrecision().stream().anyMatch(precision -> precision > 0);
 
     // last
     if (isSwapXY()) {
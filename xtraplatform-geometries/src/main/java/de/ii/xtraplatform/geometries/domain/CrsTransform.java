@@ -19,9 +19,19 @@ public abstract class CrsTransform implements CoordinatesTransformation {
 
   @Override
   public void onCoordinates(double[] coordinates, int length, int dimension) throws IOException {
-    double[] transformed =
-        getCrsTransformer().transform(coordinates, length / dimension, dimension);
+    // the buffer is owned by the pipeline, so the coordinates are transformed in place
+    boolean success =
+        getCrsTransformer()
+            .transform(coordinates, 0, coordinates, 0, length / dimension, dimension);
 
-    getNext().onCoordinates(transformed, length, dimension);
+    if (!success) {
+      throw new IOException(
+          String.format(
+              "Failed to transform coordinates from %s to %s.",
+              getCrsTransformer().getSourceCrs().toHumanReadableString(),
+              getCrsTransformer().getTargetCrs().toHumanReadableString()));
+    }
+
+    getNext().onCoordinates(coordinates, length, dimension);
   }
 }
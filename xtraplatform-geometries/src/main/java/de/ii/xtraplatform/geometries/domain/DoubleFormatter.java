@@ -0,0 +1,134 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.xtraplatform.geometries.domain;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+/**
+ * Formats doubles into a reusable char buffer. The output is identical to {@link
+ * String#valueOf(double)} and, if a precision is given, to {@link BigDecimal#setScale(int,
+ * RoundingMode)} with {@link RoundingMode#HALF_UP} applied to that string. Common cases are written
+ * without allocations, the others fall back to the string based formatting.
+ */
+final class DoubleFormatter {
+
+  private static final int MAX_FAST_PRECISION = 15;
+  private static final double MAX_FAST_SCALED = 1e15;
+  private static final double MAX_FAST_INTEGRAL = 1e7;
+  private static final long[] POWERS_OF_TEN = new long[MAX_FAST_PRECISION + 1];
+
+  static {
+    POWERS_OF_TEN[0] = 1;
+    for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+      POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+    }
+  }
+
+  private char[] buffer;
+
+  DoubleFormatter() {
+    this.buffer = new char[32];
+  }
+
+  /**
+   * @return the buffer, only valid until the next call of {@link #format(double, int)}
+   */
+  char[] getBuffer() {
+    return buffer;
+  }
+
+  /**
+   * @return the number of chars written to the buffer
+   */
+  int format(double value, int precision) {
+    if (precision > 0) {
+      if (precision <= MAX_FAST_PRECISION && Double.isFinite(value)) {
+        double scaled = Math.abs(value) * POWERS_OF_TEN[precision];
+
+        if (scaled < MAX_FAST_SCALED) {
+          double floor = Math.floor(scaled);
+          double fraction = scaled - floor;
+
+          // the decimal string and the double might be rounded differently close to a tie
+          if (Math.abs(fraction - 0.5) > 16 * Math.ulp(scaled)) {
+            long rounded = (long) floor + (fraction > 0.5 ? 1 : 0);
+
+            return writeFixed(rounded, value < 0, precision);
+          }
+        }
+      }
+
+      return write(
+          new BigDecimal(String.valueOf(value))
+              .setScale(precision, RoundingMode.HALF_UP)
+              .toPlainString());
+    }
+
+    if (value == (long) value && Math.abs(value) < MAX_FAST_INTEGRAL) {
+      return writeIntegral((long) value, Double.doubleToRawLongBits(value) < 0);
+    }
+
+    return write(String.valueOf(value));
+  }
+
+  private int writeFixed(long rounded, boolean negative, int precision) {
+    long integral = rounded / POWERS_OF_TEN[precision];
+    long fraction = rounded % POWERS_OF_TEN[precision];
+    int pos = 0;
+
+    // BigDecimal has no negative zero
+    if (negative && rounded != 0) {
+      buffer[pos++] = '-';
+    }
+    pos = writeDigits(integral, pos);
+    buffer[pos++] = '.';
+    for (int i = precision - 1; i >= 0; i--) {
+      buffer[pos + i] = (char) ('0' + fraction % 10);
+      fraction /= 10;
+    }
+
+    return pos + precision;
+  }
+
+  private int writeIntegral(long integral, boolean negative) {
+    int pos = 0;
+
+    if (negative) {
+      buffer[pos++] = '-';
+    }
+    pos = writeDigits(Math.abs(integral), pos);
+    buffer[pos++] = '.';
+    buffer[pos++] = '0';
+
+    return pos;
+  }
+
+  private int writeDigits(long value, int pos) {
+    int digits = 1;
+    for (long rest = value / 10; rest > 0; rest /= 10) {
+      digits++;
+    }
+    for (int i = pos + digits - 1; i >= pos; i--) {
+      buffer[i] = (char) ('0' + value % 10);
+      value /= 10;
+    }
+
+    return pos + digits;
+  }
+
+  private int write(String value) {
+    if (value.length() > buffer.length) {
+      this.buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, value.length()));
+    }
+    value.getChars(0, value.length(), buffer, 0);
+
+    return value.length();
+  }
+}
@@ -8,15 +8,15 @@
 package de.ii.xtraplatform.geometries.domain;
 
 import java.io.IOException;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.List;
 import org.immutables.value.Value;
 
 @Value.Immutable
 public abstract class ToChars implements DoubleArrayProcessor {
 
+  private final DoubleFormatter formatter = new DoubleFormatter();
   private boolean isFirst = true;
+  private int[] precision;
 
   @Value.Parameter
   protected abstract SeperateStringsProcessor getCoordinatesProcessor();
@@ -26,25 +26,26 @@ public abstract class ToChars implements DoubleArrayProcessor {
 
   @Override
   public void onStart() throws IOException {
+    this.isFirst = true;
     getCoordinatesProcessor().onStart();
   }
 
   @Override
   public void onCoordinates(double[] coordinates, int length, int dimension) throws IOException {
-    Integer[] precision = getPrecision().toArray(getPrecision().toArray(new Integer[0]));
+    if (precision == null) {
+      this.precision = getPrecision().stream().mapToInt(Integer::intValue).toArray();
+    }
+
     for (int i = 0; i < length; i++) {
       int axisIndex = i % dimension;
       Axis axis = Axis.fromInt[axisIndex];
-      String value = String.valueOf(coordinates[i]);
 
       /*
       TODO: will not be applied when no transformations are given
        move to separate step
       */
-      if (precision[axisIndex] > 0) {
-        BigDecimal bd = new BigDecimal(value).setScale(precision[axisIndex], RoundingMode.HALF_UP);
-        value = bd.toPlainString();
-      }
+      int charsLength = formatter.format(coordinates[i], precision[axisIndex]);
+      char[] chars = formatter.getBuffer();
 
       switch (axis) {
         case X:
@@ -53,13 +54,13 @@ public abstract class ToChars implements DoubleArrayProcessor {
           } else {
             getCoordinatesProcessor().onSeparator();
           }
-          getCoordinatesProcessor().onX(value.toCharArray(), 0, value.length());
+          getCoordinatesProcessor().onX(chars, 0, charsLength);
           break;
         case Y:
-          getCoordinatesProcessor().onY(value.toCharArray(), 0, value.length());
+          getCoordinatesProcessor().onY(chars, 0, charsLength);
           break;
         case Z:
-          getCoordinatesProcessor().onZ(value.toCharArray(), 0, value.length());
+          getCoordinatesProcessor().onZ(chars, 0, charsLength);
           break;
       }
     }
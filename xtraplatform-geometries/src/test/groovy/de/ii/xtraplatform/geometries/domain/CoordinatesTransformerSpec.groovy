@@ -67,4 +67,35 @@ class CoordinatesTransformerSpec extends Specification {
         1 * coordinatesWriter.onEnd()
         0 * _
     }
+
+    def 'reuse'() {
+
+        given:
+
+        CoordinatesWriter<?> coordinatesWriter = Mock()
+        CoordinatesTransformer coordinatesTransformer = ImmutableCoordinatesTransformer.builder()
+                                                                                    .sourceDimension(2)
+                                                                                    .targetDimension(2)
+                                                                                    .coordinatesWriter(coordinatesWriter)
+                                                                                    .isSwapXY(true)
+                                                                                    .build()
+        String coordinates = "10.81 10.33, 10.91 20.05"
+
+        when:
+
+        coordinatesTransformer.write(coordinates)
+        coordinatesTransformer.close()
+        coordinatesTransformer.write(coordinates)
+        coordinatesTransformer.close()
+
+        then:
+
+        2 * coordinatesWriter.onStart()
+        4 * coordinatesWriter.onX(*_)
+        4 * coordinatesWriter.onY(*_)
+        2 * coordinatesWriter.onSeparator()
+        4 * coordinatesWriter.onFlush()
+        2 * coordinatesWriter.onEnd()
+        0 * _
+    }
 }
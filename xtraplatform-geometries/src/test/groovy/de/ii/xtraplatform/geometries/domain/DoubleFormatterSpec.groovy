@@ -0,0 +1,108 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.xtraplatform.geometries.domain
+
+import spock.lang.Specification
+
+import java.math.RoundingMode
+
+class DoubleFormatterSpec extends Specification {
+
+    static final List<Double> EDGE_CASES = [0.0d, -0.0d, 0.5d, -0.5d, 0.05d, -0.004d, 0.125d, 1.005d, -1.005d, 2.675d,
+                                            1e-3d, 5e-4d, 9999999.0d, -9999999.0d, 1e7d, 1e22d, 1e300d,
+                                            Double.MIN_VALUE, Double.MAX_VALUE]
+
+    def 'same output as String.valueOf and BigDecimal, precision #precision'() {
+
+        given:
+
+        DoubleFormatter formatter = new DoubleFormatter()
+        List<Double> values = EDGE_CASES + randomValues(new Random(precision), 20000)
+
+        when:
+
+        List<Double> mismatches = values.findAll { double value ->
+            int length = formatter.format(value, precision)
+            new String(formatter.getBuffer(), 0, length) != reference(value, precision)
+        }
+
+        then:
+
+        mismatches.isEmpty()
+
+        where:
+
+        precision << (0..17)
+    }
+
+    def 'ToChars uses the configured precision per axis'() {
+
+        given:
+
+        SeperateStringsProcessor next = Mock()
+        ToChars toChars = ImmutableToChars.of(next, [2, 0, 1])
+        double[] coordinates = [10.815, 50.125, 100.25, -0.001, 7.0, -3.05]
+
+        when:
+
+        toChars.onCoordinates(coordinates, coordinates.length, 3)
+
+        then:
+
+        1 * next.onX(chars("10.82"), 0, 5)
+        1 * next.onY(chars("50.125"), 0, 6)
+        1 * next.onZ(chars("100.3"), 0, 5)
+        1 * next.onSeparator()
+        1 * next.onX(chars("0.00"), 0, 4)
+        1 * next.onY(chars("7.0"), 0, 3)
+        1 * next.onZ(chars("-3.1"), 0, 4)
+        0 * _
+    }
+
+    // the buffer is reused, so only the given length is compared
+    static Closure chars(String expected) {
+        return { char[] buffer -> new String(buffer, 0, expected.length()) == expected }
+    }
+
+    // the formatting used before DoubleFormatter was introduced
+    static String reference(double value, int precision) {
+        String formatted = String.valueOf(value)
+        if (precision > 0) {
+            formatted = new BigDecimal(formatted).setScale(precision, RoundingMode.HALF_UP).toPlainString()
+        }
+        return formatted
+    }
+
+    static List<Double> randomValues(Random random, int count) {
+        List<Double> values = []
+        count.times {
+            double value
+            switch (random.nextInt(5)) {
+                case 0:
+                    value = Double.longBitsToDouble(random.nextLong())
+                    break
+                case 1:
+                    // decimal values with a tie in some digit
+                    value = (random.nextInt(20000000) - 10000000) / Math.pow(10, random.nextInt(9)) + 5 * Math.pow(10, -1 - random.nextInt(9))
+                    break
+                case 2:
+                    value = random.nextInt(20000000) - 10000000
+                    break
+                case 3:
+                    value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(40) - 20)
+                    break
+                default:
+                    value = random.nextInt(360) - 180 + random.nextDouble()
+            }
+            if (Double.isFinite(value)) {
+                values << value
+            }
+        }
+        return values
+    }
+}
@@ -13,9 +13,12 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
 import java.util.Set;
 import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.index.strtree.STRtree;
 
 class ClusterAnalysis {
 
@@ -23,41 +26,100 @@ class ClusterAnalysis {
   Map<MvtFeature, MvtFeature> inCluster = new HashMap<>();
   Set<MvtFeature> standalone = new HashSet<>();
 
+  /**
+   * Determines the clusters of connected features. Candidate pairs are taken from an envelope
+   * index, the connected components are tracked with union-find, so pairs that are already in the
+   * same cluster are not tested again. The key of a cluster is its first feature in list order.
+   */
   static ClusterAnalysis analyse(List<MvtFeature> features, boolean boundary) {
-    // determine clusters of connected features
-    ClusterAnalysis clusterResult = new ClusterAnalysis();
-    for (int i = 0; i < features.size(); i++) {
-      MvtFeature fi = features.get(i);
-      Geometry gi = fi.getGeometry();
-      Optional<MvtFeature> cluster = Optional.ofNullable(clusterResult.inCluster.get(fi));
-      for (int j = i + 1; j < features.size(); j++) {
-        MvtFeature fj = features.get(j);
-        Geometry gj = fj.getGeometry();
-        boolean clustered;
-        try {
-          clustered = boundary ? gi.getBoundary().intersects(gj.getBoundary()) : gi.intersects(gj);
-        } catch (Throwable ignore) {
-          // ignore feature
+    int size = features.size();
+    Geometry[] geometries = new Geometry[size];
+    STRtree index = new STRtree();
+
+    for (int i = 0; i < size; i++) {
+      try {
+        Geometry geometry = features.get(i).getGeometry();
+        geometries[i] = boundary ? geometry.getBoundary() : geometry;
+        index.insert(geometries[i].getEnvelopeInternal(), i);
+      } catch (Throwable ignore) {
+        // ignore feature, it will be standalone
+        geometries[i] = null;
+      }
+    }
+
+    int[] parents = new int[size];
+    for (int i = 0; i < size; i++) {
+      parents[i] = i;
+    }
+
+    for (int i = 0; i < size; i++) {
+      if (Objects.isNull(geometries[i])) {
+        continue;
+      }
+      PreparedGeometry prepared = null;
+
+      for (Object candidate : index.query(geometries[i].getEnvelopeInternal())) {
+        int j = (Integer) candidate;
+        if (j <= i || find(parents, i) == find(parents, j)) {
           continue;
         }
-        if (clustered) {
-          if (cluster.isPresent()) {
-            // already in a cluster, add to the new feature to the cluster
-            clusterResult.clusters.put(cluster.get(), fj);
-            clusterResult.inCluster.put(fj, cluster.get());
-          } else {
-            // new cluster
-            clusterResult.clusters.put(fi, fj);
-            clusterResult.inCluster.put(fj, fi);
+        try {
+          if (Objects.isNull(prepared)) {
+            prepared = PreparedGeometryFactory.prepare(geometries[i]);
           }
+          if (prepared.intersects(geometries[j])) {
+            union(parents, i, j);
+          }
+        } catch (Throwable ignore) {
+          // ignore feature pair
         }
       }
-      // if the feature wasn't already in a cluster and hasn't started a new cluster, it is
-      // standalone
-      if (cluster.isEmpty() && !clusterResult.clusters.containsKey(fi)) {
-        clusterResult.standalone.add(fi);
+    }
+
+    int[] clusterSizes = new int[size];
+    for (int i = 0; i < size; i++) {
+      clusterSizes[find(parents, i)]++;
+    }
+
+    ClusterAnalysis clusterResult = new ClusterAnalysis();
+    for (int i = 0; i < size; i++) {
+      int root = find(parents, i);
+      MvtFeature feature = features.get(i);
+
+      if (clusterSizes[root] == 1) {
+        clusterResult.standalone.add(feature);
+      } else if (root != i) {
+        clusterResult.clusters.put(features.get(root), feature);
+        clusterResult.inCluster.put(feature, features.get(root));
       }
     }
+
     return clusterResult;
   }
+
+  private static int find(int[] parents, int i) {
+    int root = i;
+    while (parents[root] != root) {
+      root = parents[root];
+    }
+    // path compression
+    while (parents[i] != root) {
+      int next = parents[i];
+      parents[i] = root;
+      i = next;
+    }
+    return root;
+  }
+
+  // the smaller index becomes the root, so the root is always the first feature of the cluster
+  private static void union(int[] parents, int i, int j) {
+    int rootI = find(parents, i);
+    int rootJ = find(parents, j);
+
+    if (rootI < rootJ) {
+      parents[rootJ] = rootI;
+    } else if (rootJ < rootI) {
+      parents[rootI] = rootJ;
+    }
+  }
 }
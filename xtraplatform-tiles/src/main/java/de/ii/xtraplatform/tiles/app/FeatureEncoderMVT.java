@@ -9,6 +9,8 @@ package de.ii.xtraplatform.tiles.app;
 
 import de.ii.xtraplatform.base.domain.LogContext;
 import de.ii.xtraplatform.crs.domain.BoundingBox;
+import de.ii.xtraplatform.features.domain.FeatureSchema;
+import de.ii.xtraplatform.features.domain.SchemaMapping;
 import de.ii.xtraplatform.features.domain.transform.FeatureEncoderSfFlat;
 import de.ii.xtraplatform.features.domain.transform.FeatureSfFlat;
 import de.ii.xtraplatform.tiles.domain.LevelTransformation;
@@ -38,6 +40,7 @@ public class FeatureEncoderMVT extends FeatureEncoderSfFlat {
   private static final Logger LOGGER = LoggerFactory.getLogger(FeatureEncoderMVT.class);
   public static final MediaType FORMAT = new MediaType("application", "vnd.mapbox-vector-tile");
   public static final byte[] EMPTY_TILE = new VectorTileEncoder().encode();
+  static final int BUFFER_PIXELS = 8;
 
   private final TileGenerationOptions parameters;
   private final TileCoordinates tile;
@@ -70,7 +73,7 @@ public class FeatureEncoderMVT extends FeatureEncoderSfFlat {
     this.geometryFactoryWorld = new GeometryFactory();
 
     final int size = tile.getTileMatrixSet().getTileSize();
-    final int buffer = 8;
+    final int buffer = BUFFER_PIXELS;
     CoordinateXY[] coords = new CoordinateXY[5];
     coords[0] = new CoordinateXY(-buffer, size + buffer);
     coords[1] = new CoordinateXY(size + buffer, size + buffer);
@@ -95,6 +98,12 @@ public class FeatureEncoderMVT extends FeatureEncoderSfFlat {
     this.mergeFeatures = new HashSet<>();
   }
 
+  @Override
+  public ModifiableContext<FeatureSchema, SchemaMapping> createContext() {
+    // geometries are converted to JTS anyway, so there is no need to format coordinates as text
+    return super.createContext().setAcceptsCoordinates(true);
+  }
+
   @Override
   public void onStart(ModifiableContext context) {
     if (LOGGER.isTraceEnabled()) {
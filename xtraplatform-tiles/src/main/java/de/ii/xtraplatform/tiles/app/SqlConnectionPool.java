@@ -0,0 +1,164 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.xtraplatform.tiles.app;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps read-only connections to a single MBTiles file open between requests. Every connection
+ * caches the prepared statements that were used with it, so the tile lookups only have to bind
+ * the tile coordinates. The pool does not limit the number of concurrent connections, it only
+ * limits how many idle connections are kept.
+ */
+public class SqlConnectionPool {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SqlConnectionPool.class);
+  public static final int DEFAULT_MAX_IDLE =
+      Math.max(4, Runtime.getRuntime().availableProcessors());
+
+  @FunctionalInterface
+  public interface SqlFunction<T> {
+    T apply(PooledConnection connection) throws SQLException;
+  }
+
+  public static class PooledConnection {
+    private final Connection connection;
+    private final Map<String, PreparedStatement> statements;
+
+    PooledConnection(Connection connection) {
+      this.connection = connection;
+      this.statements = new HashMap<>();
+    }
+
+    public PreparedStatement prepare(String sql) throws SQLException {
+      PreparedStatement statement = statements.get(sql);
+
+      if (statement == null || statement.isClosed()) {
+        statement = connection.prepareStatement(sql);
+        statements.put(sql, statement);
+      }
+
+      return statement;
+    }
+
+    public Connection getConnection() {
+      return connection;
+    }
+
+    void close() {
+      for (PreparedStatement statement : statements.values()) {
+        try {
+          statement.close();
+        } catch (SQLException ignore) {
+          // ignore
+        }
+      }
+      statements.clear();
+      try {
+        connection.close();
+      } catch (SQLException ignore) {
+        // ignore
+      }
+    }
+  }
+
+  private final Path file;
+  private final int maxIdle;
+  private final ConcurrentLinkedDeque<PooledConnection> idle;
+  private final AtomicInteger idleCount;
+  private volatile boolean closed;
+
+  public SqlConnectionPool(Path file) {
+    this(file, DEFAULT_MAX_IDLE);
+  }
+
+  public SqlConnectionPool(Path file, int maxIdle) {
+    this.file = file;
+    this.maxIdle = maxIdle;
+    this.idle = new ConcurrentLinkedDeque<>();
+    this.idleCount = new AtomicInteger(0);
+    this.closed = false;
+  }
+
+  public <T> T withConnection(SqlFunction<T> function) throws SQLException {
+    if (closed) {
+      throw new IllegalStateException(
+          String.format("Connection pool for Mbtiles file has been closed: %s", file));
+    }
+
+    PooledConnection connection = borrow();
+    boolean broken = true;
+    try {
+      T result = function.apply(connection);
+      broken = false;
+      return result;
+    } finally {
+      giveBack(connection, broken);
+    }
+  }
+
+  public boolean isClosed() {
+    return closed;
+  }
+
+  public void close() {
+    this.closed = true;
+
+    PooledConnection connection;
+    while ((connection = idle.pollFirst()) != null) {
+      idleCount.decrementAndGet();
+      connection.close();
+    }
+
+    if (LOGGER.isTraceEnabled()) {
+      LOGGER.trace("Closed connection pool for Mbtiles file '{}'.", file);
+    }
+  }
+
+  private PooledConnection borrow() {
+    PooledConnection connection = idle.pollFirst();
+
+    if (connection != null) {
+      idleCount.decrementAndGet();
+      return connection;
+    }
+
+    return new PooledConnection(SqlHelper.getConnection(file, true));
+  }
+
+  private void giveBack(PooledConnection connection, boolean broken) {
+    // after an error the connection state is unknown, so it is not reused
+    if (broken || closed) {
+      connection.close();
+      return;
+    }
+
+    if (idleCount.incrementAndGet() > maxIdle) {
+      idleCount.decrementAndGet();
+      connection.close();
+      return;
+    }
+
+    idle.offerFirst(connection);
+
+    // close() might have drained the queue while we were adding the connection
+    if (closed && idle.remove(connection)) {
+      idleCount.decrementAndGet();
+      connection.close();
+    }
+  }
+}
@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -75,7 +76,15 @@ public class TileCacheDynamic implements ChainedTileProvider, TileCache {
   public TileResult processDelegateResult(TileQuery tile, TileResult tileResult)
       throws IOException {
     if (shouldCache(tile) && tileResult.isAvailable()) {
-      tileStore.put(tile, new ByteArrayInputStream(tileResult.getContent().get()));
+      try {
+        tileStore.put(tile, new ByteArrayInputStream(tileResult.getContent().get()));
+      } catch (IOException e) {
+        // on-demand caching, the generated tile is returned and generated again on the next request
+        if (LOGGER.isWarnEnabled()) {
+          LOGGER.warn(e.getMessage());
+        }
+        return tileResult;
+      }
 
       return tileStore.get(tile);
     }
@@ -116,17 +125,34 @@ public class TileCacheDynamic implements ChainedTileProvider, TileCache {
 
   @Override
   public void cleanupSeeding(TileSeedingJobSet jobSet, String tileSourceLabel) throws IOException {
+    if (tileStore.canBatch()) {
+      tileStore.batching().flush();
+    }
+
     tileStore.tidyup();
   }
 
   @Override
-  public void seed(TileSeedingJob job, String tileSourceLabel, Runnable updateProgress)
+  public void seed(
+      TileSeedingJob job,
+      String tileSourceLabel,
+      Runnable updateProgress,
+      Executor executor,
+      int maxParallelTiles)
       throws IOException {
     if (!isSeeded) {
       return;
     }
 
-    doSeed(job, tileSourceLabel, tileStore, delegate, tileWalker, updateProgress);
+    doSeed(
+        job,
+        tileSourceLabel,
+        tileStore,
+        delegate,
+        tileWalker,
+        updateProgress,
+        executor,
+        maxParallelTiles);
   }
 
   @Override
@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -102,6 +103,10 @@ public class TileCacheImmutable implements ChainedTileProvider, TileCache {
 
   @Override
   public void cleanupSeeding(TileSeedingJobSet jobSet, String tileSourceLabel) throws IOException {
+    if (tileStore.canBatch()) {
+      tileStore.batching().flush();
+    }
+
     tileStore.staging().promote();
 
     tileStore.staging().cleanup();
@@ -110,8 +115,21 @@ public class TileCacheImmutable implements ChainedTileProvider, TileCache {
   }
 
   @Override
-  public void seed(TileSeedingJob job, String tileSourceLabel, Runnable updateProgress)
+  public void seed(
+      TileSeedingJob job,
+      String tileSourceLabel,
+      Runnable updateProgress,
+      Executor executor,
+      int maxParallelTiles)
       throws IOException {
-    doSeed(job, tileSourceLabel, tileStore, delegate, tileWalker, updateProgress);
+    doSeed(
+        job,
+        tileSourceLabel,
+        tileStore,
+        delegate,
+        tileWalker,
+        updateProgress,
+        executor,
+        maxParallelTiles);
   }
 }
@@ -7,6 +7,7 @@
  */
 package de.ii.xtraplatform.tiles.app;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import de.ii.xtraplatform.tiles.domain.ChainedTileProvider;
 import de.ii.xtraplatform.tiles.domain.ImmutableTileQuery;
 import de.ii.xtraplatform.tiles.domain.TileEncoder;
@@ -16,11 +17,21 @@ import de.ii.xtraplatform.tiles.domain.TileProviderFeaturesData;
 import de.ii.xtraplatform.tiles.domain.TileQuery;
 import de.ii.xtraplatform.tiles.domain.TileResult;
 import de.ii.xtraplatform.tiles.domain.TilesetFeatures;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntSupplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import no.ecc.vectortile.VectorTileDecoder;
@@ -31,8 +42,41 @@ import org.slf4j.LoggerFactory;
 public class TileEncoderMvt implements TileEncoder {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(TileEncoderMvt.class);
+  private static final int TILE_LAYERS = 3;
+  private static final int LAYER_NAME = 1;
+  private static final int WIRE_TYPE_VARINT = 0;
+  private static final int WIRE_TYPE_FIXED64 = 1;
+  private static final int WIRE_TYPE_LENGTH_DELIMITED = 2;
+  private static final int WIRE_TYPE_FIXED32 = 5;
 
-  public TileEncoderMvt() {}
+  private final IntSupplier maxParallelLayers;
+  private ExecutorService executor;
+
+  /**
+   * @param maxParallelLayers the number of layers that may be requested in parallel, only
+   *     evaluated when the first tile is combined
+   */
+  public TileEncoderMvt(IntSupplier maxParallelLayers) {
+    this.maxParallelLayers = maxParallelLayers;
+  }
+
+  @Override
+  public synchronized void close() {
+    if (Objects.nonNull(executor)) {
+      executor.shutdown();
+      this.executor = null;
+    }
+  }
+
+  private synchronized ExecutorService getExecutor() {
+    if (Objects.isNull(executor)) {
+      this.executor =
+          Executors.newFixedThreadPool(
+              Math.max(1, maxParallelLayers.getAsInt()),
+              new ThreadFactoryBuilder().setNameFormat("tiles.combine-%d").setDaemon(true).build());
+    }
+    return executor;
+  }
 
   @Override
   public byte[] empty(TileMatrixSetBase tms) {
@@ -46,47 +90,154 @@ public class TileEncoderMvt implements TileEncoder {
     TilesetFeatures combinedTileset = data.getTilesets().get(tile.getTileset());
     List<String> tilesets =
         getLayerTilesets(data, combinedTileset, tile.getGenerationParametersTransient());
-    VectorTileEncoder encoder = new VectorTileEncoder(tile.getTileMatrixSet().getTileExtent());
-    VectorTileDecoder decoder = new VectorTileDecoder();
 
-    for (String tileset : tilesets) {
-      TileQuery tileQuery = ImmutableTileQuery.builder().from(tile).tileset(tileset).build();
-      TileResult layer = tileProvider.get(tileQuery);
+    ExecutorService layerExecutor = getExecutor();
+    List<CompletableFuture<Optional<byte[]>>> requests =
+        tilesets.stream()
+            .map(
+                tileset ->
+                    CompletableFuture.supplyAsync(
+                        () -> getLayer(tile, tileset, tileProvider), layerExecutor))
+            .collect(Collectors.toList());
 
-      int count = 1;
-      while (layer.isError() && count++ < 3) {
-        try {
-          Thread.sleep(100);
-        } catch (Throwable ignore) {
+    List<byte[]> layers = new ArrayList<>();
+    for (CompletableFuture<Optional<byte[]>> request : requests) {
+      try {
+        request.join().ifPresent(layers::add);
+      } catch (CompletionException e) {
+        throw new IOException(e.getCause());
+      }
+    }
+
+    if (layers.isEmpty()) {
+      return empty(tile.getTileMatrixSet());
+    }
+
+    Optional<byte[]> spliced = splice(layers);
+    if (spliced.isPresent()) {
+      return spliced.get();
+    }
+
+    return reencode(tile, layers);
+  }
+
+  private Optional<byte[]> getLayer(
+      TileQuery tile, String tileset, ChainedTileProvider tileProvider) {
+    TileQuery tileQuery = ImmutableTileQuery.builder().from(tile).tileset(tileset).build();
+    TileResult layer = tileProvider.get(tileQuery);
+
+    // transient errors like a busy cache are retried once
+    if (layer.isError()) {
+      layer = tileProvider.get(tileQuery);
+    }
+
+    if (layer.isError()) {
+      if (LOGGER.isWarnEnabled()) {
+        LOGGER.warn(
+            "Failure to get layer '{}' of combined vector tile {}/{}/{}/{} (format '{}'), the layer will be ignored. Reason: {}",
+            tileset,
+            tileQuery.getTileMatrixSet().getId(),
+            tileQuery.getLevel(),
+            tileQuery.getRow(),
+            tileQuery.getCol(),
+            tileQuery.getMediaType().toString(),
+            layer.getError().orElse("unknown"));
+      }
+      return Optional.empty();
+    }
+
+    if (layer.isAvailable()) {
+      return layer.getContent();
+    }
+
+    return Optional.empty();
+  }
+
+  /**
+   * A vector tile is a protobuf message with the layers as repeated field, so the encoded layers
+   * of the component tiles can be concatenated as is. This is only possible if every layer name
+   * occurs only once, otherwise the features of the layers have to be merged. Returns empty in
+   * that case or if one of the component tiles cannot be parsed.
+   */
+  private static Optional<byte[]> splice(List<byte[]> tiles) {
+    ByteArrayOutputStream combined =
+        new ByteArrayOutputStream(tiles.stream().mapToInt(tile -> tile.length).sum());
+    Set<String> layerNames = new HashSet<>();
+
+    for (byte[] tile : tiles) {
+      ProtobufReader reader = new ProtobufReader(tile, 0, tile.length);
+
+      while (reader.hasNext()) {
+        int fieldStart = reader.position();
+        long key = reader.readVarint();
+        int field = (int) (key >>> 3);
+        int wireType = (int) (key & 0x7);
+
+        if (field == TILE_LAYERS && wireType == WIRE_TYPE_LENGTH_DELIMITED) {
+          int length = reader.readLength();
+          int layerStart = reader.position();
+          reader.skip(length);
+
+          Optional<String> layerName = getLayerName(tile, layerStart, layerStart + length);
+          if (layerName.isEmpty() || !layerNames.add(layerName.get())) {
+            return Optional.empty();
+          }
+
+          combined.write(tile, fieldStart, reader.position() - fieldStart);
+        } else if (!reader.skipField(wireType)) {
+          return Optional.empty();
         }
-        layer = tileProvider.get(tileQuery);
       }
 
-      if (layer.isError()) {
-        if (LOGGER.isWarnEnabled()) {
-          LOGGER.warn(
-              "Failure to get layer '{}' of combined vector tile {}/{}/{}/{} (format '{}'), the layer will be ignored. Reason: {}",
-              tileset,
-              tileQuery.getTileMatrixSet().getId(),
-              tileQuery.getLevel(),
-              tileQuery.getRow(),
-              tileQuery.getCol(),
-              tileQuery.getMediaType().toString(),
-              layer.getError().orElse("unknown"));
+      if (reader.isInvalid()) {
+        return Optional.empty();
+      }
+    }
+
+    return Optional.of(combined.toByteArray());
+  }
+
+  private static Optional<String> getLayerName(byte[] tile, int start, int end) {
+    ProtobufReader reader = new ProtobufReader(tile, start, end);
+
+    while (reader.hasNext()) {
+      long key = reader.readVarint();
+      int field = (int) (key >>> 3);
+      int wireType = (int) (key & 0x7);
+
+      if (field == LAYER_NAME && wireType == WIRE_TYPE_LENGTH_DELIMITED) {
+        int length = reader.readLength();
+        int nameStart = reader.position();
+        reader.skip(length);
+
+        if (reader.isInvalid()) {
+          return Optional.empty();
         }
-      } else if (layer.isAvailable()) {
-        decoder
-            .decode(layer.getContent().get())
-            .forEach(
-                feature ->
-                    encoder.addFeature(
-                        feature.getLayerName(),
-                        feature.getAttributes(),
-                        feature.getGeometry(),
-                        feature.getId()));
+        return Optional.of(new String(tile, nameStart, length, StandardCharsets.UTF_8));
+      } else if (!reader.skipField(wireType)) {
+        return Optional.empty();
       }
     }
 
+    return Optional.empty();
+  }
+
+  private static byte[] reencode(TileQuery tile, List<byte[]> tiles) throws IOException {
+    VectorTileEncoder encoder = new VectorTileEncoder(tile.getTileMatrixSet().getTileExtent());
+    VectorTileDecoder decoder = new VectorTileDecoder();
+
+    for (byte[] layer : tiles) {
+      decoder
+          .decode(layer)
+          .forEach(
+              feature ->
+                  encoder.addFeature(
+                      feature.getLayerName(),
+                      feature.getAttributes(),
+                      feature.getGeometry(),
+                      feature.getId()));
+    }
+
     return encoder.encode();
   }
 
@@ -112,4 +263,85 @@ public class TileEncoderMvt implements TileEncoder {
         .distinct()
         .collect(Collectors.toList());
   }
+
+  private static final class ProtobufReader {
+    private final byte[] bytes;
+    private final int end;
+    private int position;
+    private boolean invalid;
+
+    ProtobufReader(byte[] bytes, int start, int end) {
+      this.bytes = bytes;
+      this.end = end;
+      this.position = start;
+      this.invalid = false;
+    }
+
+    boolean hasNext() {
+      return !invalid && position < end;
+    }
+
+    boolean isInvalid() {
+      return invalid;
+    }
+
+    int position() {
+      return position;
+    }
+
+    long readVarint() {
+      long value = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        if (position >= end) {
+          invalid = true;
+          return 0;
+        }
+        byte b = bytes[position++];
+        value |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+      invalid = true;
+      return 0;
+    }
+
+    int readLength() {
+      long length = readVarint();
+      if (length < 0 || length > end - position) {
+        invalid = true;
+        return 0;
+      }
+      return (int) length;
+    }
+
+    void skip(int length) {
+      if (length > end - position) {
+        invalid = true;
+        position = end;
+        return;
+      }
+      position += length;
+    }
+
+    boolean skipField(int wireType) {
+      switch (wireType) {
+        case WIRE_TYPE_VARINT:
+          readVarint();
+          break;
+        case WIRE_TYPE_FIXED64:
+          skip(8);
+          break;
+        case WIRE_TYPE_LENGTH_DELIMITED:
+          skip(readLength());
+          break;
+        case WIRE_TYPE_FIXED32:
+          skip(4);
+          break;
+        default:
+          invalid = true;
+      }
+      return !invalid;
+    }
+  }
 }
@@ -17,19 +17,28 @@ import de.ii.xtraplatform.tiles.domain.TileQuery;
 import de.ii.xtraplatform.tiles.domain.TileResult;
 import java.io.IOException;
 import java.util.Map;
+import java.util.function.IntSupplier;
 import javax.ws.rs.core.MediaType;
 
 public class TileEncoders implements ChainedTileProvider {
-  private static final Map<MediaType, TileEncoder> ENCODERS =
-      ImmutableMap.of(FeatureEncoderMVT.FORMAT, new TileEncoderMvt());
+  private final Map<MediaType, TileEncoder> encoders;
   private final TileProviderFeaturesData data;
   private final ChainedTileProvider generatorProviderChain;
 
-  public TileEncoders(TileProviderFeaturesData data, ChainedTileProvider generatorProviderChain) {
+  public TileEncoders(
+      TileProviderFeaturesData data,
+      ChainedTileProvider generatorProviderChain,
+      IntSupplier maxParallelLayers) {
+    this.encoders =
+        ImmutableMap.of(FeatureEncoderMVT.FORMAT, new TileEncoderMvt(maxParallelLayers));
     this.data = data;
     this.generatorProviderChain = generatorProviderChain;
   }
 
+  public void close() {
+    encoders.values().forEach(TileEncoder::close);
+  }
+
   @Override
   public Map<String, Map<String, Range<Integer>>> getTmsRanges() {
     return data.getTmsRanges();
@@ -48,14 +57,14 @@ public class TileEncoders implements ChainedTileProvider {
   }
 
   public boolean canEncode(MediaType mediaType) {
-    return ENCODERS.containsKey(mediaType);
+    return encoders.containsKey(mediaType);
   }
 
   public byte[] empty(MediaType mediaType, TileMatrixSetBase tms) {
-    return ENCODERS.get(mediaType).empty(tms);
+    return encoders.get(mediaType).empty(tms);
   }
 
   public byte[] combine(TileQuery tile) throws IOException {
-    return ENCODERS.get(tile.getMediaType()).combine(tile, data, generatorProviderChain);
+    return encoders.get(tile.getMediaType()).combine(tile, data, generatorProviderChain);
   }
 }
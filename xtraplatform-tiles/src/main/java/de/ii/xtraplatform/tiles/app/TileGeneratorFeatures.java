@@ -17,6 +17,7 @@ import de.ii.xtraplatform.base.domain.resiliency.VolatileUnavailableException;
 import de.ii.xtraplatform.cql.domain.BooleanValue2;
 import de.ii.xtraplatform.cql.domain.Cql;
 import de.ii.xtraplatform.cql.domain.Cql.Format;
+import de.ii.xtraplatform.cql.domain.Cql2Expression;
 import de.ii.xtraplatform.cql.domain.Geometry.Bbox;
 import de.ii.xtraplatform.cql.domain.Property;
 import de.ii.xtraplatform.cql.domain.SIntersects;
@@ -30,7 +31,6 @@ import de.ii.xtraplatform.crs.domain.OgcCrs;
 import de.ii.xtraplatform.entities.domain.EntityRegistry;
 import de.ii.xtraplatform.features.domain.FeatureProvider;
 import de.ii.xtraplatform.features.domain.FeatureProviderEntity;
-import de.ii.xtraplatform.features.domain.FeatureQueries;
 import de.ii.xtraplatform.features.domain.FeatureQuery;
 import de.ii.xtraplatform.features.domain.FeatureSchema;
 import de.ii.xtraplatform.features.domain.FeatureStream;
@@ -57,14 +57,15 @@ import de.ii.xtraplatform.tiles.domain.TileProviderFeaturesData;
 import de.ii.xtraplatform.tiles.domain.TileQuery;
 import de.ii.xtraplatform.tiles.domain.TileResult;
 import de.ii.xtraplatform.tiles.domain.TilesetFeatures;
+import de.ii.xtraplatform.tiles.domain.TilesetFeaturesDefaults;
 import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -72,6 +73,7 @@ import javax.measure.Unit;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.MediaType;
 import org.kortforsyningen.proj.Units;
+import org.opengis.referencing.cs.AxisDirection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -102,6 +104,8 @@ public class TileGeneratorFeatures extends AbstractVolatileComposed
   private final Cql cql;
   private final Map<String, DelayedVolatile<FeatureProvider>> featureProviders;
   private final boolean async;
+  private final Map<String, MergedTileset> mergedTilesets;
+  private final Map<String, QueryPlan> queryPlans;
 
   public TileGeneratorFeatures(
       TileProviderFeaturesData data,
@@ -119,6 +123,8 @@ public class TileGeneratorFeatures extends AbstractVolatileComposed
     this.cql = cql;
     this.featureProviders = new LinkedHashMap<>();
     this.async = asyncStartup;
+    this.mergedTilesets = new ConcurrentHashMap<>();
+    this.queryPlans = new ConcurrentHashMap<>();
 
     if (async) {
       init(volatileRegistry);
@@ -160,6 +166,22 @@ public class TileGeneratorFeatures extends AbstractVolatileComposed
     onVolatileStarted();
   }
 
+  private TilesetFeatures getTileset(String tilesetId) {
+    TilesetFeatures tileset = data.getTilesets().get(tilesetId);
+    TilesetFeaturesDefaults defaults = data.getTilesetDefaults();
+    MergedTileset mergedTileset = mergedTilesets.get(tilesetId);
+
+    // the configuration might have been reloaded, the merged tileset is then outdated
+    if (Objects.isNull(mergedTileset)
+        || mergedTileset.tileset != tileset
+        || mergedTileset.defaults != defaults) {
+      mergedTileset = new MergedTileset(tileset, defaults, tileset.mergeDefaults(defaults));
+      mergedTilesets.put(tilesetId, mergedTileset);
+    }
+
+    return mergedTileset.merged;
+  }
+
   private FeatureProvider getFeatureProvider(TilesetFeatures tileset) {
     String featureProviderId =
         tileset.getFeatureProvider().orElse(TileProviderFeatures.clean(data.getId()));
@@ -212,15 +234,18 @@ public class TileGeneratorFeatures extends AbstractVolatileComposed
           String.format("Encoding not supported: %s", tileQuery.getMediaType()));
     }
 
+    TilesetFeatures tileset = getTileset(tileQuery.getTileset());
+
+    if (canEncodeInDatabase(tileQuery, tileset)) {
+      return generateTileInDatabase(tileQuery, tileset);
+    }
+
     FeatureStream tileSource = getTileSource(tileQuery);
     if (tileSource == null) {
       // no features in this tile
       return EMPTY_TILES.get(tileQuery.getMediaType());
     }
 
-    TilesetFeatures tileset =
-        data.getTilesets().get(tileQuery.getTileset()).mergeDefaults(data.getTilesetDefaults());
-
     TileGenerationContext tileGenerationContext =
         new ImmutableTileGenerationContext.Builder()
             .parameters(tileset)
@@ -247,8 +272,7 @@ public class TileGeneratorFeatures extends AbstractVolatileComposed
 
   @Override
   public FeatureStream getTileSource(TileQuery tileQuery) {
-    TilesetFeatures tileset =
-        data.getTilesets().get(tileQuery.getTileset()).mergeDefaults(data.getTilesetDefaults());
+    TilesetFeatures tileset = getTileset(tileQuery.getTileset());
     FeatureProvider featureProvider = getFeatureProvider(tileset);
 
     if (!featureProvider.queries().isSupported()) {
@@ -260,9 +284,20 @@ public class TileGeneratorFeatures extends AbstractVolatileComposed
 
     // if the tileset is sparse, check, if the tile is outside the extent of the feature data;
     // if yes, return null
+    if (isOutsideOfData(tileQuery, tileset, featureProvider)) {
+      return null;
+    }
+
+    FeatureQuery featureQuery = getFeatureQuery(tileQuery, tileset, featureProvider);
+
+    return featureProvider.queries().get().getFeatureStream(featureQuery);
+  }
+
+  private boolean isOutsideOfData(
+      TileQuery tileQuery, TilesetFeatures tileset, FeatureProvider featureProvider) {
     if (Boolean.TRUE.equals(tileset.getSparse()) && featureProvider.extents().isAvailable()) {
       String featureType = tileset.getFeatureType().orElse(tileQuery.getTileset());
-      if (featureProvider
+      return featureProvider
           .extents()
           .get()
           .getSpatialExtent(featureType)
@@ -277,25 +312,116 @@ public class TileGeneratorFeatures extends AbstractVolatileComposed
                   return true;
                 }
               })
-          // if the extent is empty, there are no features, so we can return null, too
-          .isEmpty()) {
-        return null;
-      }
+          // if the extent is empty, there are no features, too
+          .isEmpty();
     }
 
-    EpsgCrs nativeCrs = featureProvider.crs().get().getNativeCrs();
-    Set<FeatureSchema> types = featureProvider.info().getSchemas();
-    FeatureQuery featureQuery =
-        getFeatureQuery(
-            tileQuery,
-            tileset,
-            types,
-            nativeCrs,
-            getBounds(tileQuery),
-            tileQuery.getGenerationParametersTransient(),
-            featureProvider.queries().get());
+    return false;
+  }
 
-    return featureProvider.queries().get().getFeatureStream(featureQuery);
+  private FeatureQuery getFeatureQuery(
+      TileQuery tileQuery, TilesetFeatures tileset, FeatureProvider featureProvider) {
+    QueryPlan queryPlan = getQueryPlan(tileQuery, tileset, featureProvider);
+
+    return getFeatureQuery(
+        tileQuery,
+        queryPlan,
+        getBounds(tileQuery),
+        tileQuery.getGenerationParametersTransient());
+  }
+
+  private QueryPlan getQueryPlan(
+      TileQuery tileQuery, TilesetFeatures tileset, FeatureProvider featureProvider) {
+    String key =
+        String.format(
+            "%s/%s/%d",
+            tileQuery.getTileset(), tileQuery.getTileMatrixSet().getId(), tileQuery.getLevel());
+    QueryPlan queryPlan = queryPlans.get(key);
+
+    // the feature provider or the tileset might have been reloaded, the plan is then outdated
+    if (Objects.isNull(queryPlan)
+        || queryPlan.featureProvider != featureProvider
+        || queryPlan.tileset != tileset) {
+      queryPlan = createQueryPlan(tileQuery, tileset, featureProvider);
+      queryPlans.put(key, queryPlan);
+    }
+
+    return queryPlan;
+  }
+
+  /**
+   * Tiles can only be encoded by the database, if the result does not depend on post-processing
+   * in the application, i.e. no features are merged and no property transformations are applied.
+   * The tile bounds are passed as they are, so the axis order of the tile matrix set crs has to be
+   * easting/northing.
+   */
+  private boolean canEncodeInDatabase(TileQuery tileQuery, TilesetFeatures tileset) {
+    if (!Boolean.TRUE.equals(tileset.getEncodeInDatabase())
+        || !Objects.equals(tileQuery.getMediaType(), FeatureEncoderMVT.FORMAT)
+        || tileQuery
+            .getGenerationParameters()
+            .flatMap(TileGenerationParameters::getPropertyTransformations)
+            .isPresent()
+        || hasMergeTransformation(tileQuery, tileset)) {
+      return false;
+    }
+
+    List<AxisDirection> axisDirections =
+        crsInfo.getAxisDirections(tileQuery.getTileMatrixSet().getCrs());
+    if (axisDirections.isEmpty() || !Objects.equals(axisDirections.get(0), AxisDirection.EAST)) {
+      return false;
+    }
+
+    FeatureProvider featureProvider = getFeatureProvider(tileset);
+    String featureType = tileset.getFeatureType().orElse(tileset.getId());
+
+    return featureProvider.mvt().isAvailable()
+        && featureProvider.mvt().get().supportsMvt(featureType);
+  }
+
+  private static boolean hasMergeTransformation(TileQuery tileQuery, TilesetFeatures tileset) {
+    return tileset.getTransformations().containsKey(tileQuery.getTileMatrixSet().getId())
+        && tileset.getTransformations().get(tileQuery.getTileMatrixSet().getId()).stream()
+            .anyMatch(rule -> rule.matches(tileQuery.getLevel()) && rule.getMerge().orElse(false));
+  }
+
+  private byte[] generateTileInDatabase(TileQuery tileQuery, TilesetFeatures tileset) {
+    FeatureProvider featureProvider = getFeatureProvider(tileset);
+
+    if (!featureProvider.crs().isSupported()) {
+      throw new IllegalStateException("Feature provider has no CRS support.");
+    }
+
+    if (isOutsideOfData(tileQuery, tileset, featureProvider)) {
+      return EMPTY_TILES.get(tileQuery.getMediaType());
+    }
+
+    FeatureQuery featureQuery = getFeatureQuery(tileQuery, tileset, featureProvider);
+    int extent = tileQuery.getTileMatrixSet().getTileExtent();
+    int buffer =
+        FeatureEncoderMVT.BUFFER_PIXELS * extent / tileQuery.getTileMatrixSet().getTileSize();
+
+    try {
+      byte[] tile =
+          featureProvider
+              .mvt()
+              .get()
+              .getMvtLayer(
+                  featureQuery,
+                  tileQuery.getTileset(),
+                  tileQuery.getBoundingBox(),
+                  extent,
+                  buffer)
+              .toCompletableFuture()
+              .join();
+
+      return tile == null || tile.length == 0 ? EMPTY_TILES.get(tileQuery.getMediaType()) : tile;
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof WebApplicationException) {
+        throw (WebApplicationException) e.getCause();
+      }
+      throw new IllegalStateException("Feature stream error.", e.getCause());
+    }
   }
 
   private Optional<BoundingBox> getBounds(TileQuery tileQuery) {
@@ -349,8 +475,7 @@ public class TileGeneratorFeatures extends AbstractVolatileComposed
   // TODO: create on startup for all tilesets
   @Override
   public TileGenerationSchema getGenerationSchema(String tilesetId) {
-    TilesetFeatures tileset =
-        data.getTilesets().get(tilesetId).mergeDefaults(data.getTilesetDefaults());
+    TilesetFeatures tileset = getTileset(tilesetId);
     FeatureProvider featureProvider = getFeatureProvider(tileset);
     String featureType = tileset.getFeatureType().orElse(tilesetId);
     FeatureSchema featureSchema = featureProvider.info().getSchema(featureType).orElse(null);
@@ -408,6 +533,23 @@ public class TileGeneratorFeatures extends AbstractVolatileComposed
     return featureSchema;
   }
 
+  /**
+   * The number of tiles of the given tileset that may be generated in parallel without exceeding
+   * the capacity of the feature provider.
+   */
+  public int getMaxParallelTiles(String tilesetId) {
+    TilesetFeatures tileset = data.getTilesets().get(tilesetId);
+
+    if (Objects.isNull(tileset)) {
+      return 1;
+    }
+
+    return Math.max(
+        1,
+        getFeatureProvider(tileset.mergeDefaults(data.getTilesetDefaults()))
+            .getMaxParallelQueries());
+  }
+
   @Override
   public Optional<BoundingBox> getBounds(String tilesetId) {
     TilesetFeatures tileset = data.getTilesets().get(tilesetId);
@@ -428,20 +570,14 @@ public class TileGeneratorFeatures extends AbstractVolatileComposed
     return featureProvider.extents().get().getSpatialExtent(featureType, OgcCrs.CRS84);
   }
 
-  private FeatureQuery getFeatureQuery(
-      TileQuery tile,
-      TilesetFeatures tileset,
-      Set<FeatureSchema> featureTypes,
-      EpsgCrs nativeCrs,
-      Optional<BoundingBox> bounds,
-      Optional<TileGenerationParametersTransient> userParameters,
-      FeatureQueries featureQueries) {
+  /**
+   * Everything that only depends on the tileset, the tile matrix set and the level is derived once,
+   * only the bounding box and the user parameters are applied per tile.
+   */
+  private QueryPlan createQueryPlan(
+      TileQuery tile, TilesetFeatures tileset, FeatureProvider featureProvider) {
     String featureType = tileset.getFeatureType().orElse(tileset.getId());
-    FeatureSchema featureSchema =
-        featureTypes.stream()
-            .filter(type -> Objects.equals(type.getName(), featureType))
-            .findFirst()
-            .orElse(null);
+    FeatureSchema featureSchema = featureProvider.info().getSchema(featureType).orElse(null);
     // TODO: validate tileset during provider startup
     if (featureSchema == null) {
       throw new IllegalStateException(
@@ -450,40 +586,76 @@ public class TileGeneratorFeatures extends AbstractVolatileComposed
               tileset.getId(), featureType));
     }
     FeatureSchema queryablesSchema =
-        featureQueries.getQueryablesSchema(featureSchema, List.of("*"), List.of(), ".", true);
+        featureProvider
+            .queries()
+            .get()
+            .getQueryablesSchema(featureSchema, List.of("*"), List.of(), ".", true);
+    Optional<String> spatialProperty =
+        queryablesSchema.getPrimaryGeometry().map(SchemaBase::getFullPathAsString);
+
+    List<Cql2Expression> filters =
+        tileset.getFilters().getOrDefault(tile.getTileMatrixSet().getId(), List.of()).stream()
+            .filter(levelFilter -> levelFilter.matches(tile.getLevel()))
+            // TODO: validate filter, preferably in hydration or provider startup
+            .map(filter -> cql.read(filter.getFilter(), Format.TEXT))
+            .collect(Collectors.toList());
+
+    List<String> fields =
+        tileset.getTransformations().getOrDefault(tile.getTileMatrixSet().getId(), List.of())
+            .stream()
+            .filter(rule -> rule.matches(tile.getLevel()))
+            .map(LevelTransformation::getProperties)
+            .flatMap(Collection::stream)
+            .collect(Collectors.toList());
+    if (!fields.isEmpty()) {
+      fields =
+          Stream.concat(fields.stream(), spatialProperty.stream())
+              .distinct()
+              .collect(Collectors.toList());
+    }
 
+    return new QueryPlan(
+        featureProvider,
+        tileset,
+        featureType,
+        Optional.ofNullable(tileset.getFeatureLimit())
+            .orElse(data.getTilesetDefaults().getFeatureLimit()),
+        filters,
+        spatialProperty,
+        fields,
+        getMaxAllowableOffsetFactor(
+            tile.getTileMatrixSet().getCrs(), featureProvider.crs().get().getNativeCrs()));
+  }
+
+  private FeatureQuery getFeatureQuery(
+      TileQuery tile,
+      QueryPlan queryPlan,
+      Optional<BoundingBox> bounds,
+      Optional<TileGenerationParametersTransient> userParameters) {
     ImmutableFeatureQuery.Builder queryBuilder =
         ImmutableFeatureQuery.builder()
-            .type(featureType)
-            .limit(
-                Optional.ofNullable(tileset.getFeatureLimit())
-                    .orElse(data.getTilesetDefaults().getFeatureLimit()))
+            .type(queryPlan.featureType)
+            .limit(queryPlan.limit)
             .offset(0)
             .crs(tile.getTileMatrixSet().getCrs())
-            .maxAllowableOffset(getMaxAllowableOffset(tile, nativeCrs));
-
-    if (tileset.getFilters().containsKey(tile.getTileMatrixSet().getId())) {
-      tileset.getFilters().get(tile.getTileMatrixSet().getId()).stream()
-          .filter(levelFilter -> levelFilter.matches(tile.getLevel()))
-          // TODO: parse and validate filter, preferably in hydration or provider startup
-          .forEach(filter -> queryBuilder.addFilters(cql.read(filter.getFilter(), Format.TEXT)));
-    }
-
-    queryablesSchema
-        .getPrimaryGeometry()
-        .map(SchemaBase::getFullPathAsString)
-        .ifPresentOrElse(
-            spatialProperty -> {
-              clip(tile.getBoundingBox(), bounds)
-                  .ifPresentOrElse(
-                      bbox ->
-                          queryBuilder.addFilters(
-                              SIntersects.of(
-                                  Property.of(spatialProperty), SpatialLiteral.of(Bbox.of(bbox)))),
-                      () -> queryBuilder.addFilters(BooleanValue2.of(false)));
-            },
-            // TODO: validate feature schema during provider startup
-            () -> queryBuilder.addFilters(BooleanValue2.of(false)));
+            .maxAllowableOffset(
+                tile.getTileMatrixSet()
+                        .getMaxAllowableOffset(tile.getLevel(), tile.getRow(), tile.getCol())
+                    * queryPlan.maxAllowableOffsetFactor)
+            .addAllFilters(queryPlan.filters);
+
+    queryPlan.spatialProperty.ifPresentOrElse(
+        spatialProperty -> {
+          clip(tile.getBoundingBox(), bounds)
+              .ifPresentOrElse(
+                  bbox ->
+                      queryBuilder.addFilters(
+                          SIntersects.of(
+                              Property.of(spatialProperty), SpatialLiteral.of(Bbox.of(bbox)))),
+                  () -> queryBuilder.addFilters(BooleanValue2.of(false)));
+        },
+        // TODO: validate feature schema during provider startup
+        () -> queryBuilder.addFilters(BooleanValue2.of(false)));
 
     if (userParameters.isPresent()) {
       userParameters.get().getLimit().ifPresent(queryBuilder::limit);
@@ -493,21 +665,8 @@ public class TileGeneratorFeatures extends AbstractVolatileComposed
       }
     }
 
-    if ((userParameters.isEmpty() || userParameters.get().getFields().isEmpty())
-        && tileset.getTransformations().containsKey(tile.getTileMatrixSet().getId())) {
-      List<String> fields =
-          tileset.getTransformations().get(tile.getTileMatrixSet().getId()).stream()
-              .filter(rule -> rule.matches(tile.getLevel()))
-              .map(LevelTransformation::getProperties)
-              .flatMap(Collection::stream)
-              .collect(Collectors.toList());
-      if (!fields.isEmpty()) {
-        Stream.concat(
-                fields.stream(),
-                queryablesSchema.getPrimaryGeometry().map(SchemaBase::getFullPathAsString).stream())
-            .distinct()
-            .forEach(queryBuilder::addFields);
-      }
+    if (userParameters.isEmpty() || userParameters.get().getFields().isEmpty()) {
+      queryBuilder.addAllFields(queryPlan.fields);
     }
 
     return queryBuilder.build();
@@ -517,14 +676,20 @@ public class TileGeneratorFeatures extends AbstractVolatileComposed
     double maxAllowableOffsetTileMatrixSet =
         tile.getTileMatrixSet()
             .getMaxAllowableOffset(tile.getLevel(), tile.getRow(), tile.getCol());
-    Unit<?> tmsCrsUnit = crsInfo.getUnit(tile.getTileMatrixSet().getCrs());
+
+    return maxAllowableOffsetTileMatrixSet
+        * getMaxAllowableOffsetFactor(tile.getTileMatrixSet().getCrs(), nativeCrs);
+  }
+
+  private double getMaxAllowableOffsetFactor(EpsgCrs tmsCrs, EpsgCrs nativeCrs) {
+    Unit<?> tmsCrsUnit = crsInfo.getUnit(tmsCrs);
     Unit<?> nativeCrsUnit = crsInfo.getUnit(nativeCrs);
     if (tmsCrsUnit.equals(nativeCrsUnit)) {
-      return maxAllowableOffsetTileMatrixSet;
+      return 1;
     } else if (tmsCrsUnit.equals(Units.DEGREE) && nativeCrsUnit.equals(Units.METRE)) {
-      return maxAllowableOffsetTileMatrixSet * 111333.0;
+      return 111333.0;
     } else if (tmsCrsUnit.equals(Units.METRE) && nativeCrsUnit.equals(Units.DEGREE)) {
-      return maxAllowableOffsetTileMatrixSet / 111333.0;
+      return 1 / 111333.0;
     }
 
     LOGGER.warn(
@@ -556,4 +721,47 @@ public class TileGeneratorFeatures extends AbstractVolatileComposed
     // fallback to meters
     return BUFFER_METRE;
   }
+
+  private static final class MergedTileset {
+    private final TilesetFeatures tileset;
+    private final TilesetFeaturesDefaults defaults;
+    private final TilesetFeatures merged;
+
+    private MergedTileset(
+        TilesetFeatures tileset, TilesetFeaturesDefaults defaults, TilesetFeatures merged) {
+      this.tileset = tileset;
+      this.defaults = defaults;
+      this.merged = merged;
+    }
+  }
+
+  private static final class QueryPlan {
+    private final FeatureProvider featureProvider;
+    private final TilesetFeatures tileset;
+    private final String featureType;
+    private final int limit;
+    private final List<Cql2Expression> filters;
+    private final Optional<String> spatialProperty;
+    private final List<String> fields;
+    private final double maxAllowableOffsetFactor;
+
+    private QueryPlan(
+        FeatureProvider featureProvider,
+        TilesetFeatures tileset,
+        String featureType,
+        int limit,
+        List<Cql2Expression> filters,
+        Optional<String> spatialProperty,
+        List<String> fields,
+        double maxAllowableOffsetFactor) {
+      this.featureProvider = featureProvider;
+      this.tileset = tileset;
+      this.featureType = featureType;
+      this.limit = limit;
+      this.filters = filters;
+      this.spatialProperty = spatialProperty;
+      this.fields = fields;
+      this.maxAllowableOffsetFactor = maxAllowableOffsetFactor;
+    }
+  }
 }
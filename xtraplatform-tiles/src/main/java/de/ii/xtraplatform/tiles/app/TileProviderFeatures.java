@@ -11,6 +11,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Range;
 import com.google.common.io.Files;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import dagger.assisted.Assisted;
 import dagger.assisted.AssistedInject;
 import de.ii.xtraplatform.base.domain.AppContext;
@@ -81,6 +82,8 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
@@ -118,6 +121,7 @@ public class TileProviderFeatures extends AbstractTileProvider<TileProviderFeatu
   private final Optional<TileMatrixSetRepository> tileMatrixSetRepository;
   private final String dataDir;
   private TileEncoders tileEncoders;
+  private ExecutorService seedingExecutor;
   private ChainedTileProvider generatorProviderChain;
   private ChainedTileProvider combinerProviderChain;
   private ChainedTileProvider rasterProviderChain;
@@ -180,6 +184,24 @@ public class TileProviderFeatures extends AbstractTileProvider<TileProviderFeatu
     return super.onStartup();
   }
 
+  @Override
+  protected void onStopped() {
+    tileStores.values().stream()
+        .flatMap(m -> m.values().stream())
+        .forEach(TileStore::close);
+    if (Objects.nonNull(tileEncoders)) {
+      tileEncoders.close();
+    }
+    synchronized (this) {
+      if (Objects.nonNull(seedingExecutor)) {
+        seedingExecutor.shutdown();
+        this.seedingExecutor = null;
+      }
+    }
+
+    super.onStopped();
+  }
+
   @Override
   protected Tuple<State, String> volatileInit() {
     if (asyncStartup) {
@@ -218,7 +240,8 @@ public class TileProviderFeatures extends AbstractTileProvider<TileProviderFeatu
 
     this.generatorProviderChain = current;
 
-    this.tileEncoders = new TileEncoders(getData(), generatorProviderChain);
+    this.tileEncoders =
+        new TileEncoders(getData(), generatorProviderChain, this::getMaxParallelLayers);
     current = tileEncoders;
 
     for (int i = 0; i < getData().getCaches().size(); i++) {
@@ -283,6 +306,26 @@ public class TileProviderFeatures extends AbstractTileProvider<TileProviderFeatu
     loadMetadata();
   }
 
+  // the tiles of all jobs share the threads, so parallel jobs cannot exceed the configured limit
+  private synchronized ExecutorService getSeedingExecutor() {
+    if (Objects.isNull(seedingExecutor)) {
+      this.seedingExecutor =
+          Executors.newFixedThreadPool(
+              getOptions().getEffectiveMaxParallelTiles(),
+              new ThreadFactoryBuilder().setNameFormat("tiles.seeding-%d").setDaemon(true).build());
+    }
+    return seedingExecutor;
+  }
+
+  // the layers of combined tiles are requested in parallel up to the capacity of the providers
+  private int getMaxParallelLayers() {
+    return getData().getTilesets().entrySet().stream()
+        .filter(entry -> !entry.getValue().isCombined())
+        .mapToInt(entry -> tileGenerator.getMaxParallelTiles(entry.getKey()))
+        .max()
+        .orElse(1);
+  }
+
   private Set<String> getTileMatrixSets(String tileset) {
     if (!getData().getTilesets().containsKey(tileset) && !getRasterTilesets().contains(tileset)) {
       return Set.of();
@@ -874,16 +917,23 @@ public class TileProviderFeatures extends AbstractTileProvider<TileProviderFeatu
       }
     }
 
+    int maxParallelTiles =
+        Math.min(
+            getOptions().getEffectiveMaxParallelTiles(),
+            tileGenerator.getMaxParallelTiles(job.getTileSet()));
+
     AtomicInteger current = new AtomicInteger(0);
     Runnable updateProgress2 =
         () -> {
-          int cur = current.incrementAndGet();
-          updateProgress.accept(cur);
+          // tiles might be finished in parallel, the consumer has to see increasing values
+          synchronized (current) {
+            updateProgress.accept(current.incrementAndGet());
+          }
         };
 
     for (TileCache cache : caches) {
       if (cache.canProcess(job)) {
-        cache.seed(job, label, updateProgress2);
+        cache.seed(job, label, updateProgress2, getSeedingExecutor(), maxParallelTiles);
       }
     }
 
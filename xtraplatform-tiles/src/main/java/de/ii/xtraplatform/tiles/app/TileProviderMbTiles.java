@@ -48,6 +48,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
@@ -73,6 +74,7 @@ public class TileProviderMbTiles extends AbstractTileProvider<TileProviderMbtile
   private final Map<String, TilesetMetadata> metadata;
   private final Map<String, Map<String, Range<Integer>>> tmsRanges;
   private ChainedTileProvider providerChain;
+  private TileStoreReadOnly tileStore;
 
   @AssistedInject
   public TileProviderMbTiles(
@@ -131,7 +133,7 @@ public class TileProviderMbTiles extends AbstractTileProvider<TileProviderMbtile
                 })
             .collect(Collectors.toMap(Entry::getKey, Entry::getValue));
 
-    TileStoreReadOnly tileStore = TileStoreMbTiles.readOnly(tilesetSources);
+    this.tileStore = TileStoreMbTiles.readOnly(tilesetSources);
 
     this.providerChain =
         new ChainedTileProvider() {
@@ -151,6 +153,15 @@ public class TileProviderMbTiles extends AbstractTileProvider<TileProviderMbtile
     return true;
   }
 
+  @Override
+  protected void onStopped() {
+    if (Objects.nonNull(tileStore)) {
+      tileStore.close();
+    }
+
+    super.onStopped();
+  }
+
   @Override
   public Optional<TilesetMetadata> getMetadata(String tilesetId) {
     return Optional.ofNullable(metadata.get(tilesetId));
@@ -7,6 +7,7 @@
  */
 package de.ii.xtraplatform.tiles.app;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import de.ii.xtraplatform.base.domain.LogContext;
 import de.ii.xtraplatform.blobs.domain.ResourceStore;
 import de.ii.xtraplatform.tiles.domain.Cache.Storage;
@@ -22,6 +23,7 @@ import de.ii.xtraplatform.tiles.domain.TileQuery;
 import de.ii.xtraplatform.tiles.domain.TileResult;
 import de.ii.xtraplatform.tiles.domain.TileStore;
 import de.ii.xtraplatform.tiles.domain.TileStoreReadOnly;
+import de.ii.xtraplatform.tiles.domain.TileSubMatrix;
 import de.ii.xtraplatform.tiles.domain.TilesFormat;
 import de.ii.xtraplatform.tiles.domain.VectorLayer;
 import java.io.IOException;
@@ -30,21 +32,68 @@ import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Path;
 import java.sql.SQLException;
 import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sqlite.SQLiteException;
 
-public class TileStoreMbTiles implements TileStore {
+public class TileStoreMbTiles implements TileStore, TileStore.Batching {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(TileStoreMbTiles.class);
   public static final String MBTILES_SUFFIX = ".mbtiles";
+  static final int BATCH_MAX_TILES = 256;
+  static final long BATCH_MAX_AGE_MILLIS = 2000;
+
+  @FunctionalInterface
+  private interface WriteAction {
+    void write() throws SQLException, IOException;
+  }
+
+  // tiles that are waiting to be written to the same MBTiles file
+  private static class WriteBatch {
+    private final MbtilesTileset tileset;
+    private final Map<String, Entry<TileQuery, byte[]>> tiles;
+    private final long created;
+
+    WriteBatch(MbtilesTileset tileset) {
+      this.tileset = tileset;
+      this.tiles = new LinkedHashMap<>();
+      this.created = System.currentTimeMillis();
+    }
+
+    void add(TileQuery tile, byte[] content) {
+      // if a tile is written again before the batch is flushed, only the latest content is kept
+      tiles.put(
+          String.format("%d/%d/%d", tile.getLevel(), tile.getRow(), tile.getCol()),
+          Map.entry(tile, content));
+    }
+
+    boolean isFull() {
+      return tiles.size() >= BATCH_MAX_TILES;
+    }
+
+    boolean isExpired(long now) {
+      return now - created >= BATCH_MAX_AGE_MILLIS;
+    }
+
+    List<Entry<TileQuery, byte[]>> getTiles() {
+      return new ArrayList<>(tiles.values());
+    }
+  }
 
   static TileStoreReadOnly readOnly(Map<String, Path> tileSetSources) {
     Map<String, MbtilesTileset> tileSets =
@@ -101,6 +150,13 @@ public class TileStoreMbTiles implements TileStore {
   // the tile matrix set is only necessary for writable MBTiles files,
   // i.e., caches that are used for seeding
   private final Optional<TileMatrixSetRepository> tileMatrixSetRepository;
+  // pending batches and write locks per MBTiles file
+  private final Map<String, WriteBatch> writeBatches;
+  private final Map<String, Object> writeLocks;
+  // writes batches that did not become full in time, only started when batching is used
+  private ScheduledExecutorService batchFlusher;
+  // a failed write of the batch flusher, reported to the next caller of putBatched or flush
+  private final AtomicReference<IOException> batchFailure;
 
   private TileStoreMbTiles(
       String providerId,
@@ -115,6 +171,9 @@ public class TileStoreMbTiles implements TileStore {
     this.tileSets = tileSets;
     this.partitions = partitions;
     this.tileMatrixSetRepository = tileMatrixSetRepository;
+    this.writeBatches = new LinkedHashMap<>();
+    this.writeLocks = new ConcurrentHashMap<>();
+    this.batchFailure = new AtomicReference<>();
   }
 
   @Override
@@ -139,6 +198,33 @@ public class TileStoreMbTiles implements TileStore {
     return false;
   }
 
+  @Override
+  public Optional<BitSet> has(
+      String tileset, TileMatrixSetBase tileMatrixSet, TileSubMatrix subMatrix) {
+    if (subMatrix.getNumberOfTiles() > Integer.MAX_VALUE) {
+      return Optional.empty();
+    }
+    if (!tileSets.containsKey(key(tileset, tileMatrixSet))) {
+      return Optional.of(new BitSet());
+    }
+
+    try {
+      return Optional.of(
+          tileSets.get(key(tileset, tileMatrixSet)).tilesExist(tileMatrixSet, subMatrix));
+    } catch (SQLException | IOException e) {
+      // see has(TileQuery), falling back to single tile checks
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug(
+            "Could not determine existing tiles {}/{} in tileset '{}'. Checking tiles individually. Reason: {}.",
+            tileMatrixSet.getId(),
+            subMatrix.asString(),
+            tileset,
+            e.getMessage());
+      }
+    }
+    return Optional.empty();
+  }
+
   @Override
   public TileResult get(TileQuery tile) throws IOException {
     if (!tileSets.containsKey(key(tile))) {
@@ -204,33 +290,137 @@ public class TileStoreMbTiles implements TileStore {
 
   @Override
   public void put(TileQuery tile, InputStream content) throws IOException {
-    synchronized (tileSets) {
-      if (!tileSets.containsKey(key(tile))) {
-        tileSets.put(
-            key(tile),
-            createTileSet(
-                rootStore,
-                providerId,
-                tile.getTileset(),
-                tile.getTileMatrixSet().getId(),
-                getVectorLayers(tileSchemas, tile.getTileset()),
-                partitions,
-                false));
+    MbtilesTileset tileset = getOrCreateTileSet(tile);
+    byte[] bytes = content.readAllBytes();
+
+    write(tile, 1, () -> tileset.writeTile(tile, bytes));
+  }
+
+  @Override
+  public void putBatched(TileQuery tile, InputStream content) throws IOException {
+    throwBatchFailure();
+
+    MbtilesTileset tileset = getOrCreateTileSet(tile);
+    String file = tileset.getStorageInfo(tile.getLevel(), tile.getRow(), tile.getCol());
+    byte[] bytes = content.readAllBytes();
+    WriteBatch due = null;
+
+    synchronized (writeBatches) {
+      if (Objects.isNull(batchFlusher)) {
+        startBatchFlusher();
+      }
+      WriteBatch batch = writeBatches.computeIfAbsent(file, f -> new WriteBatch(tileset));
+      batch.add(tile, bytes);
+      if (batch.isFull()) {
+        writeBatches.remove(file);
+        due = batch;
+      }
+    }
+
+    // the batch is written by the caller, this slows down the tile generation when writing
+    // cannot keep up
+    if (Objects.nonNull(due)) {
+      write(file, due);
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    Map<String, WriteBatch> due;
+
+    synchronized (writeBatches) {
+      due = new LinkedHashMap<>(writeBatches);
+      writeBatches.clear();
+    }
+
+    IOException failure = null;
+    for (Map.Entry<String, WriteBatch> batch : due.entrySet()) {
+      try {
+        write(batch.getKey(), batch.getValue());
+      } catch (IOException e) {
+        if (Objects.isNull(failure)) {
+          failure = e;
+        }
       }
     }
-    MbtilesTileset tileset = tileSets.get(key(tile));
+
+    if (Objects.nonNull(failure)) {
+      throw failure;
+    }
+    throwBatchFailure();
+  }
+
+  private void startBatchFlusher() {
+    this.batchFlusher =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                .setNameFormat("tiles.mbtiles-flush-%d")
+                .setDaemon(true)
+                .build());
+    batchFlusher.scheduleWithFixedDelay(
+        this::flushExpired, BATCH_MAX_AGE_MILLIS, BATCH_MAX_AGE_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  private void flushExpired() {
+    long now = System.currentTimeMillis();
+    Map<String, WriteBatch> due = new LinkedHashMap<>();
+
+    synchronized (writeBatches) {
+      writeBatches
+          .entrySet()
+          .removeIf(
+              batch -> {
+                if (batch.getValue().isExpired(now)) {
+                  due.put(batch.getKey(), batch.getValue());
+                  return true;
+                }
+                return false;
+              });
+    }
+
+    for (Map.Entry<String, WriteBatch> batch : due.entrySet()) {
+      try {
+        write(batch.getKey(), batch.getValue());
+      } catch (IOException e) {
+        batchFailure.compareAndSet(null, e);
+      } catch (RuntimeException e) {
+        // an exception would cancel the scheduled flushes
+        batchFailure.compareAndSet(null, new IOException(e.getMessage(), e));
+      }
+    }
+  }
+
+  private void throwBatchFailure() throws IOException {
+    IOException failure = batchFailure.getAndSet(null);
+
+    if (Objects.nonNull(failure)) {
+      throw failure;
+    }
+  }
+
+  private void write(String file, WriteBatch batch) throws IOException {
+    List<Entry<TileQuery, byte[]>> tiles = batch.getTiles();
+
+    synchronized (writeLocks.computeIfAbsent(file, f -> new Object())) {
+      write(tiles.get(0).getKey(), tiles.size(), () -> batch.tileset.writeTiles(tiles));
+    }
+  }
+
+  private void write(TileQuery tile, int numberOfTiles, WriteAction writeAction)
+      throws IOException {
     boolean written = false;
     int count = 0;
     String reason = null;
     while (!written && count++ < 3) {
       try {
-        tileset.writeTile(tile, content.readAllBytes());
+        writeAction.write();
         written = true;
-      } catch (SQLException e) {
+      } catch (SQLException | IOException e) {
         reason = e.getMessage();
         if (LOGGER.isTraceEnabled()) {
           LOGGER.trace(
-              "Failed to write tile {}/{}/{}/{} for tileset '{}'. Reason: {}. Trying again...",
+              "Failed to write {} tile(s) starting with {}/{}/{}/{} for tileset '{}'. Reason: {}. Trying again...",
+              numberOfTiles,
               tile.getTileMatrixSet().getId(),
               tile.getLevel(),
               tile.getRow(),
@@ -247,17 +437,35 @@ public class TileStoreMbTiles implements TileStore {
     }
 
     if (!written) {
-      if (LOGGER.isWarnEnabled()) {
-        LOGGER.warn(
-            "Failed to write tile {}/{}/{}/{} for tileset '{}'. Reason: {}.",
-            tile.getTileMatrixSet().getId(),
-            tile.getLevel(),
-            tile.getRow(),
-            tile.getCol(),
-            tile.getTileset(),
-            reason);
+      throw new IOException(
+          String.format(
+              "Failed to write %d tile(s) starting with %s/%d/%d/%d for tileset '%s'. Reason: %s.",
+              numberOfTiles,
+              tile.getTileMatrixSet().getId(),
+              tile.getLevel(),
+              tile.getRow(),
+              tile.getCol(),
+              tile.getTileset(),
+              reason));
+    }
+  }
+
+  private MbtilesTileset getOrCreateTileSet(TileQuery tile) throws IOException {
+    synchronized (tileSets) {
+      if (!tileSets.containsKey(key(tile))) {
+        tileSets.put(
+            key(tile),
+            createTileSet(
+                rootStore,
+                providerId,
+                tile.getTileset(),
+                tile.getTileMatrixSet().getId(),
+                getVectorLayers(tileSchemas, tile.getTileset()),
+                partitions,
+                false));
       }
     }
+    return tileSets.get(key(tile));
   }
 
   @Override
@@ -388,6 +596,30 @@ public class TileStoreMbTiles implements TileStore {
         });
   }
 
+  @Override
+  public void close() {
+    ScheduledExecutorService flusher;
+    synchronized (writeBatches) {
+      flusher = batchFlusher;
+      this.batchFlusher = null;
+    }
+    if (Objects.nonNull(flusher)) {
+      // lets a running flush finish, the remaining batches are written below
+      flusher.shutdown();
+      try {
+        flusher.awaitTermination(30, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    try {
+      flush();
+    } catch (IOException e) {
+      LogContext.errorAsWarn(LOGGER, e, "Could not write pending tiles to MBTiles files.");
+    }
+    tileSets.values().forEach(MbtilesTileset::close);
+  }
+
   private int getTmsRow(String tmsId, int level, int row) {
     return tileMatrixSetRepository
         .flatMap(r -> r.get(tmsId))
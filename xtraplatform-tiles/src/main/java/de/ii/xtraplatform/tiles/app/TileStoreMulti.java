@@ -22,12 +22,14 @@ import de.ii.xtraplatform.tiles.domain.TileMatrixSetRepository;
 import de.ii.xtraplatform.tiles.domain.TileQuery;
 import de.ii.xtraplatform.tiles.domain.TileResult;
 import de.ii.xtraplatform.tiles.domain.TileStore;
+import de.ii.xtraplatform.tiles.domain.TileSubMatrix;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Path;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
@@ -42,7 +44,7 @@ import org.apache.commons.lang3.NotImplementedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class TileStoreMulti implements TileStore, TileStore.Staging {
+public class TileStoreMulti implements TileStore, TileStore.Staging, TileStore.Batching {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(TileStoreMulti.class);
   private static final String STAGING_MARKER = ".staging";
@@ -111,6 +113,23 @@ public class TileStoreMulti implements TileStore, TileStore.Staging {
     return false;
   }
 
+  @Override
+  public Optional<BitSet> has(
+      String tileset, TileMatrixSetBase tileMatrixSet, TileSubMatrix subMatrix)
+      throws IOException {
+    BitSet exists = new BitSet();
+
+    for (Tuple<TileStore, ResourceStore> store : active) {
+      Optional<BitSet> result = store.first().has(tileset, tileMatrixSet, subMatrix);
+      if (result.isEmpty()) {
+        return Optional.empty();
+      }
+      exists.or(result.get());
+    }
+
+    return Optional.of(exists);
+  }
+
   @Override
   public TileResult get(TileQuery tile) throws IOException {
     for (Tuple<TileStore, ResourceStore> store : active) {
@@ -158,6 +177,25 @@ public class TileStoreMulti implements TileStore, TileStore.Staging {
     staging.first().put(tile, content);
   }
 
+  @Override
+  public void putBatched(TileQuery tile, InputStream content) throws IOException {
+    if (!inProgress()) {
+      throw new IllegalStateException("Writing is only allowed during staging.");
+    }
+    if (staging.first().canBatch()) {
+      staging.first().batching().putBatched(tile, content);
+    } else {
+      staging.first().put(tile, content);
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    if (inProgress() && staging.first().canBatch()) {
+      staging.first().batching().flush();
+    }
+  }
+
   @Override
   public void delete(TileQuery tile) throws IOException {
     throw new NotImplementedException();
@@ -318,10 +356,19 @@ public class TileStoreMulti implements TileStore, TileStore.Staging {
   @Override
   public synchronized void abort() throws IOException {
     if (inProgress()) {
+      staging.first().close();
       this.staging = null;
     }
   }
 
+  @Override
+  public synchronized void close() {
+    if (inProgress()) {
+      staging.first().close();
+    }
+    active.forEach(store -> store.first().close());
+  }
+
   @Override
   public synchronized void cleanup() throws IOException {
     if (inProgress()) {
@@ -413,6 +460,7 @@ public class TileStoreMulti implements TileStore, TileStore.Staging {
   private boolean deleteCacheLevelIfEmpty(Tuple<TileStore, ResourceStore> cacheLevel) {
     try {
       if (cacheLevel.first().isEmpty()) {
+        cacheLevel.first().close();
         deleteCacheLevel(cacheLevel.second());
         return true;
       }
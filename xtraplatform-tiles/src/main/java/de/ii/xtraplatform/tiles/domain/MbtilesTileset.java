@@ -16,12 +16,19 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.google.common.base.Splitter;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalListener;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import de.ii.xtraplatform.base.domain.LogContext;
 import de.ii.xtraplatform.tiles.app.FeatureEncoderMVT;
+import de.ii.xtraplatform.tiles.app.SqlConnectionPool;
+import de.ii.xtraplatform.tiles.app.SqlConnectionPool.SqlFunction;
 import de.ii.xtraplatform.tiles.app.SqlHelper;
 import de.ii.xtraplatform.tiles.app.TileStorePartitions;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -33,9 +40,11 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
@@ -88,6 +97,13 @@ public class MbtilesTileset {
   private static final Logger LOGGER = LoggerFactory.getLogger(MbtilesTileset.class);
   private static final int EMPTY_TILE_ID = 1;
   private static final int IDS_CHUCK_SIZE = 10000;
+  // with partitions there is a file per partition, idle files release their connections
+  private static final int MAX_READ_POOLS = 32;
+  private static final long READ_POOL_IDLE_MINUTES = 5;
+  private static final String SELECT_TILE_DATA =
+      "SELECT tile_data FROM tiles WHERE zoom_level=? AND tile_row=? AND tile_column=?";
+  private static final String SELECT_TILE_ID =
+      "SELECT tile_id FROM tiles WHERE zoom_level=? AND tile_row=? AND tile_column=?";
   private final Path tilesetPath;
   private final Mutex mutex;
   private final MbtilesMetadata metadata;
@@ -95,6 +111,9 @@ public class MbtilesTileset {
   private final boolean numericTileIds;
   private final String tileMapTable;
   private final String tileBlobsTable;
+  private final String selectTileExists;
+  private final String selectTilesExist;
+  private final LoadingCache<Path, SqlConnectionPool> readPools;
 
   public MbtilesTileset(Path tilesetPath, boolean isXtratiler) {
     this(tilesetPath, null, Optional.empty(), isXtratiler, true, Mutex.create());
@@ -133,6 +152,21 @@ public class MbtilesTileset {
     this.numericTileIds = !isXtratiler;
     this.tileMapTable = isXtratiler ? "map" : "tile_map";
     this.tileBlobsTable = isXtratiler ? "images" : "tile_blobs";
+    this.selectTileExists =
+        String.format(
+            "SELECT 1 FROM %s WHERE zoom_level=? AND tile_row=? AND tile_column=?", tileMapTable);
+    this.selectTilesExist =
+        String.format(
+            "SELECT tile_row, tile_column FROM %s WHERE zoom_level=? AND tile_row>=? AND tile_row<=? AND tile_column>=? AND tile_column<=?",
+            tileMapTable);
+    this.readPools =
+        CacheBuilder.newBuilder()
+            .maximumSize(MAX_READ_POOLS)
+            .expireAfterAccess(READ_POOL_IDLE_MINUTES, TimeUnit.MINUTES)
+            .removalListener(
+                (RemovalListener<Path, SqlConnectionPool>)
+                    notification -> notification.getValue().close())
+            .build(CacheLoader.from(SqlConnectionPool::new));
 
     if (Objects.isNull(metadata)) {
       try {
@@ -293,10 +327,6 @@ public class MbtilesTileset {
     return SqlHelper.getConnection(path, readOnly);
   }
 
-  private Optional<Connection> getConnectionIfExists(TileCoordinates tile, boolean readOnly) {
-    return getConnectionIfExists(tile.getLevel(), tile.getRow(), tile.getCol(), readOnly);
-  }
-
   private Optional<Connection> getConnectionIfExists(
       int level, int row, int col, boolean readOnly) {
     Path path = getTilesetPath(level, row, col);
@@ -308,6 +338,25 @@ public class MbtilesTileset {
     return Optional.of(SqlHelper.getConnection(path, readOnly));
   }
 
+  private <T> T withReadConnection(Path path, SqlFunction<T> function) throws SQLException {
+    while (true) {
+      SqlConnectionPool pool = readPools.getUnchecked(path);
+      try {
+        return pool.withConnection(function);
+      } catch (IllegalStateException e) {
+        // the pool was evicted concurrently, the next lookup creates a new one
+        if (!pool.isClosed()) {
+          throw e;
+        }
+      }
+    }
+  }
+
+  /** Closes all pooled read connections, e.g. when the provider is stopped. */
+  public void close() {
+    readPools.invalidateAll();
+  }
+
   public String getStorageInfo(int level, int row, int col) {
     return getTilesetPath(level, row, col).toString();
   }
@@ -497,58 +546,67 @@ public class MbtilesTileset {
   }
 
   public Optional<InputStream> getTile(TileQuery tile) throws SQLException, IOException {
-    Optional<Connection> optionalConnection = getConnectionIfExists(tile, true);
+    Path path = getTilesetPath(tile);
 
-    if (optionalConnection.isEmpty()) {
+    if (!Files.exists(path)) {
       return Optional.empty();
     }
 
-    Optional<InputStream> result = Optional.empty();
     int level = tile.getLevel();
     int tmsRow = tile.getTileMatrixSet().getTmsRow(level, tile.getRow());
     int col = tile.getCol();
     boolean gzip = Objects.equals(tile.getMediaType(), FeatureEncoderMVT.FORMAT);
-    String sql =
-        String.format(
-            "SELECT tile_data FROM tiles WHERE zoom_level=%d AND tile_row=%d AND tile_column=%d",
-            level, tmsRow, col);
-    try (Connection connection = optionalConnection.get();
-        Statement statement = connection.createStatement();
-        ResultSet rs = statement.executeQuery(sql)) {
-      if (rs.next()) {
-        result =
-            Optional.of(
-                gzip
-                    ? new GZIPInputStream(rs.getBinaryStream("tile_data"))
-                    : rs.getBinaryStream("tile_data"));
-      }
+
+    Optional<byte[]> tileData =
+        withReadConnection(
+            path,
+            connection -> {
+              PreparedStatement statement = connection.prepare(SELECT_TILE_DATA);
+              statement.setInt(1, level);
+              statement.setInt(2, tmsRow);
+              statement.setInt(3, col);
+              try (ResultSet rs = statement.executeQuery()) {
+                if (rs.next()) {
+                  return Optional.ofNullable(rs.getBytes(1));
+                }
+              }
+              return Optional.empty();
+            });
+
+    if (tileData.isEmpty()) {
+      return Optional.empty();
     }
-    return result;
+
+    InputStream content = new ByteArrayInputStream(tileData.get());
+
+    return Optional.of(gzip ? new GZIPInputStream(content) : content);
   }
 
   public Optional<Boolean> tileIsEmpty(TileCoordinates tile) throws SQLException, IOException {
-    Optional<Connection> optionalConnection = getConnectionIfExists(tile, true);
+    Path path = getTilesetPath(tile);
 
-    if (optionalConnection.isEmpty()) {
+    if (!Files.exists(path)) {
       return Optional.empty();
     }
 
-    Optional<Boolean> result = Optional.empty();
     int level = tile.getLevel();
     int tmsRow = tile.getTileMatrixSet().getTmsRow(level, tile.getRow());
     int col = tile.getCol();
-    String sql =
-        String.format(
-            "SELECT tile_id FROM tiles WHERE zoom_level=%d AND tile_row=%d AND tile_column=%d",
-            level, tmsRow, col);
-    try (Connection connection = optionalConnection.get();
-        Statement statement = connection.createStatement();
-        ResultSet rs = statement.executeQuery(sql)) {
-      if (rs.next()) {
-        result = Optional.of(rs.getInt("tile_id") == EMPTY_TILE_ID);
-      }
-    }
-    return result;
+
+    return withReadConnection(
+        path,
+        connection -> {
+          PreparedStatement statement = connection.prepare(SELECT_TILE_ID);
+          statement.setInt(1, level);
+          statement.setInt(2, tmsRow);
+          statement.setInt(3, col);
+          try (ResultSet rs = statement.executeQuery()) {
+            if (rs.next()) {
+              return Optional.of(rs.getInt(1) == EMPTY_TILE_ID);
+            }
+          }
+          return Optional.empty();
+        });
   }
 
   @FunctionalInterface
@@ -629,21 +687,25 @@ public class MbtilesTileset {
 
   public boolean tileExists(int level, int row, int tmsRow, int col)
       throws SQLException, IOException {
-    Optional<Connection> optionalConnection = getConnectionIfExists(level, row, col, true);
+    Path path = getTilesetPath(level, row, col);
 
-    if (optionalConnection.isEmpty()) {
+    if (!Files.exists(path)) {
       return false;
     }
 
-    String sql =
-        String.format(
-            "SELECT tile_data FROM tiles WHERE zoom_level=%d AND tile_row=%d AND tile_column=%d",
-            level, tmsRow, col);
-    boolean exists;
-    try (Connection connection = optionalConnection.get();
-        Statement statement = connection.createStatement();
-        ResultSet rs = statement.executeQuery(sql)) {
-      exists = rs.next();
+    // only the tile map is queried, the lookup is answered from the tile index
+    try {
+      return withReadConnection(
+          path,
+          connection -> {
+            PreparedStatement statement = connection.prepare(selectTileExists);
+            statement.setInt(1, level);
+            statement.setInt(2, tmsRow);
+            statement.setInt(3, col);
+            try (ResultSet rs = statement.executeQuery()) {
+              return rs.next();
+            }
+          });
     } catch (SQLException e) {
       if (LOGGER.isWarnEnabled()) {
         LOGGER.warn(
@@ -651,13 +713,68 @@ public class MbtilesTileset {
             level,
             tmsRow,
             col,
-            sql);
+            selectTileExists);
       }
       throw e;
     }
+  }
+
+  /**
+   * Determines which tiles of a sub-matrix exist with a single query per MBTiles file.
+   *
+   * @param tileMatrixSet the tile matrix set
+   * @param subMatrix the sub-matrix, rows are in the XYZ scheme
+   * @return a bitmap with a bit for each tile of the sub-matrix, see {@link
+   *     TileSubMatrix#indexOf(int, int)}
+   */
+  public BitSet tilesExist(TileMatrixSetBase tileMatrixSet, TileSubMatrix subMatrix)
+      throws SQLException, IOException {
+    BitSet exists = new BitSet((int) subMatrix.getNumberOfTiles());
+
+    if (partitions.isEmpty()) {
+      tilesExist(tileMatrixSet, subMatrix, subMatrix, exists);
+      return exists;
+    }
+
+    for (TileSubMatrix partition : partitions.get().getSubMatrices(subMatrix.toLimits())) {
+      tilesExist(tileMatrixSet, subMatrix, partition, exists);
+    }
+
     return exists;
   }
 
+  private void tilesExist(
+      TileMatrixSetBase tileMatrixSet, TileSubMatrix subMatrix, TileSubMatrix part, BitSet exists)
+      throws SQLException {
+    Path path = getTilesetPath(part.getLevel(), part.getRowMin(), part.getColMin());
+
+    if (!Files.exists(path)) {
+      return;
+    }
+
+    int level = part.getLevel();
+
+    withReadConnection(
+        path,
+        connection -> {
+          PreparedStatement statement = connection.prepare(selectTilesExist);
+          statement.setInt(1, level);
+          statement.setInt(2, tileMatrixSet.getTmsRow(level, part.getRowMax()));
+          statement.setInt(3, tileMatrixSet.getTmsRow(level, part.getRowMin()));
+          statement.setInt(4, part.getColMin());
+          statement.setInt(5, part.getColMax());
+          try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+              // the conversion between XYZ and TMS rows is symmetric
+              int row = tileMatrixSet.getTmsRow(level, rs.getInt(1));
+              int col = rs.getInt(2);
+              exists.set(subMatrix.indexOf(row, col));
+            }
+          }
+          return null;
+        });
+  }
+
   public boolean hasAnyTiles() throws SQLException, IOException {
     if (partitions.isEmpty()) {
       return hasAnyTiles(0, 0, 0);
@@ -677,37 +794,58 @@ public class MbtilesTileset {
   }
 
   private boolean hasAnyTiles(int level, int row, int col) throws SQLException, IOException {
-    Optional<Connection> optionalConnection = getConnectionIfExists(level, row, col, true);
+    Path path = getTilesetPath(level, row, col);
 
-    if (optionalConnection.isEmpty()) {
+    if (!Files.exists(path)) {
       return false;
     }
 
     String sql = String.format("SELECT COUNT(*) FROM %s", tileBlobsTable);
-    long count;
-    try (Connection connection = optionalConnection.get();
-        Statement statement = connection.createStatement();
-        ResultSet rs = statement.executeQuery(sql)) {
-      count = rs.getLong(1);
-    }
+    long count =
+        withReadConnection(
+            path,
+            connection -> {
+              try (ResultSet rs = connection.prepare(sql).executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0L;
+              }
+            });
     return count > 1;
   }
 
   public void writeTile(TileQuery tile, byte[] content) throws SQLException, IOException {
-    int level = tile.getLevel();
-    int tmsRow = tile.getTileMatrixSet().getTmsRow(level, tile.getRow());
-    int col = tile.getCol();
-    boolean gzip = Objects.equals(tile.getMediaType(), FeatureEncoderMVT.FORMAT);
-    boolean supportsEmptyTile = Objects.equals(tile.getMediaType(), FeatureEncoderMVT.FORMAT);
+    writeTiles(List.of(Map.entry(tile, content)));
+  }
+
+  /**
+   * Writes multiple tiles in a single transaction. All tiles have to be stored in the same MBTiles
+   * file, i.e. with partitions they have to belong to the same partition.
+   */
+  public void writeTiles(List<Entry<TileQuery, byte[]>> tiles) throws SQLException, IOException {
+    if (tiles.isEmpty()) {
+      return;
+    }
+
+    TileQuery first = tiles.get(0).getKey();
     if (LOGGER.isTraceEnabled()) {
-      LOGGER.trace(
-          "Write tile {}/{}/{}/{} to MBTiles cache {}.",
-          tile.getTileMatrixSet().getId(),
-          level,
-          tile.getRow(),
-          col,
-          getTilesetPath(tile));
+      if (tiles.size() == 1) {
+        LOGGER.trace(
+            "Write tile {}/{}/{}/{} to MBTiles cache {}.",
+            first.getTileMatrixSet().getId(),
+            first.getLevel(),
+            first.getRow(),
+            first.getCol(),
+            getTilesetPath(first));
+      } else {
+        LOGGER.trace("Write {} tiles to MBTiles cache {}.", tiles.size(), getTilesetPath(first));
+      }
     }
+
+    // compress before the transaction is started to keep the lock as short as possible
+    List<byte[]> blobs = new ArrayList<>(tiles.size());
+    for (Entry<TileQuery, byte[]> tile : tiles) {
+      blobs.add(toBlob(tile.getKey(), tile.getValue()));
+    }
+
     Connection connection = null;
     boolean acquired = false;
     try {
@@ -715,78 +853,31 @@ public class MbtilesTileset {
         LOGGER.trace("writeTile: Trying to acquire mutex: '{}'.", acquired);
       }
       acquired = mutex.tryAcquire(5, TimeUnit.SECONDS);
-      if (acquired) {
-        connection = getConnectionEnsureExists(tile, false, false);
-        SqlHelper.execute(connection, "BEGIN IMMEDIATE");
-        // do we have an old blob?
-        boolean exists = false;
-        Integer old_tile_id = null;
-        String sql =
+      if (!acquired) {
+        throw new SQLException(
             String.format(
-                "SELECT tile_id FROM tile_map WHERE zoom_level=%d AND tile_row=%d AND tile_column=%d",
-                level, tmsRow, col);
-        try (Statement statement = connection.createStatement();
-            ResultSet rs = statement.executeQuery(sql)) {
-          if (rs.next()) {
-            exists = true;
-            old_tile_id = rs.getInt(1);
-          }
-        }
-        // add the new tile
-        int tile_id = EMPTY_TILE_ID;
-        if (content.length > 0 || !supportsEmptyTile) {
-          try (PreparedStatement statement =
-              connection.prepareStatement("INSERT INTO tile_blobs (tile_data) VALUES(?)")) {
-            ByteArrayOutputStream mvt = new ByteArrayOutputStream(content.length);
-            if (gzip) {
-              GZIPOutputStream gzipStream = new GZIPOutputStream(mvt);
-              gzipStream.write(content);
-              gzipStream.close();
-            } else {
-              mvt.write(content);
-            }
-            statement.setBytes(1, mvt.toByteArray());
-            statement.executeUpdate();
-          }
-          sql = "SELECT last_insert_rowid()";
-          try (Statement statement = connection.createStatement();
-              ResultSet rs = statement.executeQuery(sql)) {
-            tile_id = rs.getInt(1);
-          }
-        }
-        sql =
-            exists
-                ? "UPDATE tile_map SET tile_id=? WHERE zoom_level=? AND tile_row=? AND tile_column=?"
-                : "INSERT INTO tile_map (tile_id,zoom_level,tile_row,tile_column) VALUES(?,?,?,?)";
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-          statement.setInt(1, tile_id);
-          statement.setInt(2, level);
-          statement.setInt(3, tmsRow);
-          statement.setInt(4, col);
-          statement.executeUpdate();
-        }
-
-        // finally remove any old blob
-        if (Objects.nonNull(old_tile_id) && (old_tile_id != EMPTY_TILE_ID || !supportsEmptyTile)) {
-          sql = "DELETE FROM tile_map WHERE tile_id=?";
-          try (PreparedStatement statement = connection.prepareStatement(sql)) {
-            statement.setInt(1, old_tile_id);
-            statement.executeUpdate();
-          }
+                "Could not acquire the write lock for MBTiles cache %s within 5 seconds.",
+                getTilesetPath(first)));
+      }
+      connection = getConnectionEnsureExists(first, false, false);
+      SqlHelper.execute(connection, "BEGIN IMMEDIATE");
+      try (TileWriter writer = new TileWriter(connection)) {
+        for (int i = 0; i < tiles.size(); i++) {
+          writer.write(tiles.get(i).getKey(), blobs.get(i));
         }
-
-        SqlHelper.execute(connection, "COMMIT");
       }
+      SqlHelper.execute(connection, "COMMIT");
     } catch (SQLException e) {
-      try {
-        SqlHelper.execute(connection, "ROLLBACK");
-      } catch (Exception ignore) {
+      if (Objects.nonNull(connection)) {
+        try {
+          SqlHelper.execute(connection, "ROLLBACK");
+        } catch (Exception ignore) {
+        }
       }
       throw e;
     } catch (InterruptedException e) {
-      if (LOGGER.isDebugEnabled()) {
-        LOGGER.debug("writeTile: Thread has been interrupted.");
-      }
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for the MBTiles write lock.", e);
     } finally {
       releaseConnection(connection);
       if (acquired) {
@@ -798,6 +889,103 @@ public class MbtilesTileset {
     }
   }
 
+  // returns null for empty tiles that are stored as a reference to the empty tile blob
+  @Nullable
+  private static byte[] toBlob(TileQuery tile, byte[] content) throws IOException {
+    boolean gzip = Objects.equals(tile.getMediaType(), FeatureEncoderMVT.FORMAT);
+    boolean supportsEmptyTile = Objects.equals(tile.getMediaType(), FeatureEncoderMVT.FORMAT);
+
+    if (content.length == 0 && supportsEmptyTile) {
+      return null;
+    }
+
+    ByteArrayOutputStream mvt = new ByteArrayOutputStream(content.length);
+    if (gzip) {
+      GZIPOutputStream gzipStream = new GZIPOutputStream(mvt);
+      gzipStream.write(content);
+      gzipStream.close();
+    } else {
+      mvt.write(content);
+    }
+
+    return mvt.toByteArray();
+  }
+
+  private static class TileWriter implements AutoCloseable {
+    private final PreparedStatement selectTileId;
+    private final PreparedStatement insertBlob;
+    private final PreparedStatement selectBlobId;
+    private final PreparedStatement updateTile;
+    private final PreparedStatement insertTile;
+    private final PreparedStatement deleteBlob;
+
+    TileWriter(Connection connection) throws SQLException {
+      this.selectTileId =
+          connection.prepareStatement(
+              "SELECT tile_id FROM tile_map WHERE zoom_level=? AND tile_row=? AND tile_column=?");
+      this.insertBlob = connection.prepareStatement("INSERT INTO tile_blobs (tile_data) VALUES(?)");
+      this.selectBlobId = connection.prepareStatement("SELECT last_insert_rowid()");
+      this.updateTile =
+          connection.prepareStatement(
+              "UPDATE tile_map SET tile_id=? WHERE zoom_level=? AND tile_row=? AND tile_column=?");
+      this.insertTile =
+          connection.prepareStatement(
+              "INSERT INTO tile_map (tile_id,zoom_level,tile_row,tile_column) VALUES(?,?,?,?)");
+      this.deleteBlob = connection.prepareStatement("DELETE FROM tile_blobs WHERE tile_id=?");
+    }
+
+    void write(TileQuery tile, @Nullable byte[] blob) throws SQLException {
+      int level = tile.getLevel();
+      int tmsRow = tile.getTileMatrixSet().getTmsRow(level, tile.getRow());
+      int col = tile.getCol();
+      boolean supportsEmptyTile = Objects.equals(tile.getMediaType(), FeatureEncoderMVT.FORMAT);
+
+      // do we have an old blob?
+      boolean exists = false;
+      Integer old_tile_id = null;
+      selectTileId.setInt(1, level);
+      selectTileId.setInt(2, tmsRow);
+      selectTileId.setInt(3, col);
+      try (ResultSet rs = selectTileId.executeQuery()) {
+        if (rs.next()) {
+          exists = true;
+          old_tile_id = rs.getInt(1);
+        }
+      }
+      // add the new tile
+      int tile_id = EMPTY_TILE_ID;
+      if (Objects.nonNull(blob)) {
+        insertBlob.setBytes(1, blob);
+        insertBlob.executeUpdate();
+        try (ResultSet rs = selectBlobId.executeQuery()) {
+          tile_id = rs.getInt(1);
+        }
+      }
+      PreparedStatement statement = exists ? updateTile : insertTile;
+      statement.setInt(1, tile_id);
+      statement.setInt(2, level);
+      statement.setInt(3, tmsRow);
+      statement.setInt(4, col);
+      statement.executeUpdate();
+
+      // finally remove any old blob
+      if (Objects.nonNull(old_tile_id) && (old_tile_id != EMPTY_TILE_ID || !supportsEmptyTile)) {
+        deleteBlob.setInt(1, old_tile_id);
+        deleteBlob.executeUpdate();
+      }
+    }
+
+    @Override
+    public void close() throws SQLException {
+      selectTileId.close();
+      insertBlob.close();
+      selectBlobId.close();
+      updateTile.close();
+      insertTile.close();
+      deleteBlob.close();
+    }
+  }
+
   public void deleteTile(TileQuery tile) throws SQLException, IOException {
     int level = tile.getLevel();
     int row = tile.getRow();
@@ -123,6 +123,28 @@ public interface SeedingOptions {
     return Objects.isNull(getMaxThreads()) || getMaxThreads() <= 1 ? 1 : getMaxThreads();
   }
 
+  /**
+   * @langEn The maximum number of tiles of a single seeding job that are generated in parallel.
+   *     The actual number is also limited by the capacity of the feature provider, which depends on
+   *     the size of its connection pool. All seeding threads of the provider share up to this
+   *     number of additional threads.
+   * @langDe Die maximale Anzahl an Tiles eines einzelnen Seeding-Jobs, die parallel erzeugt werden.
+   *     Die tatsächliche Anzahl wird zusätzlich durch die Kapazität des Feature-Providers
+   *     beschränkt, die von der Größe seines Connection-Pools abhängt. Alle Seeding-Threads des
+   *     Providers teilen sich bis zu dieser Anzahl an zusätzlichen Threads.
+   * @default 1
+   */
+  @Nullable
+  Integer getMaxParallelTiles();
+
+  @Value.Lazy
+  @JsonIgnore
+  default int getEffectiveMaxParallelTiles() {
+    return Objects.isNull(getMaxParallelTiles()) || getMaxParallelTiles() <= 1
+        ? 1
+        : getMaxParallelTiles();
+  }
+
   /**
    * @langEn The maximum number of tiles in a seeding job (S=256, M=1024, L=16384, XL=65536). The
    *     tile seeding is split into multiple jobs to distribute the work across threads and nodes.
@@ -12,12 +12,20 @@ import de.ii.xtraplatform.crs.domain.BoundingBox;
 import de.ii.xtraplatform.tiles.domain.Cache.Storage;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.BitSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,7 +58,17 @@ public interface TileCache {
 
   void cleanupSeeding(TileSeedingJobSet jobSet, String tileSourceLabel) throws IOException;
 
-  void seed(TileSeedingJob job, String tileSourceLabel, Runnable updateProgress) throws IOException;
+  /**
+   * @param executor shared by all jobs, the tiles of this job are visited on it if {@code
+   *     maxParallelTiles} is greater than one
+   */
+  void seed(
+      TileSeedingJob job,
+      String tileSourceLabel,
+      Runnable updateProgress,
+      Executor executor,
+      int maxParallelTiles)
+      throws IOException;
 
   default void doSeed(
       TileSeedingJob job,
@@ -58,11 +76,14 @@ public interface TileCache {
       TileStore tileStore,
       ChainedTileProvider delegate,
       TileWalker tileWalker,
-      Runnable updateProgress)
+      Runnable updateProgress,
+      Executor executor,
+      int maxParallelTiles)
       throws IOException {
-    tileWalker.walkTileSeedingJob(
-        job,
-        getTmsRanges(),
+    // existing tiles are determined once per sub-matrix, if the store supports it
+    Map<TileSubMatrix, Optional<BitSet>> existingTiles = new ConcurrentHashMap<>();
+
+    TileWalker.TileVisitor seedTile =
         (tileset, encoding, tms, level, row, col) -> {
           try {
             if (LOGGER.isTraceEnabled()) {
@@ -83,11 +104,19 @@ public interface TileCache {
                     // TODO .generationParameters(tilesets.get(tileset))
                     .build();
 
-            if (job.isReseed() || tileStore.isDirty(tile) || !tileStore.has(tile)) {
+            if (job.isReseed()
+                || tileStore.isDirty(tile)
+                || !exists(tileStore, job, tile, existingTiles)) {
               TileResult result = delegate.get(tile);
 
               if (shouldCache(tile) && result.isAvailable()) {
-                tileStore.put(tile, new ByteArrayInputStream(result.getContent().get()));
+                if (tileStore.canBatch()) {
+                  tileStore
+                      .batching()
+                      .putBatched(tile, new ByteArrayInputStream(result.getContent().get()));
+                } else {
+                  tileStore.put(tile, new ByteArrayInputStream(result.getContent().get()));
+                }
                 /*if (isEmpty[0]) {
                   isEmpty[0] = false;
                 }*/
@@ -109,7 +138,110 @@ public interface TileCache {
           } finally {
             updateProgress.run();
           }
-        });
+        };
+
+    if (maxParallelTiles > 1) {
+      walkParallel(job, tileWalker, getTmsRanges(), seedTile, executor, maxParallelTiles);
+    } else {
+      tileWalker.walkTileSeedingJob(job, getTmsRanges(), seedTile);
+    }
+
+    if (tileStore.canBatch()) {
+      tileStore.batching().flush();
+    }
+  }
+
+  /**
+   * Visits the tiles of a job on the shared executor. The walker itself stays sequential, it blocks
+   * as soon as {@code maxParallelTiles} tiles of this job are in flight, so the queue never holds
+   * more than that per job. The first failure stops the submission of further tiles and is
+   * rethrown after all running tiles are finished.
+   */
+  private static void walkParallel(
+      TileSeedingJob job,
+      TileWalker tileWalker,
+      Map<String, Map<String, Range<Integer>>> tmsRanges,
+      TileWalker.TileVisitor tileVisitor,
+      Executor executor,
+      int maxParallelTiles)
+      throws IOException {
+    Semaphore inFlight = new Semaphore(maxParallelTiles);
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    try {
+      tileWalker.walkTileSeedingJob(
+          job,
+          tmsRanges,
+          (tileset, encoding, tms, level, row, col) -> {
+            if (Objects.nonNull(failure.get())) {
+              return;
+            }
+            try {
+              inFlight.acquire();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+              throw new InterruptedIOException("Tile seeding was interrupted");
+            }
+            try {
+              executor.execute(
+                  () -> {
+                    try {
+                      tileVisitor.visit(tileset, encoding, tms, level, row, col);
+                    } catch (Throwable e) {
+                      failure.compareAndSet(null, e);
+                    } finally {
+                      inFlight.release();
+                    }
+                  });
+            } catch (RejectedExecutionException e) {
+              inFlight.release();
+              throw new IOException(e);
+            }
+          });
+    } finally {
+      try {
+        inFlight.acquire(maxParallelTiles);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    Throwable error = failure.get();
+    if (error instanceof IOException) {
+      throw (IOException) error;
+    }
+    if (error instanceof RuntimeException) {
+      throw (RuntimeException) error;
+    }
+    if (error instanceof Error) {
+      throw (Error) error;
+    }
+  }
+
+  private static boolean exists(
+      TileStore tileStore,
+      TileSeedingJob job,
+      TileQuery tile,
+      Map<TileSubMatrix, Optional<BitSet>> existingTiles)
+      throws IOException {
+    for (TileSubMatrix subMatrix : job.getSubMatrices()) {
+      if (subMatrix.getLevel() == tile.getLevel()
+          && subMatrix.contains(tile.getRow(), tile.getCol())) {
+        Optional<BitSet> existing = existingTiles.get(subMatrix);
+        if (Objects.isNull(existing)) {
+          // concurrent lookups for the same sub-matrix might compute the bitmap twice, but the
+          // result is the same
+          existing = tileStore.has(job.getTileSet(), tile.getTileMatrixSet(), subMatrix);
+          existingTiles.putIfAbsent(subMatrix, existing);
+        }
+        if (existing.isPresent()) {
+          return existing.get().get(subMatrix.indexOf(tile.getRow(), tile.getCol()));
+        }
+        break;
+      }
+    }
+
+    return tileStore.has(tile);
   }
 
   default void purge(TileSeedingJob job, String tileSourceLabel) throws IOException {}
@@ -15,4 +15,7 @@ public interface TileEncoder {
 
   byte[] combine(TileQuery tile, TileProviderFeaturesData data, ChainedTileProvider tileProvider)
       throws IOException;
+
+  /** Releases the resources that were allocated by the encoder, e.g. threads. */
+  default void close() {}
 }
@@ -66,6 +66,26 @@ public interface TileGenerationOptions {
   @Nullable
   Boolean getSparse();
 
+  /**
+   * @langEn Encode the tiles directly in the database instead of processing the features in the
+   *     application. Only supported for Mapbox Vector Tiles and feature providers with dialect
+   *     `PGIS`. Tilesets where features are merged, where the feature type has property
+   *     transformations or where the properties are not columns of a single table are always
+   *     processed in the application. Note that `minimumSizeInPixel` and
+   *     `ignoreInvalidGeometries` are not applied, PostGIS uses its own rules instead.
+   * @langDe Die Kacheln werden direkt in der Datenbank kodiert, anstatt die Features in der
+   *     Anwendung zu verarbeiten. Nur für Mapbox Vector Tiles und Feature-Provider mit dem Dialekt
+   *     `PGIS` unterstützt. Tilesets, in denen Features verschmolzen werden, deren Objektart
+   *     Transformationen verwendet oder deren Eigenschaften nicht Spalten einer einzelnen Tabelle
+   *     sind, werden stets in der Anwendung verarbeitet. `minimumSizeInPixel` und
+   *     `ignoreInvalidGeometries` werden nicht angewendet, stattdessen gelten die Regeln von
+   *     PostGIS.
+   * @default false
+   * @since v4.3
+   */
+  @Nullable
+  Boolean getEncodeInDatabase();
+
   /**
    * @langEn Transform the selected features for a certain zoom level. Supported transformations
    *     are: selecting a subset of feature properties (`properties`), spatial merging of features
@@ -49,6 +49,29 @@ public interface TileStore extends TileStoreReadOnly {
     void abort() throws IOException;
   }
 
+  /**
+   * Write-behind mode for seeding. Tiles passed to {@link #putBatched(TileQuery, InputStream)} may
+   * be buffered and only become visible after they were written together with other tiles, at the
+   * latest when {@link #flush()} is called.
+   */
+  interface Batching {
+
+    void putBatched(TileQuery tile, InputStream content) throws IOException;
+
+    void flush() throws IOException;
+  }
+
+  default boolean canBatch() {
+    return this instanceof Batching;
+  }
+
+  default Batching batching() {
+    if (!canBatch()) {
+      throw new UnsupportedOperationException("Batching not supported");
+    }
+    return (Batching) this;
+  }
+
   default boolean canStage() {
     return this instanceof Staging;
   }
@@ -8,6 +8,7 @@
 package de.ii.xtraplatform.tiles.domain;
 
 import java.io.IOException;
+import java.util.BitSet;
 import java.util.Optional;
 
 public interface TileStoreReadOnly {
@@ -24,6 +25,20 @@ public interface TileStoreReadOnly {
 
   boolean has(String tileset, String tms, int level, int row, int col) throws IOException;
 
+  /**
+   * Determines which tiles of a sub-matrix exist in a single operation.
+   *
+   * @return a bitmap indexed by {@link TileSubMatrix#indexOf(int, int)} or empty, if the store
+   *     cannot answer this in bulk and the tiles have to be checked individually
+   */
+  default Optional<BitSet> has(
+      String tileset, TileMatrixSetBase tileMatrixSet, TileSubMatrix subMatrix)
+      throws IOException {
+    return Optional.empty();
+  }
+
+  default void close() {}
+
   @FunctionalInterface
   interface Walker {
     void walk(String tileset, String tms, int level, int row, int col);
@@ -40,6 +40,15 @@ public interface TileSubMatrix {
     return ((long) getRowMax() - getRowMin() + 1) * (getColMax() - getColMin() + 1);
   }
 
+  default boolean contains(int row, int col) {
+    return row >= getRowMin() && row <= getRowMax() && col >= getColMin() && col <= getColMax();
+  }
+
+  /** Position of a tile in a row-major enumeration of the tiles in the sub-matrix. */
+  default int indexOf(int row, int col) {
+    return (row - getRowMin()) * (getColMax() - getColMin() + 1) + (col - getColMin());
+  }
+
   default TileMatrixSetLimits toLimits() {
     return new ImmutableTileMatrixSetLimits.Builder()
         .tileMatrix(String.valueOf(getLevel()))
@@ -69,6 +69,11 @@ public interface TilesetFeatures
   @Override
   Boolean getSparse();
 
+  @DocIgnore
+  @Nullable
+  @Override
+  Boolean getEncodeInDatabase();
+
   @DocIgnore
   @Override
   Map<String, List<LevelTransformation>> getTransformations();
@@ -150,6 +155,10 @@ public interface TilesetFeatures
     if (Objects.isNull(this.getSparse()) && Objects.nonNull(defaults.getSparse())) {
       withDefaults.sparse(defaults.getSparse());
     }
+    if (Objects.isNull(this.getEncodeInDatabase())
+        && Objects.nonNull(defaults.getEncodeInDatabase())) {
+      withDefaults.encodeInDatabase(defaults.getEncodeInDatabase());
+    }
 
     return withDefaults.build();
   }